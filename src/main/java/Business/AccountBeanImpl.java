@@ -1,13 +1,59 @@
 package Business;
 
+import Business.Concurrent.BlockAllocator;
+import Business.Concurrent.HeavyHitters;
+import Business.Concurrent.HotAccountRegistry;
+import Business.Concurrent.NaturalIdCache;
+import Business.Concurrent.SingleFlight;
+import Business.Concurrent.StripedLocks;
+import Business.Interceptor.OptimisticRetryInterceptor;
 import Entity.Account;
+import Entity.AccountBalanceSlot;
+import Entity.AccountJournalEntry;
+import Entity.Customer;
+import Entity.IdBlock;
+import Model.AccountPage;
+import Model.AccountSearch;
+import Model.AccountView;
+import Model.IdSequence;
+import Model.JournalEntryType;
+import Model.Money;
+import Model.Transfer;
+import jakarta.annotation.Resource;
+import jakarta.ejb.ConcurrentAccessTimeoutException;
+import jakarta.ejb.EJB;
+import jakarta.ejb.EJBException;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.interceptor.Interceptors;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import Exception.AccountNotFoundException;
+import Exception.InsufficientFundsException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.SpecHints;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 /**
  * Stateless session bean for managing Account entities.
  * Provides operations for creating, finding, updating, and deleting accounts.
@@ -22,24 +68,75 @@ public class AccountBeanImpl implements IAccountBean {
     // Persistence context for interacting with the database
     @PersistenceContext(unitName = "PersistenceUnit")
     public EntityManager entityManager;
+    // Session context used to roll back a money movement that fails half way
+    @Resource
+    SessionContext sessionContext;
+    // Reserves blocks of account ids and account numbers, each in a transaction of its own
+    @EJB
+    IIdBlockBean idBlockBean;
+    // Tells whether a read runs in a transaction
+    @Resource
+    TransactionSynchronizationRegistry transactionRegistry;
+    // Striped locks that serialize concurrent money movements on the same accounts
+    private static final StripedLocks transferLocks = new StripedLocks(Integer.getInteger("project2.transfer.stripes", 256));
+    // Maximum time to wait for a lock stripe, in milliseconds
+    private static final long TRANSFER_LOCK_TIMEOUT_MILLIS = Long.getLong("project2.transfer.lockTimeoutMillis", 5000);
+    // Upper bound on the number of balance slots of a hot account
+    public static final int MAX_BALANCE_SLOTS = 64;
+    // Which accounts are in hot mode; reloaded from the database periodically
+    private static final HotAccountRegistry hotAccounts = new HotAccountRegistry(Long.getLong("project2.hotAccounts.refreshMillis", 10000));
+    // Number of ids reserved per database round trip; also the most ids a restart can skip
+    private static final int ID_BLOCK_SIZE = Integer.getInteger("project2.ids.blockSize", 100);
+    // Lifetime of a block of account ids; the existence filter settle time must exceed it
+    private static final long ID_BLOCK_MAX_AGE_MILLIS = Long.getLong("project2.ids.blockMaxAgeSeconds", 60) * 1000;
+    // Server-side allocation of account ids and account numbers
+    private static final BlockAllocator accountIds = new BlockAllocator(ID_BLOCK_SIZE, ID_BLOCK_MAX_AGE_MILLIS);
+    private static final BlockAllocator accountNumbers = new BlockAllocator(ID_BLOCK_SIZE);
+    // Account id by account number, so lookups by number are a primary key read
+    private static final NaturalIdCache accountIdsByNumber = new NaturalIdCache(Integer.getInteger("project2.accountNumberCache.size", 100_000),
+            HeavyHitters.ACCOUNTS::isHot);
+    // Page size of an account search when the caller does not choose one, and the largest allowed
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    // Number of digits of the largest account number
+    private static final int ACCOUNT_NUMBER_DIGITS = 9;
+    // Most ids loading at once per coalesced read; callers beyond it load on their own
+    static final int MAX_IN_FLIGHT = Integer.getInteger("project2.coalescing.maxInFlight", 10_000);
+    // Most ids sent in one IN list; a larger batch takes several queries
+    static final int MAX_IDS_PER_QUERY = Integer.getInteger("project2.batch.maxIds", 500);
+    // Concurrent reads of the same account share one query
+    private static final SingleFlight<Integer, AccountView> accountViewLoads = new SingleFlight<>("accountView", MAX_IN_FLIGHT);
+    private static final SingleFlight<Integer, Money> balanceLoads = new SingleFlight<>("accountBalance", MAX_IN_FLIGHT);
 
     /**
-     * Creates a new account in the database.
+     * Creates a new account in the database. An id or account number left at 0 is allocated by the server.
      *
      * @param account the Account entity to be persisted
      */
     @Override
     public void createAccount(Account account) {
+        // A value chosen by the caller could collide with one handed out later, and the existence
+        // filter relies on every account id coming from a reserved block
+        if (account.getAccountId() != 0 || account.getAccountNumber() != 0) {
+            logger.info("Replacing account ID {} and number {} given by the caller", account.getAccountId(), account.getAccountNumber());
+        }
+        account.setAccountId((int) accountIds.next(size -> reserveIds(IdSequence.ACCOUNT_ID, size)));
+        account.setAccountNumber((int) accountNumbers.next(size -> reserveIds(IdSequence.ACCOUNT_NUMBER, size)));
         // Log the creation attempt
         logger.info("Creating account with ID: {}", account.getAccountId());
         // Persist the account entity
         entityManager.persist(account);
+        ExistenceFilter.ACCOUNTS.added(account.getAccountId());
+        // The opening balance is the first entry of the account journal
+        journal(account.getAccountId(), account.getAccountBalance(), JournalEntryType.OPENING, null, Instant.now());
         // Log successful creation
         logger.info("Account created successfully with ID: {}", account.getAccountId());
 
     }
     /**
      * Finds an account by its ID.
+     * Runs without a transaction of its own and loads the account read-only, see {@link ReadOnlyQueries}.
+     * Outside a transaction, the balance of a hot account includes its balance slots.
      *
      * @param id the ID of the account to be retrieved
      * @return the Account entity with the specified ID
@@ -47,41 +144,294 @@ public class AccountBeanImpl implements IAccountBean {
      */
 
     @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
     public Account findAccount(int id) throws AccountNotFoundException {
+        checkNotKnownMissing(id);
+        Account account = withSlotBalance(loadAccount(id, true));
+        recordRead(id);
+        return account;
+    }
+
+    // Loads an account by ID; read-only for the finders, managed as usual for the methods that change it.
+    private Account loadAccount(int id, boolean readOnly) throws AccountNotFoundException {
         try {
             // Log the search attempt
             logger.info("Searching for account with ID: {}", id);
             // Execute the named query to find the account
-            Account account = (Account) entityManager.createNamedQuery("selectAccountQuery").setParameter("id", id).getSingleResult();
+            Query query = entityManager.createNamedQuery("selectAccountQuery");
+            if (readOnly) {
+                ReadOnlyQueries.readOnly(query);
+            }
+            Account account = (Account) query.setParameter("id", id).getSingleResult();
             // Log the successful retrieval
             logger.info("Account found: {}", account);
             return account;
         } catch (NoResultException e) {
             // Log the failure to find the account
             logger.warn("could not find account");
+            ExistenceFilter.ACCOUNTS.missing(id);
+            throw new AccountNotFoundException("Account with id " + id + " not found.");
+
+        }
+
+    }
+    /**
+     * Finds an account together with the customer owning it. The {@link Account#WITH_CUSTOMER}
+     * fetch graph joins the customer into the same query, so reading the owner needs no further query.
+     *
+     * @param id the ID of the account to be retrieved
+     * @return the Account entity with its customer loaded
+     * @throws AccountNotFoundException if no account is found with the given ID
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public Account findAccountWithCustomer(int id) throws AccountNotFoundException {
+        logger.info("Searching for account with ID: {} and its customer", id);
+        checkNotKnownMissing(id);
+        try {
+            Query query = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectAccountQuery"));
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Account.WITH_CUSTOMER));
+            Account account = withSlotBalance((Account) query.setParameter("id", id).getSingleResult());
+            recordRead(id);
+            return account;
+        } catch (NoResultException e) {
+            logger.warn("could not find account");
+            ExistenceFilter.ACCOUNTS.missing(id);
             throw new AccountNotFoundException("Account with id " + id + " not found.");
+        }
+    }
+    /**
+     * Finds an account by its account number.
+     * The account id of a number is cached, so a repeated lookup is a read by primary key; a cached
+     * id whose account no longer carries the number is evicted and the number is looked up again.
+     *
+     * @param accountNumber the account number
+     * @return the Account entity with the specified account number
+     * @throws AccountNotFoundException if no account has the given account number
+     */
 
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public Account findAccountByNumber(int accountNumber) throws AccountNotFoundException {
+        logger.info("Searching for account with number: {}", accountNumber);
+        Integer cachedId = accountIdsByNumber.get(accountNumber);
+        if (cachedId != null) {
+            Account account = entityManager.find(Account.class, cachedId, ReadOnlyQueries.FIND_PROPERTIES);
+            if (account != null && account.getAccountNumber() == accountNumber) {
+                recordRead(cachedId);
+                return withSlotBalance(account);
+            }
+            // The number moved to another account or the account was deleted on another node
+            accountIdsByNumber.remove(accountNumber);
+        }
+        try {
+            Account account = (Account) ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectAccountByNumberQuery"))
+                    .setParameter("accountNumber", accountNumber).getSingleResult();
+            accountIdsByNumber.put(accountNumber, account.getAccountId());
+            recordRead(account.getAccountId());
+            return withSlotBalance(account);
+        } catch (NoResultException e) {
+            logger.warn("could not find account with number {}", accountNumber);
+            throw new AccountNotFoundException("Account with number " + accountNumber + " not found.");
+        }
+    }
+    /**
+     * Reads an account as a read-only view. The projection query only selects the rendered
+     * columns, so nothing is added to the persistence context. Outside a transaction, concurrent
+     * reads of the same account share one query and its outcome.
+     *
+     * @param id the ID of the account
+     * @return the view of the account
+     * @throws AccountNotFoundException if no account is found with the given ID
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public AccountView findAccountView(int id) throws AccountNotFoundException {
+        logger.info("Reading account with ID: {}", id);
+        checkNotKnownMissing(id);
+        AccountView view = loadAccountView(id);
+        recordRead(id);
+        return view;
+    }
+
+    // Reads the view of an account, sharing the query with concurrent readers outside a transaction.
+    private AccountView loadAccountView(int id) throws AccountNotFoundException {
+        return coalesce(accountViewLoads, id, () -> {
+            try {
+                return ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectAccountViewQuery", AccountView.class))
+                        .setParameter("id", id).getSingleResult();
+            } catch (NoResultException e) {
+                logger.warn("could not find account");
+                ExistenceFilter.ACCOUNTS.missing(id);
+                throw new AccountNotFoundException("Account with id " + id + " not found.");
+            }
+        });
+    }
+    /**
+     * Reads an account by its account number as a read-only view. Like {@link #findAccountByNumber(int)},
+     * a number whose account id is cached is read by primary key.
+     *
+     * @param accountNumber the account number
+     * @return the view of the account
+     * @throws AccountNotFoundException if no account has the given account number
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public AccountView findAccountViewByNumber(int accountNumber) throws AccountNotFoundException {
+        logger.info("Reading account with number: {}", accountNumber);
+        Integer cachedId = accountIdsByNumber.get(accountNumber);
+        if (cachedId != null) {
+            try {
+                AccountView view = loadAccountView(cachedId);
+                if (view.getAccountNumber() == accountNumber) {
+                    recordRead(cachedId);
+                    return view;
+                }
+            } catch (AccountNotFoundException e) {
+                // Deleted on another node; the number is looked up again below
+            }
+            accountIdsByNumber.remove(accountNumber);
+        }
+        AccountView view;
+        try {
+            view = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectAccountViewByNumberQuery", AccountView.class))
+                    .setParameter("accountNumber", accountNumber).getSingleResult();
+        } catch (NoResultException e) {
+            logger.warn("could not find account with number {}", accountNumber);
+            throw new AccountNotFoundException("Account with number " + accountNumber + " not found.");
+        }
+        accountIdsByNumber.put(accountNumber, view.getAccountId());
+        recordRead(view.getAccountId());
+        return view;
+    }
+    /**
+     * Searches accounts with optional filters, one page at a time in account number order.
+     * The query is assembled from the filters that are set, so each search only carries the
+     * predicates it needs and can use the matching composite index; the cursor turns into a
+     * range condition on the account number instead of an OFFSET.
+     *
+     * @param search the filters; null filters are not applied
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit  the page size, between 1 and {@link #MAX_PAGE_SIZE}; 0 for {@link #DEFAULT_PAGE_SIZE}
+     * @return the page and the cursor of the next page
+     * @throws IllegalArgumentException if a filter, the cursor or the limit is invalid
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public AccountPage searchAccounts(AccountSearch search, String cursor, int limit) {
+        int pageSize = limit == 0 ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
         }
+        logger.info("Searching accounts: {}, cursor: {}, limit: {}", search, cursor, pageSize);
+        StringBuilder jpql = new StringBuilder("SELECT NEW Model.AccountView(a.accountId, a.accountNumber, a.accountBalance, a.accountType,"
+                + " (SELECT SUM(s.balance) FROM AccountBalanceSlot s WHERE s.accountId = a.accountId)) FROM Account a WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (search.getCustomerId() != null) {
+            jpql.append(" AND a.customer.customerId = :customerId");
+            parameters.put("customerId", Customer.parseCustomerId(search.getCustomerId()));
+        }
+        if (search.getAccountType() != null) {
+            jpql.append(" AND a.accountType = :accountType");
+            parameters.put("accountType", search.getAccountType());
+        }
+        if (search.getMinBalance() != null) {
+            jpql.append(" AND a.accountBalance >= :minBalance");
+            parameters.put("minBalance", search.getMinBalance());
+        }
+        if (search.getMaxBalance() != null) {
+            jpql.append(" AND a.accountBalance <= :maxBalance");
+            parameters.put("maxBalance", search.getMaxBalance());
+        }
+        if (search.getNumberPrefix() != null) {
+            if (!appendNumberPrefix(jpql, parameters, search.getNumberPrefix())) {
+                // No account number starts with a zero
+                return new AccountPage(Collections.emptyList(), null);
+            }
+        }
+        if (cursor != null) {
+            jpql.append(" AND a.accountNumber > :after");
+            parameters.put("after", AccountPage.decodeCursor(cursor));
+        }
+        jpql.append(" ORDER BY a.accountNumber");
+        Query query = ReadOnlyQueries.readOnly(entityManager.createQuery(jpql.toString()));
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            query.setParameter(parameter.getKey(), parameter.getValue());
+        }
+        // One extra row tells whether there is a next page
+        List<?> rows = query.setMaxResults(pageSize + 1).getResultList();
+        List<AccountView> accounts = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (int i = 0; i < rows.size() && i < pageSize; i++) {
+            accounts.add((AccountView) rows.get(i));
+        }
+        String nextCursor = rows.size() > pageSize
+                ? AccountPage.encodeCursor(accounts.get(pageSize - 1).getAccountNumber()) : null;
+        return new AccountPage(accounts, nextCursor);
+    }
 
+    // Adds the account number ranges that start with the prefix, one per possible number length, so
+    // the condition stays a set of index ranges; returns false if no account number can match.
+    private static boolean appendNumberPrefix(StringBuilder jpql, Map<String, Object> parameters, String prefix) {
+        if (prefix.isEmpty() || prefix.length() > ACCOUNT_NUMBER_DIGITS || !prefix.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("Account number prefix must be 1 to " + ACCOUNT_NUMBER_DIGITS + " digits");
+        }
+        if (prefix.charAt(0) == '0') {
+            return false;
+        }
+        long low = Long.parseLong(prefix);
+        long high = low + 1;
+        jpql.append(" AND (");
+        for (int length = prefix.length(); length <= ACCOUNT_NUMBER_DIGITS; length++) {
+            int range = length - prefix.length();
+            if (range > 0) {
+                jpql.append(" OR ");
+            }
+            jpql.append("(a.accountNumber >= :prefixLow").append(range)
+                    .append(" AND a.accountNumber < :prefixHigh").append(range).append(')');
+            parameters.put("prefixLow" + range, (int) low);
+            parameters.put("prefixHigh" + range, (int) Math.min(high, Integer.MAX_VALUE));
+            low *= 10;
+            high *= 10;
+        }
+        jpql.append(')');
+        return true;
     }
+
     /**
      * Updates the account number for a specific account.
+     * The update is version-checked; on a concurrent modification the method is retried
+     * in a new transaction by {@link OptimisticRetryInterceptor}.
      *
      * @param id the ID of the account to be updated
      * @param accountNumber the new account number to set
      * @throws AccountNotFoundException if no account is found with the given ID
+     * @throws IllegalArgumentException if the account number is not reserved yet
      */
 
     @Override
+    @Interceptors(OptimisticRetryInterceptor.class)
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
     public void updateAccount(int id, int accountNumber) throws AccountNotFoundException{
         // Log the update attempt
         logger.info("Updating account with ID: {}", id);
+        // A number not reserved yet would later be allocated to a new account as well
+        if (accountNumber >= nextUnreservedId(IdSequence.ACCOUNT_NUMBER)) {
+            throw new IllegalArgumentException("Account number " + accountNumber + " is not allocated yet");
+        }
+        HeavyHitters.ACCOUNTS.record(id);
         // Find the account before updating
-        Account account = findAccount(id);
-        // Update the account number
+        Account account = loadAccount(id, false);
+        // Update the account number; the old number no longer resolves to this account
+        accountIdsByNumber.remove(account.getAccountNumber());
         account.setAccountNumber(accountNumber);
         // Merge changes into the database
         entityManager.merge(account);
+        // Flush now so that a version conflict is raised inside this attempt and can be retried
+        entityManager.flush();
         // Log successful update
         logger.info("Account with ID: {} updated successfully to accountNumber: {}", id, accountNumber);
 
@@ -97,12 +447,539 @@ public class AccountBeanImpl implements IAccountBean {
     public void deleteAccount(int id)throws AccountNotFoundException {
         // Log the deletion attempt
         logger.info("Attempting to delete account with ID: {}", id);
+        HeavyHitters.ACCOUNTS.record(id);
         // Ensure the account exists before deletion
-        findAccount(id);
+        Account account = loadAccount(id, false);
+        // Record the remaining balance leaving with the account
+        Money remaining = account.getAccountBalance().plus(sumSlots(id));
+        if (!remaining.isZero()) {
+            journal(id, remaining.negate(), JournalEntryType.CLOSING, null, Instant.now());
+        }
+        // Remove the balance slots of a hot account together with the account
+        entityManager.createNamedQuery("deleteAccountSlotsQuery")
+                .setParameter("id", id).executeUpdate();
+        hotAccounts.markNormal(id);
+        accountIdsByNumber.remove(account.getAccountNumber());
         // Execute the named query to delete the account
         entityManager.createNamedQuery("deleteAccountQuery")
                 .setParameter("id", id).executeUpdate();
         // Log successful deletion
         logger.info("Account with ID: {} deleted successfully.", id);
     }
+
+    /**
+     * Moves money from one account to another in its own transaction.
+     *
+     * @param fromId the ID of the account to debit
+     * @param toId   the ID of the account to credit
+     * @param amount the amount to move
+     * @throws AccountNotFoundException   if either account does not exist
+     * @throws InsufficientFundsException if the source account does not cover the amount
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void transfer(int fromId, int toId, Money amount) throws AccountNotFoundException, InsufficientFundsException {
+        // Log the transfer attempt
+        logger.info("Transferring {} from account {} to account {}", amount, fromId, toId);
+        applyTransfers(Collections.singletonList(new Transfer(fromId, toId, amount)));
+        // Log successful transfer
+        logger.info("Transferred {} from account {} to account {} successfully.", amount, fromId, toId);
+    }
+
+    /**
+     * Applies a batch of transfers atomically in its own transaction.
+     *
+     * @param transfers the transfers to apply
+     * @throws AccountNotFoundException   if an account of the batch does not exist
+     * @throws InsufficientFundsException if the batch would overdraw an account
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void transferBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException {
+        // Log the batch attempt
+        logger.info("Executing batch of {} transfers", transfers.size());
+        applyTransfers(transfers);
+        // Log successful batch
+        logger.info("Batch of {} transfers executed successfully.", transfers.size());
+    }
+
+    /**
+     * Credits an account with an arithmetic UPDATE, journals the deposit and reads the new balance
+     * back in the same transaction.
+     *
+     * @param id     the ID of the account to credit
+     * @param amount the amount to add
+     * @return the balance after the deposit
+     * @throws AccountNotFoundException if no account is found with the given ID
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Money deposit(int id, Money amount) throws AccountNotFoundException {
+        // Log the deposit attempt
+        logger.info("Depositing {} into account {}", amount, id);
+        HeavyHitters.ACCOUNTS.record(id);
+        validateAmount(amount);
+        try {
+            applyDelta(id, amount.getMinorUnits());
+        } catch (InsufficientFundsException e) {
+            // A credit never overdraws an account
+            throw new IllegalStateException(e);
+        }
+        journal(id, amount, JournalEntryType.DEPOSIT, null, Instant.now());
+        Money balance = readBalance(id);
+        // Log successful deposit
+        logger.info("Deposited {} into account {}, new balance: {}", amount, id, balance);
+        return balance;
+    }
+
+    /**
+     * Debits an account with a conditional UPDATE that rejects overdraft, journals the withdrawal
+     * and reads the new balance back in the same transaction.
+     *
+     * @param id     the ID of the account to debit
+     * @param amount the amount to take
+     * @return the balance after the withdrawal
+     * @throws AccountNotFoundException   if no account is found with the given ID
+     * @throws InsufficientFundsException if the balance does not cover the amount
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public Money withdraw(int id, Money amount) throws AccountNotFoundException, InsufficientFundsException {
+        // Log the withdrawal attempt
+        logger.info("Withdrawing {} from account {}", amount, id);
+        HeavyHitters.ACCOUNTS.record(id);
+        validateAmount(amount);
+        applyDelta(id, -amount.getMinorUnits());
+        journal(id, amount.negate(), JournalEntryType.WITHDRAWAL, null, Instant.now());
+        Money balance = readBalance(id);
+        // Log successful withdrawal
+        logger.info("Withdrew {} from account {}, new balance: {}", amount, id, balance);
+        return balance;
+    }
+
+    /**
+     * Returns the balance of an account, including the balance slots of an account in hot mode.
+     * Outside a transaction, concurrent reads of the same balance share one read.
+     *
+     * @param id the ID of the account
+     * @return the balance of the account
+     * @throws AccountNotFoundException if no account is found with the given ID
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public Money getAccountBalance(int id) throws AccountNotFoundException {
+        logger.info("Reading balance of account {}", id);
+        checkNotKnownMissing(id);
+        Money balance = coalesce(balanceLoads, id, () -> {
+            try {
+                return readBalance(id);
+            } catch (NoResultException e) {
+                logger.warn("Account with ID: {} not found.", id);
+                ExistenceFilter.ACCOUNTS.missing(id);
+                throw new AccountNotFoundException("Account with id " + id + " not found.");
+            }
+        });
+        recordRead(id);
+        return balance;
+    }
+
+    /**
+     * Loads a batch of accounts read-only in one query and caches their account numbers.
+     *
+     * @param ids the account ids
+     * @return the number of accounts found
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public int prefetchAccounts(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Account> accounts = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectAccountsByIdsQuery", Account.class))
+                .setParameter("ids", ids).getResultList();
+        for (Account account : accounts) {
+            accountIdsByNumber.put(account.getAccountNumber(), account.getAccountId());
+        }
+        logger.debug("Prefetched {} of {} accounts", accounts.size(), ids.size());
+        return accounts.size();
+    }
+
+    /**
+     * Finds a batch of accounts read-only, {@link #MAX_IDS_PER_QUERY} ids per query. Repeated ids,
+     * and ids the existence filter knows to be missing, are not sent to the database.
+     *
+     * @param ids the account ids
+     * @return the accounts found
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<Account> findAccounts(List<Integer> ids) {
+        Set<Integer> candidates = new LinkedHashSet<>();
+        for (int id : ids) {
+            if (!ExistenceFilter.ACCOUNTS.isKnownMissing(id)) {
+                candidates.add(id);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Integer> keys = new ArrayList<>(candidates);
+        List<Account> accounts = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i += MAX_IDS_PER_QUERY) {
+            accounts.addAll(ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectAccountsByIdsQuery", Account.class))
+                    .setParameter("ids", keys.subList(i, Math.min(keys.size(), i + MAX_IDS_PER_QUERY))).getResultList());
+        }
+        for (Account account : accounts) {
+            withSlotBalance(account);
+            recordRead(account.getAccountId());
+        }
+        logger.debug("Found {} of {} accounts", accounts.size(), ids.size());
+        return accounts;
+    }
+
+    /**
+     * Rebuilds the existence filter from the account ids, streamed through a forward-only cursor,
+     * see {@link CustomerBeanImpl#EXPORT_FETCH_SIZE}. The reservation point of the account id
+     * sequence is read first, so the filter can tell which ids the scan has certainly seen. The
+     * first rebuild waits for that point to settle before it scans.
+     *
+     * @return the number of account ids loaded, 0 if the wait was interrupted
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public long rebuildExistenceFilter() {
+        long nextUnreserved = nextUnreservedId(IdSequence.ACCOUNT_ID);
+        long loaded;
+        try {
+            loaded = ExistenceFilter.ACCOUNTS.rebuild(nextUnreserved, ids -> {
+                org.hibernate.query.Query<?> query = entityManager.createNamedQuery("selectAccountIdsQuery")
+                        .unwrap(org.hibernate.query.Query.class);
+                try (ScrollableResults<?> rows = query.setReadOnly(true).setFetchSize(CustomerBeanImpl.EXPORT_FETCH_SIZE)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()) {
+                        ids.accept(((Number) rows.get()).longValue());
+                    }
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.info("Existence filter rebuild interrupted while waiting for the id reservations to settle");
+            return 0;
+        }
+        logger.info("Existence filter rebuilt with {} account ids, answering up to id {}", loaded,
+                ExistenceFilter.ACCOUNTS.getWatermark());
+        return loaded;
+    }
+
+    // First value of a sequence not reserved by any node yet; before the first reservation, the one it will start at.
+    private long nextUnreservedId(IdSequence sequence) {
+        IdBlock block = entityManager.find(IdBlock.class, sequence.name());
+        if (block != null) {
+            return block.getNextValue();
+        }
+        Number max = (Number) entityManager.createNamedQuery(sequence.getSeedQuery()).getSingleResult();
+        return max == null ? sequence.getMinValue() : Math.max(sequence.getMinValue(), max.longValue() + 1);
+    }
+
+    /**
+     * Puts an account in hot mode: its credits are spread over the given number of balance slots
+     * instead of all updating the account row.
+     *
+     * @param id    the ID of the account to promote
+     * @param slots the number of balance slots, between 2 and {@link #MAX_BALANCE_SLOTS}
+     * @throws AccountNotFoundException if no account is found with the given ID
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void promoteToHotMode(int id, int slots) throws AccountNotFoundException {
+        logger.info("Promoting account {} to hot mode with {} balance slots", id, slots);
+        if (slots < 2 || slots > MAX_BALANCE_SLOTS) {
+            throw new IllegalArgumentException("Balance slots must be between 2 and " + MAX_BALANCE_SLOTS + ": " + slots);
+        }
+        int updated = entityManager.createNamedQuery("promoteAccountQuery")
+                .setParameter("id", id).setParameter("slots", slots).executeUpdate();
+        if (updated == 0) {
+            ensureAccountExists(id);
+            throw new IllegalStateException("Account with id " + id + " is already in hot mode.");
+        }
+        for (int slot = 0; slot < slots; slot++) {
+            entityManager.persist(new AccountBalanceSlot(id, slot));
+        }
+        hotAccounts.markHot(id, slots);
+        logger.info("Account {} promoted to hot mode.", id);
+    }
+
+    /**
+     * Takes an account out of hot mode, folding its balance slots back into the account row.
+     * Credits that race with the demotion fall back to the account row, so none are lost.
+     *
+     * @param id the ID of the account to demote
+     * @throws AccountNotFoundException if no account is found with the given ID
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void demoteFromHotMode(int id) throws AccountNotFoundException {
+        logger.info("Demoting account {} from hot mode", id);
+        // Locks the account row first, so credits falling back from the slots wait for the fold
+        int updated = entityManager.createNamedQuery("demoteAccountQuery").setParameter("id", id).executeUpdate();
+        if (updated == 0) {
+            ensureAccountExists(id);
+        }
+        Money folded = foldSlots(id, true);
+        hotAccounts.markNormal(id);
+        logger.info("Account {} demoted, {} folded back from its balance slots.", id, folded);
+    }
+
+    // Counts a read of an existing account, for the heavy hitters and the hot set saved from them.
+    private static void recordRead(int id) {
+        HeavyHitters.ACCOUNTS.record(id);
+    }
+
+    // Shares the load with concurrent callers; a caller in a transaction may have changed the row
+    // itself, so it loads on its own.
+    private <V> V coalesce(SingleFlight<Integer, V> loads, int id, SingleFlight.Loader<V, AccountNotFoundException> loader)
+            throws AccountNotFoundException {
+        if (inTransaction()) {
+            return loader.load();
+        }
+        return loads.load(id, loader);
+    }
+
+    private boolean inTransaction() {
+        return transactionRegistry != null && transactionRegistry.getTransactionKey() != null;
+    }
+
+    // Shows the balance slots of a hot account on the balance of a finder result. Outside a
+    // transaction the account is a detached copy; in one it may be a managed instance the caller
+    // changes later, so it keeps the row balance.
+    private Account withSlotBalance(Account account) {
+        if (account.getBalanceSlots() > 0 && !inTransaction()) {
+            account.includeSlotBalance(sumSlots(account.getAccountId()));
+        }
+        return account;
+    }
+
+    // Throws AccountNotFoundException without a query if the existence filter knows the account does not exist.
+    private static void checkNotKnownMissing(int id) throws AccountNotFoundException {
+        if (ExistenceFilter.ACCOUNTS.isKnownMissing(id)) {
+            logger.debug("Account with ID: {} is known not to exist", id);
+            throw new AccountNotFoundException("Account with id " + id + " not found.");
+        }
+    }
+
+    // Reads the account row balance plus the balance slots; throws NoResultException if the account does not exist.
+    private Money readBalance(int id) {
+        Money balance = (Money) entityManager.createNamedQuery("selectAccountBalanceQuery").setParameter("id", id).getSingleResult();
+        return balance.plus(sumSlots(id));
+    }
+
+    // Sums the balance slots of an account; 0 for an account that is not in hot mode.
+    private Money sumSlots(int id) {
+        return Money.fromAggregate(entityManager.createNamedQuery("sumAccountSlotsQuery").setParameter("id", id).getSingleResult());
+    }
+
+    // Appends a balance movement to the journal; the inserts are batched when the transaction flushes.
+    private void journal(int accountId, Money amount, JournalEntryType type, Integer counterpartyId, Instant at) {
+        entityManager.persist(new AccountJournalEntry(accountId, amount, type, counterpartyId, at));
+    }
+
+    // Reserves a block of ids; retried once because the very first reservation of a sequence can lose an insert race.
+    private long reserveIds(IdSequence sequence, int size) {
+        try {
+            return idBlockBean.reserveBlock(sequence, size);
+        } catch (EJBException e) {
+            logger.warn("Retrying reservation of {} ids", sequence, e);
+            return idBlockBean.reserveBlock(sequence, size);
+        }
+    }
+
+    // Credits one balance slot of a hot account; returns false if the account row has to be credited instead.
+    private boolean creditHotSlot(int id, Money amount) {
+        refreshHotAccounts();
+        int slots = hotAccounts.slotsFor(id);
+        if (slots == 0) {
+            return false;
+        }
+        int updated = entityManager.createNamedQuery("creditAccountSlotQuery").setParameter("id", id)
+                .setParameter("slot", HotAccountRegistry.slotForCurrentWriter(slots)).setParameter("amount", amount).executeUpdate();
+        if (updated == 0) {
+            // The account was demoted, possibly on another node; stop aiming at its slots
+            hotAccounts.markNormal(id);
+            return false;
+        }
+        return true;
+    }
+
+    // Reloads the hot account hints once per refresh interval.
+    private void refreshHotAccounts() {
+        if (hotAccounts.claimRefresh(System.currentTimeMillis())) {
+            Map<Integer, Integer> hot = new HashMap<>();
+            for (Object row : entityManager.createNamedQuery("selectHotAccountsQuery").getResultList()) {
+                Object[] columns = (Object[]) row;
+                hot.put((Integer) columns[0], (Integer) columns[1]);
+            }
+            hotAccounts.replaceAll(hot);
+        }
+    }
+
+    // Moves the slot balances of an account into the account row, locking the slots so no credit lands in between.
+    private Money foldSlots(int id, boolean removeSlots) {
+        List<?> slots = entityManager.createNamedQuery("selectAccountSlotsQuery").setParameter("id", id)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+        long folded = 0;
+        for (Object row : slots) {
+            AccountBalanceSlot slot = (AccountBalanceSlot) row;
+            folded = Math.addExact(folded, slot.getBalance().getMinorUnits());
+            if (removeSlots) {
+                entityManager.remove(slot);
+            } else {
+                slot.setBalance(Money.ZERO);
+            }
+        }
+        if (folded != 0) {
+            entityManager.createNamedQuery("creditAccountQuery")
+                    .setParameter("id", id).setParameter("amount", Money.ofMinor(folded)).executeUpdate();
+        }
+        return Money.ofMinor(folded);
+    }
+
+    // Nets the transfers per account and applies them under the striped locks, in ascending account
+    // order. The stripes are held until the transaction completes.
+    private void applyTransfers(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException {
+        // The TreeMap keeps the accounts sorted, so database row locks are always taken in the same order
+        TreeMap<Integer, Long> deltas = new TreeMap<>();
+        for (Transfer transfer : transfers) {
+            validateTransfer(transfer);
+            HeavyHitters.ACCOUNTS.record(transfer.getFromId());
+            HeavyHitters.ACCOUNTS.record(transfer.getToId());
+            long amount = transfer.getAmount().getMinorUnits();
+            deltas.merge(transfer.getFromId(), -amount, Math::addExact);
+            deltas.merge(transfer.getToId(), amount, Math::addExact);
+        }
+        int[] lockedStripes = lockAccounts(deltas.keySet().stream().mapToInt(Integer::intValue).toArray());
+        boolean releasedAtCompletion = releaseAtCompletion(lockedStripes);
+        try {
+            for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                applyDelta(delta.getKey(), delta.getValue());
+            }
+            // Balances are updated with the net amounts, but the journal keeps every single transfer
+            Instant now = Instant.now();
+            for (Transfer transfer : transfers) {
+                journal(transfer.getFromId(), transfer.getAmount().negate(), JournalEntryType.TRANSFER, transfer.getToId(), now);
+                journal(transfer.getToId(), transfer.getAmount(), JournalEntryType.TRANSFER, transfer.getFromId(), now);
+            }
+        } finally {
+            if (!releasedAtCompletion) {
+                transferLocks.unlockAll(lockedStripes);
+            }
+        }
+    }
+
+    // Keeps the stripes locked until the transaction has committed or rolled back, so a transfer on
+    // the same accounts never reads balances the database has not committed yet. Returns false when
+    // there is no transaction to wait for, and the caller releases the stripes itself.
+    private boolean releaseAtCompletion(int[] lockedStripes) {
+        if (!inTransaction()) {
+            return false;
+        }
+        try {
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    transferLocks.unlockAll(lockedStripes);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The transaction can no longer complete normally; nothing would release the stripes
+            transferLocks.unlockAll(lockedStripes);
+            throw e;
+        }
+        return true;
+    }
+
+    // Applies the net change of one account, in minor units, with a single conditional UPDATE.
+    private void applyDelta(int id, long delta) throws AccountNotFoundException, InsufficientFundsException {
+        if (delta < 0) {
+            // The debit only matches the row if the balance covers it
+            int updated = debit(id, -delta);
+            if (updated == 0 && foldSlots(id, false).isPositive()) {
+                // A hot account may hold the missing money in its balance slots
+                updated = debit(id, -delta);
+            }
+            if (updated == 0) {
+                ensureAccountExists(id);
+                logger.warn("Insufficient funds in account {} for a debit of {}", id, Money.ofMinor(-delta));
+                throw new InsufficientFundsException("Account with id " + id + " has insufficient funds.");
+            }
+        } else if (delta > 0) {
+            if (!creditHotSlot(id, Money.ofMinor(delta))) {
+                int updated = entityManager.createNamedQuery("creditAccountQuery")
+                        .setParameter("id", id).setParameter("amount", Money.ofMinor(delta)).executeUpdate();
+                if (updated == 0) {
+                    throwAccountNotFound(id);
+                }
+            }
+        } else {
+            // Movements that cancel out still require the account to exist
+            ensureAccountExists(id);
+        }
+    }
+
+    // Debits the account row if its balance covers the amount; returns the number of updated rows.
+    private int debit(int id, long amount) {
+        return entityManager.createNamedQuery("debitAccountQuery")
+                .setParameter("id", id).setParameter("amount", Money.ofMinor(amount)).executeUpdate();
+    }
+
+    // Throws AccountNotFoundException if the account does not exist.
+    private void ensureAccountExists(int id) throws AccountNotFoundException {
+        Long count = (Long) entityManager.createNamedQuery("countAccountQuery").setParameter("id", id).getSingleResult();
+        if (count == 0) {
+            throwAccountNotFound(id);
+        }
+    }
+
+    // Marks the transaction for rollback, since earlier updates of the movement may already be applied.
+    private void throwAccountNotFound(int id) throws AccountNotFoundException {
+        logger.warn("could not find account {} for transfer", id);
+        if (sessionContext != null) {
+            sessionContext.setRollbackOnly();
+        }
+        throw new AccountNotFoundException("Account with id " + id + " not found.");
+    }
+
+    // Rejects amounts that are missing or not positive.
+    private static void validateAmount(Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+    }
+
+    // Rejects transfers that are not positive or that move money to the same account.
+    private static void validateTransfer(Transfer transfer) {
+        if (transfer == null) {
+            throw new IllegalArgumentException("A transfer of the batch is missing.");
+        }
+        validateAmount(transfer.getAmount());
+        if (transfer.getFromId() == transfer.getToId()) {
+            throw new IllegalArgumentException("Transfer source and target must differ: " + transfer);
+        }
+    }
+
+    // Acquires the lock stripes of the given accounts, converting waits that are too long into an EJB timeout.
+    private static int[] lockAccounts(int[] ids) {
+        try {
+            return transferLocks.lockAll(ids, TRANSFER_LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.error("Timed out waiting for transfer locks", e);
+            throw new ConcurrentAccessTimeoutException(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EJBException(e);
+        }
+    }
 }
@@ -0,0 +1,212 @@
+package Business;
+
+import Business.History.BalanceBlockCodec;
+import Business.History.StepSampler;
+import Entity.BalanceHistoryBlock;
+import Model.BalancePoint;
+import Model.Money;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Stateless session bean for the compressed balance history of accounts.
+ * <p>
+ * The history is built from the account journal: a timer folds settled journal entries into
+ * delta-encoded blocks, keeping at most one point per account and second. Blocks are grouped in
+ * buckets of {@link #BUCKET_SECONDS}, so a range query only touches the buckets it overlaps.
+ * </p>
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@Stateless(name = "balanceHistoryBean")
+public class BalanceHistoryBeanImpl implements IBalanceHistoryBean {
+    private static final Logger logger = LogManager.getLogger(BalanceHistoryBeanImpl.class);
+    // Width of a time bucket, in seconds (30 days); part of the stored layout, so it must not change
+    public static final long BUCKET_SECONDS = 30L * 24 * 60 * 60;
+    // A new block is started once a block reaches this size, in bytes
+    public static final int MAX_BLOCK_BYTES = 64 * 1024;
+    // Upper bound on the number of points a single range query may return
+    public static final int MAX_POINTS = 100_000;
+    // Journal entries read per query by the compaction
+    static final int JOURNAL_PAGE_SIZE = Integer.getInteger("project2.history.pageSize", 10_000);
+    // Persistence context for interacting with the database
+    @PersistenceContext(unitName = "PersistenceUnit")
+    public EntityManager entityManager;
+    // Session context used to compact each account in a transaction of its own
+    @Resource
+    SessionContext sessionContext;
+
+    /**
+     * Retrieves the balance curve of an account.
+     *
+     * @param accountId         the ID of the account
+     * @param start             the time of the first point
+     * @param end               the latest possible time of a point
+     * @param resolutionSeconds the distance between two points, in seconds
+     * @return the balance at each step
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<BalancePoint> getBalanceHistory(int accountId, Instant start, Instant end, long resolutionSeconds) {
+        logger.info("Reading balance history of account {} from {} to {} every {}s", accountId, start, end, resolutionSeconds);
+        long from = start.getEpochSecond();
+        long to = end.getEpochSecond();
+        if (resolutionSeconds <= 0 || to < from || (to - from) / resolutionSeconds >= MAX_POINTS) {
+            throw new IllegalArgumentException("Invalid history range " + start + " to " + end + " every " + resolutionSeconds + "s");
+        }
+        long fromBucket = bucketOf(from);
+        // The balance before the first loaded bucket is the last point of the block before it
+        List<?> previous = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectPreviousHistoryBlockQuery"))
+                .setParameter("id", accountId).setParameter("beforeBucket", fromBucket).setMaxResults(1).getResultList();
+        long initial = previous.isEmpty() ? 0 : ((BalanceHistoryBlock) previous.get(0)).getLastValue();
+        StepSampler sampler = new StepSampler(from, to, resolutionSeconds, initial);
+        for (Object row : ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectHistoryBlocksQuery")).setParameter("id", accountId)
+                .setParameter("fromBucket", fromBucket).setParameter("to", to).getResultList()) {
+            Object[] block = (Object[]) row;
+            BalanceBlockCodec.decode((byte[]) block[1], (Long) block[0], sampler);
+        }
+        return sampler.finish();
+    }
+
+    /**
+     * Appends the settled journal entries of all accounts to their history, one transaction per
+     * account. An account whose compaction fails, such as one compacted by another node at the same
+     * time, is left for the next run.
+     *
+     * @return the number of history points written
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int compact() {
+        // Entries younger than the settle time may still be joined by uncommitted ones
+        Instant settled = Instant.now().minusMillis(JournalBeanImpl.SETTLE_MILLIS);
+        List<?> due = entityManager.createNamedQuery("selectAccountsDueForHistoryQuery")
+                .setParameter("settled", settled).setParameter("epoch", Instant.EPOCH).getResultList();
+        IBalanceHistoryBean self = sessionContext.getBusinessObject(IBalanceHistoryBean.class);
+        int points = 0;
+        for (Object accountId : due) {
+            try {
+                points += self.compactAccount((Integer) accountId, settled);
+            } catch (RuntimeException e) {
+                logger.warn("Could not compact the balance history of account {}; the next run retries.", accountId, e);
+            }
+        }
+        logger.info("Wrote {} balance history points for {} accounts.", points, due.size());
+        return points;
+    }
+
+    // Runs the compaction every minute.
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    void scheduledCompaction() {
+        compact();
+    }
+
+    /**
+     * Folds the settled journal entries of one account into its latest block, starting new blocks
+     * as needed. The entries are read a page at a time as plain values.
+     * <p>
+     * The latest block is locked first, so a compaction of the same account on another node waits
+     * and then reads the cursor this one has moved. Every block keeps the last entry folded into it
+     * as that cursor. Two compactions that both start a new block, the first block of an account or
+     * the next one after the same latest block, insert the same primary key, and the second fails.
+     * </p>
+     *
+     * @param accountId the ID of the account
+     * @param settled   the time of the latest entry to append
+     * @return the number of history points written
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int compactAccount(int accountId, Instant settled) {
+        List<?> latest = entityManager.createNamedQuery("selectPreviousHistoryBlockQuery")
+                .setParameter("id", accountId).setParameter("beforeBucket", Long.MAX_VALUE).setMaxResults(1)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+        BalanceHistoryBlock block = latest.isEmpty() ? null : (BalanceHistoryBlock) latest.get(0);
+        Instant cursor = block == null ? Instant.EPOCH : block.getLastEntryAt();
+        long balance = block == null ? 0 : block.getLastValue();
+        BalanceBlockCodec.Encoder encoder = block == null ? null : encoderFor(block);
+        int points = 0;
+        List<?> entries;
+        while (!(entries = nextEntries(accountId, cursor, settled)).isEmpty()) {
+            for (int i = 0; i < entries.size(); i++) {
+                Object[] entry = (Object[]) entries.get(i);
+                Instant occurredAt = (Instant) entry[0];
+                balance = Math.addExact(balance, ((Money) entry[1]).getMinorUnits());
+                long second = occurredAt.getEpochSecond();
+                // Keep one point per second: the balance after the last entry of that second
+                if (i + 1 < entries.size() && ((Instant) ((Object[]) entries.get(i + 1))[0]).getEpochSecond() == second) {
+                    continue;
+                }
+                long bucket = bucketOf(second);
+                if (block == null || block.getBucketStart() != bucket || encoder.size() >= MAX_BLOCK_BYTES) {
+                    if (block != null) {
+                        store(block, encoder);
+                    }
+                    int part = block != null && block.getBucketStart() == bucket ? block.getPart() + 1 : 0;
+                    block = new BalanceHistoryBlock(accountId, bucket, part);
+                    entityManager.persist(block);
+                    encoder = new BalanceBlockCodec.Encoder(bucket);
+                }
+                encoder.add(second, balance);
+                // Later runs continue after this entry, even if it shared its second with a stored point
+                block.setLastEntryAt(occurredAt);
+                points++;
+            }
+            cursor = (Instant) ((Object[]) entries.get(entries.size() - 1))[0];
+        }
+        if (block != null && encoder != null) {
+            store(block, encoder);
+        }
+        return points;
+    }
+
+    // Reads the next settled journal entries of an account after the cursor, as {occurredAt, amount}
+    // rows, at most a page of them. A full page ends before its last second, so the entries of one
+    // second are never split; a second holding more than a page is read whole.
+    private List<?> nextEntries(int accountId, Instant cursor, Instant settled) {
+        for (int limit = JOURNAL_PAGE_SIZE; ; limit *= 2) {
+            List<?> rows = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectJournalAmountsQuery"))
+                    .setParameter("id", accountId).setParameter("from", cursor).setParameter("to", settled)
+                    .setMaxResults(limit).getResultList();
+            if (rows.size() < limit) {
+                return rows;
+            }
+            long lastSecond = ((Instant) ((Object[]) rows.get(rows.size() - 1))[0]).getEpochSecond();
+            int end = rows.size();
+            while (end > 0 && ((Instant) ((Object[]) rows.get(end - 1))[0]).getEpochSecond() == lastSecond) {
+                end--;
+            }
+            if (end > 0) {
+                return rows.subList(0, end);
+            }
+        }
+    }
+
+    private static BalanceBlockCodec.Encoder encoderFor(BalanceHistoryBlock block) {
+        return new BalanceBlockCodec.Encoder(block.getData(), block.getPointCount(), block.getLastTime(), block.getLastValue());
+    }
+
+    private static void store(BalanceHistoryBlock block, BalanceBlockCodec.Encoder encoder) {
+        block.setData(encoder.toByteArray(), encoder.count(), encoder.lastTime(), encoder.lastValue());
+    }
+
+    // Start of the bucket containing the given time, in epoch seconds.
+    static long bucketOf(long epochSecond) {
+        return Math.floorDiv(epochSecond, BUCKET_SECONDS) * BUCKET_SECONDS;
+    }
+}
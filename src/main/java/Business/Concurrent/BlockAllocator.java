@@ -0,0 +1,122 @@
+package Business.Concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out unique values from blocks reserved in advance (hi/lo allocation).
+ * <p>
+ * A block of consecutive values is reserved in the database once; values are then taken from it
+ * with a single atomic increment, without any database round trip. Only the thread that finds the
+ * current block exhausted reserves the next one, and other threads wait for it rather than
+ * reserving blocks of their own. At most one block minus one value is lost when the process stops,
+ * so the gap left by a restart is bounded by the block size.
+ * </p>
+ * <p>
+ * A block may be given a lifetime: once it is older, its remaining values are dropped and the next
+ * value comes from a new block. Every value handed out after that time is then above the values
+ * reserved before it, which lets readers of the shared store bound the values still being handed out.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BlockAllocator {
+
+    /**
+     * Reserves a new block of values in the shared store.
+     */
+    @FunctionalInterface
+    public interface BlockSource {
+        /**
+         * Reserves {@code size} consecutive values that no other allocator will ever return.
+         *
+         * @param size the number of values to reserve
+         * @return the first value of the reserved block
+         */
+        long reserve(int size);
+    }
+
+    // Values of one reserved block: next is handed out until it reaches limit or the block expires.
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+        final long expiresAt;
+
+        Block(long first, long limit, long expiresAt) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Number of values reserved at once.
+    private final int blockSize;
+    // Lifetime of a block in milliseconds, 0 for blocks that never expire.
+    private final long maxAgeMillis;
+    // The block values are currently taken from; starts out empty.
+    private volatile Block current = new Block(0, 0, Long.MAX_VALUE);
+
+    /**
+     * Creates an allocator that reserves the given number of values at once.
+     *
+     * @param blockSize the number of values per block
+     */
+    public BlockAllocator(int blockSize) {
+        this(blockSize, 0);
+    }
+
+    /**
+     * Creates an allocator that reserves the given number of values at once and drops the rest of
+     * a block once it is older than the given lifetime.
+     *
+     * @param blockSize    the number of values per block
+     * @param maxAgeMillis the lifetime of a block in milliseconds, 0 for blocks that never expire
+     */
+    public BlockAllocator(int blockSize, long maxAgeMillis) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("maxAgeMillis must not be negative");
+        }
+        this.blockSize = blockSize;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Returns the next unique value, reserving a new block from the source when the current one is used up.
+     *
+     * @param source where new blocks are reserved
+     * @return a value never returned before by any allocator sharing the source
+     */
+    public long next(BlockSource source) {
+        while (true) {
+            Block block = current;
+            if (block.expiresAt != Long.MAX_VALUE && System.currentTimeMillis() >= block.expiresAt) {
+                refill(block, source);
+                continue;
+            }
+            long value = block.next.getAndIncrement();
+            if (value < block.limit) {
+                return value;
+            }
+            refill(block, source);
+        }
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    // Replaces the exhausted or expired block, unless another thread already did.
+    private synchronized void refill(Block exhausted, BlockSource source) {
+        if (current != exhausted) {
+            return;
+        }
+        // The lifetime starts before the reservation, so a block never lives longer than configured
+        long reservedAt = System.currentTimeMillis();
+        long first = source.reserve(blockSize);
+        current = new Block(first, first + blockSize, maxAgeMillis == 0 ? Long.MAX_VALUE : reservedAt + maxAgeMillis);
+    }
+}
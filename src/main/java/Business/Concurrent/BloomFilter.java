@@ -0,0 +1,92 @@
+package Business.Concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over long ids: {@link #mightContain(long)} never answers false for an id that was
+ * added, and answers true for an absent id only with the configured false positive rate.
+ * <p>
+ * The bits are packed in longs and set with compare-and-set, so adds and lookups never lock. Ids
+ * cannot be removed; a filter that should forget ids is replaced by a new one.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BloomFilter {
+    private static final int BITS_PER_WORD = 64;
+
+    // Packed bits.
+    private final AtomicLongArray words;
+    // Number of bits and number of bits per id.
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Creates a filter sized for the expected number of ids.
+     *
+     * @param expectedIds       the number of ids the filter is sized for
+     * @param falsePositiveRate the target false positive rate at that size, between 0 and 1
+     */
+    public BloomFilter(long expectedIds, double falsePositiveRate) {
+        if (expectedIds < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid filter size: " + expectedIds + " ids at " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        long size = Math.max(BITS_PER_WORD, (long) Math.ceil(-expectedIds * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        this.words = new AtomicLongArray(Math.toIntExact((size + BITS_PER_WORD - 1) / BITS_PER_WORD));
+        this.bits = (long) words.length() * BITS_PER_WORD;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedIds * ln2));
+    }
+
+    /**
+     * Adds an id.
+     *
+     * @param id the id
+     */
+    public void add(long id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long position = position(hash, i);
+            int word = (int) (position / BITS_PER_WORD);
+            long mask = 1L << (position % BITS_PER_WORD);
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Tells whether an id may have been added.
+     *
+     * @param id the id
+     * @return false if the id was certainly not added, true if it probably was
+     */
+    public boolean mightContain(long id) {
+        long hash = mix(id);
+        for (int i = 0; i < hashes; i++) {
+            long position = position(hash, i);
+            if ((words.get((int) (position / BITS_PER_WORD)) & (1L << (position % BITS_PER_WORD))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Position of the i-th bit of an id, from two halves of one hash (Kirsch-Mitzenmacher).
+    private long position(long hash, int i) {
+        long h1 = hash & 0xFFFFFFFFL;
+        long h2 = hash >>> 32;
+        return Math.floorMod(h1 + i * h2, bits);
+    }
+
+    // 64-bit finalizer of MurmurHash3, so consecutive ids spread over the whole filter.
+    private static long mix(long id) {
+        long h = id;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,273 @@
+package Business.Concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-memory tracker of the ids that dominate the traffic: a count-min sketch estimates how often
+ * any id was seen, and a space-saving summary keeps the top-K ids with their counts.
+ * <p>
+ * Recording is lock-free: each thread appends ids to its own small buffer and only touches shared
+ * state when the buffer is full. The flush adds the batch to the sketch with atomic increments and
+ * offers it to the top-K summary if no other thread is updating the summary at that moment;
+ * otherwise that batch only goes to the sketch. A heavy hitter is in almost every batch, so
+ * skipping one costs little accuracy. Ids still sitting in a thread's buffer are not counted yet,
+ * so the figures lag by at most one buffer per thread.
+ * </p>
+ * <p>
+ * Both structures are halved by {@link #decay()}, so the figures follow recent traffic. Each decay
+ * also takes a snapshot of the ids in the summary for {@link #isHot(long)}, which caches use to pin
+ * hot entries without touching the summary on their own paths. The sketch never undercounts an id;
+ * the summary reports for each id a count and the most that count may be over (its error),
+ * following the space-saving algorithm.
+ * </p>
+ * <p>
+ * Synthetic traffic, such as the warm-up and the hot set prefill, runs inside
+ * {@link #untracked(Runnable)} so it is not mistaken for real demand.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class HeavyHitters {
+    // Sketch width (rounded up to a power of two) and depth, and size of the top-K summary, which
+    // also bounds the hot set saved by the cache warmer.
+    private static final int SKETCH_WIDTH = Integer.getInteger("project2.hotkeys.sketchWidth", 16_384);
+    private static final int SKETCH_DEPTH = Integer.getInteger("project2.hotkeys.sketchDepth", 4);
+    private static final int TOP_K = Integer.getInteger("project2.hotkeys.topK", 1_000);
+    // Ids buffered per thread before they are flushed.
+    private static final int BUFFER_SIZE = 64;
+    // Set while the current thread replays synthetic traffic; a Boolean keeps no application class
+    // in the container threads.
+    private static final ThreadLocal<Boolean> UNTRACKED = new ThreadLocal<>();
+    // Ids read or written through the account bean, and customer keys through the customer bean.
+    public static final HeavyHitters ACCOUNTS = new HeavyHitters(SKETCH_DEPTH, SKETCH_WIDTH, TOP_K, BUFFER_SIZE);
+    public static final HeavyHitters CUSTOMERS = new HeavyHitters(SKETCH_DEPTH, SKETCH_WIDTH, TOP_K, BUFFER_SIZE);
+
+    private final int depth;
+    private final int widthMask;
+    // depth rows of width counters, row after row.
+    private final AtomicLongArray sketch;
+    private final int capacity;
+    // Space-saving summary: id to {count, error}; only changed while holding summaryLock.
+    private final Map<Long, long[]> summary = new HashMap<>();
+    private final ReentrantLock summaryLock = new ReentrantLock();
+    // Ids of the summary as of the last decay.
+    private volatile Set<Long> hotIds = Collections.emptySet();
+    private final int bufferSize;
+    // Per-thread buffer; slot 0 holds the number of buffered ids. A plain long[] keeps no reference
+    // to application classes in the container threads, so a redeploy leaves nothing behind.
+    private final ThreadLocal<long[]> buffers;
+
+    /**
+     * Creates a tracker.
+     *
+     * @param depth      the number of sketch rows
+     * @param width      the number of counters per sketch row, rounded up to a power of two
+     * @param capacity   the number of ids kept in the top-K summary
+     * @param bufferSize the number of ids buffered per thread before a flush
+     */
+    public HeavyHitters(int depth, int width, int capacity, int bufferSize) {
+        int roundedWidth = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.depth = depth;
+        this.widthMask = roundedWidth - 1;
+        this.sketch = new AtomicLongArray(depth * roundedWidth);
+        this.capacity = capacity;
+        this.bufferSize = bufferSize;
+        this.buffers = ThreadLocal.withInitial(() -> new long[bufferSize + 1]);
+    }
+
+    /**
+     * Runs a task without recording the accesses it makes on the current thread, in any tracker.
+     *
+     * @param task the task replaying synthetic traffic
+     */
+    public static void untracked(Runnable task) {
+        Boolean outer = UNTRACKED.get();
+        UNTRACKED.set(Boolean.TRUE);
+        try {
+            task.run();
+        } finally {
+            if (outer == null) {
+                UNTRACKED.remove();
+            }
+        }
+    }
+
+    /**
+     * Records one access to an id, unless the current thread runs inside {@link #untracked(Runnable)}.
+     *
+     * @param id the id accessed
+     */
+    public void record(long id) {
+        if (UNTRACKED.get() != null) {
+            return;
+        }
+        long[] buffer = buffers.get();
+        int size = (int) ++buffer[0];
+        buffer[size] = id;
+        if (size == bufferSize) {
+            flush(buffer);
+        }
+    }
+
+    /**
+     * Estimates how often an id was seen; never lower than the true count since the last decay,
+     * ids still buffered aside.
+     *
+     * @param id the id
+     * @return the estimated count
+     */
+    public long estimate(long id) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sketch.get(cell(row, id)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the hottest ids, hottest first.
+     *
+     * @param limit the largest number of ids returned
+     * @return the hot keys, at most the summary capacity
+     */
+    public List<HotKey> top(int limit) {
+        List<HotKey> keys = new ArrayList<>();
+        summaryLock.lock();
+        try {
+            summary.forEach((id, counter) -> keys.add(new HotKey(id, counter[0], counter[1])));
+        } finally {
+            summaryLock.unlock();
+        }
+        keys.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return keys.size() > limit ? new ArrayList<>(keys.subList(0, limit)) : keys;
+    }
+
+    /**
+     * Tells whether an id was among the top-K at the last decay. This is the feed for caches that
+     * pin hot entries; it reads an immutable snapshot and never blocks.
+     *
+     * @param id the id
+     * @return true if the id is hot
+     */
+    public boolean isHot(long id) {
+        return hotIds.contains(id);
+    }
+
+    /**
+     * Takes the snapshot of hot ids, then halves every count, so old traffic weighs less than
+     * recent traffic.
+     */
+    public void decay() {
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.getAndUpdate(i, count -> count >> 1);
+        }
+        summaryLock.lock();
+        try {
+            hotIds = Collections.unmodifiableSet(new HashSet<>(summary.keySet()));
+            summary.values().removeIf(counter -> {
+                counter[0] >>= 1;
+                counter[1] >>= 1;
+                return counter[0] == 0;
+            });
+        } finally {
+            summaryLock.unlock();
+        }
+    }
+
+    // Adds the buffered ids to the sketch and, if it is free, to the summary, then empties the buffer.
+    private void flush(long[] buffer) {
+        int size = (int) buffer[0];
+        Arrays.sort(buffer, 1, size + 1);
+        boolean summaryFree = summaryLock.tryLock();
+        try {
+            for (int start = 1; start <= size; ) {
+                long id = buffer[start];
+                int end = start;
+                while (end <= size && buffer[end] == id) {
+                    end++;
+                }
+                long count = end - start;
+                for (int row = 0; row < depth; row++) {
+                    sketch.addAndGet(cell(row, id), count);
+                }
+                if (summaryFree) {
+                    offer(id, count);
+                }
+                start = end;
+            }
+        } finally {
+            if (summaryFree) {
+                summaryLock.unlock();
+            }
+        }
+        buffer[0] = 0;
+    }
+
+    // Space-saving update: a new id takes over the counter of the least counted id once the summary is full.
+    private void offer(long id, long count) {
+        long[] counter = summary.get(id);
+        if (counter != null) {
+            counter[0] += count;
+        } else if (summary.size() < capacity) {
+            summary.put(id, new long[]{count, 0});
+        } else {
+            Map.Entry<Long, long[]> min = null;
+            for (Map.Entry<Long, long[]> entry : summary.entrySet()) {
+                if (min == null || entry.getValue()[0] < min.getValue()[0]) {
+                    min = entry;
+                }
+            }
+            long minCount = min.getValue()[0];
+            summary.remove(min.getKey());
+            summary.put(id, new long[]{minCount + count, minCount});
+        }
+    }
+
+    // Index of the counter of an id in a sketch row; each row mixes the id with its own seed.
+    private int cell(int row, long id) {
+        long h = id + (row + 1) * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return row * (widthMask + 1) + (int) (h & widthMask);
+    }
+
+    /**
+     * One hot id with its space-saving count; the true count lies between {@code count - error}
+     * and {@code count}.
+     */
+    public static final class HotKey {
+        private final long id;
+        private final long count;
+        private final long error;
+
+        HotKey(long id, long count, long error) {
+            this.id = id;
+            this.count = count;
+            this.error = error;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package Business.Concurrent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory hint of which accounts are in hot mode and how many balance slots they have.
+ * <p>
+ * The database is the source of truth; this registry only decides whether a credit should try a
+ * balance slot first. A stale hint is harmless: a credit aimed at a slot that no longer exists
+ * falls back to the account row, and a credit to an account not yet known to be hot simply takes
+ * the slower account row path. The hints are reloaded from the database periodically so that
+ * accounts promoted on another node, or before a restart, are picked up.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class HotAccountRegistry {
+    // Number of balance slots per hot account, keyed by account id.
+    private final Map<Integer, Integer> slotsByAccount = new ConcurrentHashMap<>();
+    // Time, in milliseconds, between two reloads of the hints.
+    private final long refreshIntervalMillis;
+    // Time of the last reload; Long.MIN_VALUE until the first reload.
+    private final AtomicLong lastRefresh = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Creates a registry that asks for a reload at most once per interval.
+     *
+     * @param refreshIntervalMillis the minimum time between two reloads, in milliseconds
+     */
+    public HotAccountRegistry(long refreshIntervalMillis) {
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    /**
+     * Claims the next reload. Only one caller per interval gets {@code true}, so concurrent credits
+     * do not all hit the database at once.
+     *
+     * @param now the current time in milliseconds
+     * @return true if the caller should reload the hints with {@link #replaceAll(Map)}
+     */
+    public boolean claimRefresh(long now) {
+        long last = lastRefresh.get();
+        return (last == Long.MIN_VALUE || now - last >= refreshIntervalMillis) && lastRefresh.compareAndSet(last, now);
+    }
+
+    /**
+     * Replaces all hints with the hot accounts currently stored in the database.
+     *
+     * @param hotAccounts the number of slots per hot account
+     */
+    public void replaceAll(Map<Integer, Integer> hotAccounts) {
+        slotsByAccount.keySet().retainAll(hotAccounts.keySet());
+        slotsByAccount.putAll(hotAccounts);
+    }
+
+    /**
+     * Returns the number of balance slots of an account.
+     *
+     * @param accountId the account id
+     * @return the number of slots, or 0 if the account is not known to be hot
+     */
+    public int slotsFor(int accountId) {
+        Integer slots = slotsByAccount.get(accountId);
+        return slots == null ? 0 : slots;
+    }
+
+    public void markHot(int accountId, int slots) {
+        slotsByAccount.put(accountId, slots);
+    }
+
+    public void markNormal(int accountId) {
+        slotsByAccount.remove(accountId);
+    }
+
+    /**
+     * Chooses the slot the current thread writes to. Each writer thread sticks to one slot, so
+     * concurrent writers spread over the slots instead of queuing on one row.
+     *
+     * @param slots the number of slots of the account
+     * @return a slot index between 0 and {@code slots - 1}
+     */
+    public static int slotForCurrentWriter(int slots) {
+        long h = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 32) % slots);
+    }
+}
@@ -0,0 +1,90 @@
+package Business.Concurrent;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Bounded in-memory cache from a natural key (such as an account number) to a primary key.
+ * <p>
+ * Like {@link HotAccountRegistry}, the cache is only a hint: callers load the row by primary key
+ * and check that it still carries the natural key, evicting the entry when it does not. A stale
+ * entry therefore costs one extra lookup but never returns the wrong row. When the cache is full,
+ * an arbitrary entry makes room for the new one, preferably one whose primary key is not pinned,
+ * such as the hot keys reported by {@link HeavyHitters}.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NaturalIdCache {
+    // Primary key by natural key.
+    private final Map<Integer, Integer> idsByKey = new ConcurrentHashMap<>();
+    // Number of entries looked at for one that is not pinned before evicting a pinned one.
+    private static final int EVICTION_PROBES = 16;
+    // Maximum number of entries kept.
+    private final int maxEntries;
+    // Tells whether the entry of a primary key should be kept when making room.
+    private final IntPredicate pinned;
+
+    /**
+     * Creates a cache holding at most the given number of entries.
+     *
+     * @param maxEntries the maximum number of entries
+     */
+    public NaturalIdCache(int maxEntries) {
+        this(maxEntries, id -> false);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of entries that avoids evicting pinned entries.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param pinned     tells whether the entry of a primary key should be kept when making room
+     */
+    public NaturalIdCache(int maxEntries, IntPredicate pinned) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Returns the primary key cached for a natural key.
+     *
+     * @param key the natural key
+     * @return the primary key, or null if the key is not cached
+     */
+    public Integer get(int key) {
+        return idsByKey.get(key);
+    }
+
+    public void put(int key, int id) {
+        if (idsByKey.size() >= maxEntries && !idsByKey.containsKey(key)) {
+            Iterator<Map.Entry<Integer, Integer>> entries = idsByKey.entrySet().iterator();
+            Map.Entry<Integer, Integer> victim = null;
+            for (int probe = 0; probe < EVICTION_PROBES && entries.hasNext(); probe++) {
+                Map.Entry<Integer, Integer> entry = entries.next();
+                if (!pinned.test(entry.getValue())) {
+                    victim = entry;
+                    break;
+                }
+                if (victim == null) {
+                    // Every entry probed may be pinned; the first one goes then
+                    victim = entry;
+                }
+            }
+            if (victim != null) {
+                idsByKey.remove(victim.getKey(), victim.getValue());
+            }
+        }
+        idsByKey.put(key, id);
+    }
+
+    public void remove(int key) {
+        idsByKey.remove(key);
+    }
+}
@@ -0,0 +1,173 @@
+package Business.Concurrent;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the load, callers arriving while
+ * it runs wait for it and get the same result, or the same exception, instead of running their own.
+ * <p>
+ * The flight of a key is a future published with a single compare-and-set style
+ * {@code putIfAbsent}; no lock is held while the load runs, and the flight is removed as soon as it
+ * completes, so nothing is cached beyond the load itself. A caller arriving after that starts a new
+ * load. The number of flights is bounded: when the limit is reached, callers of new keys load on
+ * their own without coalescing. The result is shared between callers, so only immutable results
+ * should be loaded through it.
+ * </p>
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class SingleFlight<K, V> {
+    // Every instance, for the metrics endpoint.
+    private static final List<SingleFlight<?, ?>> INSTANCES = new CopyOnWriteArrayList<>();
+
+    private final String name;
+    private final int maxInFlight;
+    private final Map<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    // Loads run, callers that joined a running load, and callers that found the flights full.
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+
+    /**
+     * Creates a coalescer and registers it for {@link #instances()}.
+     *
+     * @param name        the name of the load, for the metrics
+     * @param maxInFlight the largest number of keys loading at once
+     */
+    public SingleFlight(String name, int maxInFlight) {
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        INSTANCES.add(this);
+    }
+
+    /**
+     * Returns every coalescer created so far.
+     *
+     * @return the coalescers, in creation order
+     */
+    public static List<SingleFlight<?, ?>> instances() {
+        return Collections.unmodifiableList(INSTANCES);
+    }
+
+    /**
+     * Loads the value of a key, sharing the load with concurrent callers of the same key.
+     *
+     * @param key    the key
+     * @param loader the load run if no load of the key is in flight
+     * @param <E>    the checked exception thrown by the load
+     * @return the value loaded by this caller or by the load it joined
+     * @throws E if the load fails
+     */
+    public <E extends Exception> V load(K key, Loader<V, E> loader) throws E {
+        CompletableFuture<V> flight = flights.get(key);
+        if (flight == null) {
+            if (flights.size() >= maxInFlight) {
+                bypassed.increment();
+                return loader.load();
+            }
+            CompletableFuture<V> own = new CompletableFuture<>();
+            flight = flights.putIfAbsent(key, own);
+            if (flight == null) {
+                loads.increment();
+                return lead(key, own, loader);
+            }
+        }
+        coalesced.increment();
+        return await(flight);
+    }
+
+    // Runs the load and hands its outcome to the callers that joined it.
+    private <E extends Exception> V lead(K key, CompletableFuture<V> own, Loader<V, E> loader) throws E {
+        try {
+            V value = loader.load();
+            own.complete(value);
+            return value;
+        } catch (Throwable t) {
+            own.completeExceptionally(t);
+            throw t;
+        } finally {
+            flights.remove(key, own);
+        }
+    }
+
+    // Waits for the load of another caller; its exception can only be E or unchecked, as thrown by lead.
+    @SuppressWarnings("unchecked")
+    private static <V, E extends Exception> V await(CompletableFuture<V> flight) throws E {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of loads run, each one shared by its caller and the callers that joined it.
+     *
+     * @return the loads since startup
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * Returns the number of callers served by a load another caller ran.
+     *
+     * @return the coalesced calls since startup
+     */
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the number of callers that loaded on their own because too many keys were in flight.
+     *
+     * @return the bypassed calls since startup
+     */
+    public long getBypassed() {
+        return bypassed.sum();
+    }
+
+    /**
+     * Returns the share of calls served by another caller's load.
+     *
+     * @return the coalesced calls over all calls, 0 before the first call
+     */
+    public double getCoalescingRatio() {
+        long coalescedCalls = coalesced.sum();
+        long calls = loads.sum() + coalescedCalls + bypassed.sum();
+        return calls == 0 ? 0 : (double) coalescedCalls / calls;
+    }
+
+    /**
+     * A load that may fail with a checked exception.
+     *
+     * @param <V> the type of the result
+     * @param <E> the checked exception thrown
+     */
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+}
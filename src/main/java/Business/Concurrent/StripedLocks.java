@@ -0,0 +1,109 @@
+package Business.Concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks ("stripes") shared by an unbounded set of keys.
+ * <p>
+ * Each key is hashed onto one stripe, so memory stays constant no matter how many accounts exist.
+ * {@link #lockAll(int[], long, TimeUnit)} always acquires stripes in ascending stripe order and
+ * takes each stripe only once, which makes concurrent multi-key operations deadlock-free among
+ * themselves. The timeout is a safety valve against waits on resources outside this lock set.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class StripedLocks {
+    // The stripes; the length is always a power of two so a mask can select a stripe.
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a lock set with at least the given number of stripes.
+     *
+     * @param stripeCount the minimum number of stripes, rounded up to a power of two
+     */
+    public StripedLocks(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("stripeCount must be positive");
+        }
+        int size = Integer.highestOneBit(stripeCount - 1) << 1;
+        size = Math.max(1, size);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the stripe a key maps to.
+     *
+     * @param key the key
+     * @return the index of the stripe guarding the key
+     */
+    public int stripeFor(int key) {
+        // Spread the bits so that consecutive ids do not all land on neighbouring stripes.
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Locks the stripes of all given keys in ascending stripe order.
+     *
+     * @param keys    the keys to lock; duplicates and keys sharing a stripe are locked once
+     * @param timeout the maximum time to wait for each stripe
+     * @param unit    the unit of the timeout
+     * @return the locked stripes, to be passed to {@link #unlockAll(int[])}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws TimeoutException     if a stripe could not be acquired in time; nothing stays locked
+     */
+    public int[] lockAll(int[] keys, long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            order[i] = stripeFor(keys[i]);
+        }
+        order = Arrays.stream(order).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (; locked < order.length; locked++) {
+                if (!stripes[order[locked]].tryLock(timeout, unit)) {
+                    throw new TimeoutException("Could not acquire lock stripe " + order[locked] + " within " + timeout + " " + unit);
+                }
+            }
+            return order;
+        } finally {
+            // On failure release whatever was already acquired, in reverse order.
+            if (locked < order.length) {
+                for (int i = locked - 1; i >= 0; i--) {
+                    stripes[order[i]].unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Unlocks stripes previously returned by {@link #lockAll(int[], long, TimeUnit)}.
+     *
+     * @param lockedStripes the stripes to unlock
+     */
+    public void unlockAll(int[] lockedStripes) {
+        for (int i = lockedStripes.length - 1; i >= 0; i--) {
+            stripes[lockedStripes[i]].unlock();
+        }
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the stripe count
+     */
+    public int size() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,108 @@
+package Business.Concurrent;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Bounded in-memory cache of read-only views by primary key, for rows whose viewed columns are not
+ * changed after they are written.
+ * <p>
+ * Entries expire after a fixed time, which bounds how long a node keeps serving a row deleted on
+ * another node; deletions on this node remove the entry themselves. When the cache is full, expired
+ * entries are dropped first and then an arbitrary entry makes room for the new one, preferably one
+ * whose key is not pinned, such as the hot keys reported by {@link HeavyHitters}.
+ * </p>
+ *
+ * @param <V> the type of the views
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ViewCache<V> {
+    // A view with the time (System.currentTimeMillis) at which it expires.
+    private static final class Entry<V> {
+        final V view;
+        final long expiry;
+
+        Entry(V view, long expiry) {
+            this.view = view;
+            this.expiry = expiry;
+        }
+    }
+
+    // Number of entries looked at for one that is not pinned before evicting a pinned one.
+    private static final int EVICTION_PROBES = 16;
+    private final Map<Long, Entry<V>> views = new ConcurrentHashMap<>();
+    // Maximum number of entries kept.
+    private final int maxEntries;
+    // How long an entry is kept.
+    private final long ttlMillis;
+    // Tells whether the entry of a key should be kept when making room.
+    private final LongPredicate pinned;
+
+    /**
+     * Creates a cache holding at most the given number of entries for the given time.
+     *
+     * @param maxEntries the maximum number of entries
+     * @param ttlMillis  how long an entry is kept
+     * @param pinned     tells whether the entry of a key should be kept when making room
+     */
+    public ViewCache(int maxEntries, long ttlMillis, LongPredicate pinned) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.pinned = pinned;
+    }
+
+    /**
+     * Returns the view cached for a key.
+     *
+     * @param key the primary key
+     * @return the view, or null if the key is not cached or its entry has expired
+     */
+    public V get(long key) {
+        Entry<V> entry = views.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiry <= System.currentTimeMillis()) {
+            views.remove(key, entry);
+            return null;
+        }
+        return entry.view;
+    }
+
+    public void put(long key, V view) {
+        long now = System.currentTimeMillis();
+        if (views.size() >= maxEntries && !views.containsKey(key)) {
+            views.values().removeIf(entry -> entry.expiry <= now);
+        }
+        if (views.size() >= maxEntries && !views.containsKey(key)) {
+            Iterator<Map.Entry<Long, Entry<V>>> entries = views.entrySet().iterator();
+            Map.Entry<Long, Entry<V>> victim = null;
+            for (int probe = 0; probe < EVICTION_PROBES && entries.hasNext(); probe++) {
+                Map.Entry<Long, Entry<V>> entry = entries.next();
+                if (!pinned.test(entry.getKey())) {
+                    victim = entry;
+                    break;
+                }
+                if (victim == null) {
+                    // Every entry probed may be pinned; the first one goes then
+                    victim = entry;
+                }
+            }
+            if (victim != null) {
+                views.remove(victim.getKey(), victim.getValue());
+            }
+        }
+        views.put(key, new Entry<>(view, now + ttlMillis));
+    }
+
+    public void remove(long key) {
+        views.remove(key);
+    }
+}
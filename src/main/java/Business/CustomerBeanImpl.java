@@ -1,15 +1,41 @@
 package Business;
 
+import Business.Concurrent.HeavyHitters;
+import Business.Concurrent.SingleFlight;
+import Business.Concurrent.ViewCache;
+import Business.Interceptor.OptimisticRetryInterceptor;
+import Entity.Account;
 import Entity.Customer;
+import Entity.CustomerPhoneLock;
+import Model.CustomerBalance;
+import Model.CustomerValidation;
+import Model.CustomerView;
+import Model.Money;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.interceptor.Interceptors;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import Exception.CustomerNotFoundExceptin;
+import Exception.DuplicatePhoneException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.jpa.SpecHints;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Stateless session bean implementation for managing Customer entities.
@@ -25,9 +51,26 @@ import java.util.List;
 public class CustomerBeanImpl implements ICustomerBean {
     // Logger for logging information, warnings, and errors.
     private static final Logger logger = LogManager.getLogger(CustomerBeanImpl.class);
+    // Fetch size of the streaming reads. MySQL Connector/J only streams rows one at a time with
+    // Integer.MIN_VALUE; a positive size also needs useCursorFetch=true on the data source, and is
+    // otherwise ignored, buffering the whole result.
+    static final int EXPORT_FETCH_SIZE = Integer.getInteger("project2.export.fetchSize", Integer.MIN_VALUE);
+    // Concurrent reads of the same customer share one query
+    private static final SingleFlight<Long, CustomerView> customerViewLoads = new SingleFlight<>("customerView", AccountBeanImpl.MAX_IN_FLIGHT);
+    // Views of recently read customers. The name and family of a customer never change after it is
+    // created, so an entry only goes stale when the customer is deleted on another node, for at most the TTL.
+    private static final ViewCache<CustomerView> customerViews = new ViewCache<>(
+            Integer.getInteger("project2.customerViewCache.size", 100_000),
+            Long.getLong("project2.customerViewCache.ttlSeconds", 600) * 1000, HeavyHitters.CUSTOMERS::isHot);
     //EntityManager for database interactions.
     @PersistenceContext(unitName = "PersistenceUnit")
     EntityManager entityManager;
+    // Tells whether a read runs in a transaction
+    @Resource
+    TransactionSynchronizationRegistry transactionRegistry;
+    // Creates the accounts given with a new customer
+    @EJB
+    IAccountBean accountBean;
     /**
      * Creates a new customer in the database.
      * If the customer already exists, logs an error message.
@@ -36,14 +79,60 @@ public class CustomerBeanImpl implements ICustomerBean {
 
     @Override
     public void createCustomer(Customer customer) {
+        persistIfAbsent(customer);
+    }
+
+    /**
+     * Creates a new customer in the database, optionally rejecting a phone number that already
+     * belongs to another customer.
+     *
+     * @param customer             the customer to create
+     * @param rejectDuplicatePhone whether to reject the customer if its phone number is taken
+     * @throws DuplicatePhoneException if rejectDuplicatePhone is set and the phone number is taken
+     */
+    @Override
+    public void createCustomer(Customer customer, boolean rejectDuplicatePhone) throws DuplicatePhoneException {
+        String phoneKey = CustomerValidation.normalizePhone(customer.getCustomerPhone());
+        if (rejectDuplicatePhone && phoneKey != null) {
+            // A concurrent create of the same phone waits here until this transaction ends
+            lockPhone(phoneKey);
+            List<?> owners = entityManager.createNamedQuery("selectCustomerByPhoneQuery")
+                    .setParameter("phoneKey", phoneKey).setMaxResults(1).getResultList();
+            if (!owners.isEmpty()) {
+                logger.warn("Phone number of customer {} already belongs to customer {}",
+                        customer.getCustomerId(), ((Customer) owners.get(0)).getCustomerId());
+                throw new DuplicatePhoneException("Phone number already belongs to another customer.");
+            }
+        }
+        persistIfAbsent(customer);
+    }
+
+    // Locks the row of a phone number, creating it for a number seen for the first time. Two creates
+    // racing to insert the same new row both wait on it, and the loser fails on the primary key.
+    private void lockPhone(String phoneKey) {
+        if (entityManager.find(CustomerPhoneLock.class, phoneKey, LockModeType.PESSIMISTIC_WRITE) == null) {
+            entityManager.persist(new CustomerPhoneLock(phoneKey));
+            entityManager.flush();
+        }
+    }
+
+    // Persists the customer unless a customer with the same id exists.
+    private void persistIfAbsent(Customer customer) {
         try {
-            // Check if the customer already exists
-            findCustomer(customer.getCustomerId());
+            // Check if the customer already exists; a probe, not a read of the customer
+            loadCustomer(customer.getCustomerId(), true);
             logger.error("Customer is already");
         } catch (CustomerNotFoundExceptin e) {
             // Persist the new customer
             logger.info("Creating new customer with ID: {}", customer.getCustomerId());
+            if (customer.getAccount() != null) {
+                // The accounts get their ids allocated like any other before the cascade persists them
+                for (Account account : customer.getAccount()) {
+                    accountBean.createAccount(account);
+                }
+            }
             entityManager.persist(customer);
+            NegativeCache.CUSTOMERS.added(Customer.parseCustomerId(customer.getCustomerId()));
             logger.info("Creating new customer with ID: {}", customer.getCustomerId());
         }
 
@@ -52,26 +141,164 @@ public class CustomerBeanImpl implements ICustomerBean {
     /**
      * Finds a customer by their ID.
      *
+     * Runs without a transaction of its own and loads the customer read-only, see {@link ReadOnlyQueries}.
+     *
      * @param id the ID of the customer to find
      * @return the Customer entity
      * @throws CustomerNotFoundExceptin if no customer is found with the specified ID
      */
 
     @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
     public Customer findCustomer(String id) throws CustomerNotFoundExceptin {
+        Customer customer = loadCustomer(id, true);
+        recordRead(customerKey(id));
+        return customer;
+    }
+
+    // Loads a customer by ID; read-only for the finders, managed as usual for the methods that change it.
+    private Customer loadCustomer(String id, boolean readOnly) throws CustomerNotFoundExceptin {
+        long key = customerKey(id);
+        checkNotKnownMissing(key);
         try {
             // Log the search for the customer
             logger.info("Searching for customer with ID: {}", id);
-            return (Customer) entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", id).getSingleResult();
+            Query query = entityManager.createNamedQuery("selectCustomerQuery");
+            if (readOnly) {
+                ReadOnlyQueries.readOnly(query);
+            }
+            return (Customer) query.setParameter("id", key).getSingleResult();
         } catch (NoResultException e) {
             // Log the warning if customer is not found and throw a custom exception
             logger.warn("Customer with ID: {} could not be found", id);
+            NegativeCache.CUSTOMERS.missing(key);
+            throw new CustomerNotFoundExceptin("Customer could not found.");
+        }
+    }
+
+    /**
+     * Finds a customer together with all of its accounts. The {@link Customer#WITH_ACCOUNTS} fetch
+     * graph joins the accounts into the same query, so iterating them needs no further query.
+     *
+     * @param id the ID of the customer to find
+     * @return the Customer entity with its accounts loaded
+     * @throws CustomerNotFoundExceptin if no customer is found with the specified ID
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public Customer findCustomerWithAccounts(String id) throws CustomerNotFoundExceptin {
+        logger.info("Searching for customer with ID: {} and its accounts", id);
+        long key = customerKey(id);
+        checkNotKnownMissing(key);
+        try {
+            Query query = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectCustomerQuery"));
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Customer.WITH_ACCOUNTS));
+            Customer customer = (Customer) query.setParameter("id", key).getSingleResult();
+            recordRead(key);
+            return customer;
+        } catch (NoResultException e) {
+            logger.warn("Customer with ID: {} could not be found", id);
+            NegativeCache.CUSTOMERS.missing(key);
             throw new CustomerNotFoundExceptin("Customer could not found.");
         }
     }
 
+    /**
+     * Finds the customer a phone number belongs to. The number is normalized first, so any
+     * notation of the same number matches, and the lookup uses the phone index.
+     *
+     * @param phone the phone number in any notation
+     * @return the Customer entity with that phone number
+     * @throws CustomerNotFoundExceptin if no customer has the phone number
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public Customer findCustomerByPhone(String phone) throws CustomerNotFoundExceptin {
+        String phoneKey = CustomerValidation.normalizePhone(phone);
+        logger.info("Searching for customer with phone: {}", phoneKey);
+        if (phoneKey != null) {
+            List<?> customers = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectCustomerByPhoneQuery"))
+                    .setParameter("phoneKey", phoneKey).setMaxResults(1).getResultList();
+            if (!customers.isEmpty()) {
+                return (Customer) customers.get(0);
+            }
+        }
+        logger.warn("Customer with phone: {} could not be found", phoneKey);
+        throw new CustomerNotFoundExceptin("Customer could not found.");
+    }
+
+    /**
+     * Reads a customer as a read-only view. The projection query only selects the rendered
+     * columns, so nothing is added to the persistence context. Outside a transaction, concurrent
+     * reads of the same customer share one query and its outcome.
+     *
+     * @param id the ID of the customer
+     * @return the view of the customer
+     * @throws CustomerNotFoundExceptin if no customer is found with the specified ID
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public CustomerView findCustomerView(String id) throws CustomerNotFoundExceptin {
+        logger.info("Reading customer with ID: {}", id);
+        long key = customerKey(id);
+        SingleFlight.Loader<CustomerView, CustomerNotFoundExceptin> loader = () -> {
+            try {
+                return ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectCustomerViewQuery", CustomerView.class))
+                        .setParameter("id", key).getSingleResult();
+            } catch (NoResultException e) {
+                logger.warn("Customer with ID: {} could not be found", id);
+                NegativeCache.CUSTOMERS.missing(key);
+                throw new CustomerNotFoundExceptin("Customer could not found.");
+            }
+        };
+        // A caller in a transaction may have changed the row itself, so it loads on its own
+        CustomerView view;
+        if (transactionRegistry != null && transactionRegistry.getTransactionKey() != null) {
+            checkNotKnownMissing(key);
+            view = loader.load();
+        } else {
+            view = customerViews.get(key);
+            if (view == null) {
+                checkNotKnownMissing(key);
+                view = customerViewLoads.load(key, loader);
+                customerViews.put(key, view);
+            }
+        }
+        recordRead(key);
+        return view;
+    }
+
+    /**
+     * Reads the customer a phone number belongs to as a read-only view, using the phone index.
+     *
+     * @param phone the phone number in any notation
+     * @return the view of the customer
+     * @throws CustomerNotFoundExceptin if no customer has the phone number
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public CustomerView findCustomerViewByPhone(String phone) throws CustomerNotFoundExceptin {
+        String phoneKey = CustomerValidation.normalizePhone(phone);
+        logger.info("Reading customer with phone: {}", phoneKey);
+        if (phoneKey != null) {
+            List<CustomerView> customers = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectCustomerViewByPhoneQuery", CustomerView.class))
+                    .setParameter("phoneKey", phoneKey).setMaxResults(1).getResultList();
+            if (!customers.isEmpty()) {
+                return customers.get(0);
+            }
+        }
+        logger.warn("Customer with phone: {} could not be found", phoneKey);
+        throw new CustomerNotFoundExceptin("Customer could not found.");
+    }
+
     /**
      * Updates the address and phone number of an existing customer.
+     * The update is version-checked; on a concurrent modification the method is retried
+     * in a new transaction by {@link OptimisticRetryInterceptor}.
      *
      * @param id      the ID of the customer to update
      * @param address the new address for the customer
@@ -80,15 +307,20 @@ public class CustomerBeanImpl implements ICustomerBean {
      */
 
     @Override
+    @Interceptors(OptimisticRetryInterceptor.class)
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
     public void updateCustomer(String id, String address, String phone) throws CustomerNotFoundExceptin {
         logger.info("Updating customer with ID: {}", id);
+        HeavyHitters.CUSTOMERS.record(customerKey(id));
         // Find the customer by ID
-        Customer customer = findCustomer(id);
+        Customer customer = loadCustomer(id, false);
         // Update customer details
         customer.setCustomerAddress(address);
         customer.setCustomerPhone(phone);
         // Merge the updated customer back into the database
         entityManager.merge(customer);
+        // Flush now so that a version conflict is raised inside this attempt and can be retried
+        entityManager.flush();
         logger.info("Customer with ID: {} updated successfully", id);
     }
 
@@ -101,9 +333,11 @@ public class CustomerBeanImpl implements ICustomerBean {
     @Override
     public void deleteCustomer(String id) throws CustomerNotFoundExceptin {
         logger.info("Attempting to delete customer with ID: {}", id);
-        findCustomer(id);
+        loadCustomer(id, true);
         // Execute delete query
-        entityManager.createNamedQuery("deleteCustomerQuery").setParameter("id", id).executeUpdate();
+        long key = customerKey(id);
+        entityManager.createNamedQuery("deleteCustomerQuery").setParameter("id", key).executeUpdate();
+        customerViews.remove(key);
         logger.info("Customer with ID: {} deleted successfully", id);
     }
 
@@ -115,12 +349,136 @@ public class CustomerBeanImpl implements ICustomerBean {
      */
 
     @Override
-    public List<Customer> findCustomersWithBalance(double balance) {
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<Customer> findCustomersWithBalance(Money balance) {
         logger.info("Searching for customers with balance greater than: {}", balance);
-        List<Customer> customers = entityManager.createNamedQuery("findCustomersWithBalance", Customer.class)
+        List<Customer> customers = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("findCustomersWithBalance", Customer.class))
                 .setParameter("balance", balance)
                 .getResultList();
         logger.info("Found {} customers with balance greater than {}", customers.size(), balance);
         return customers;
     }
+
+    /**
+     * Streams the customers having accounts with a balance greater than the specified amount.
+     * The query groups the accounts per customer, so each customer is read once, and the rows are
+     * streamed through a read-only forward-only cursor, see {@link #EXPORT_FETCH_SIZE}. It runs
+     * without a transaction of its own, as the consumer writes the response while the rows are
+     * read and a large export would outlast the transaction timeout.
+     *
+     * @param balance  the balance threshold
+     * @param consumer receives each customer with its qualifying balances
+     * @return the number of customers streamed
+     */
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public long streamCustomersWithBalance(Money balance, Consumer<CustomerBalance> consumer) {
+        logger.info("Streaming customers with balance greater than: {}", balance);
+        long count = 0;
+        org.hibernate.query.Query<?> query = entityManager.createNamedQuery("selectCustomerBalancesQuery")
+                .setParameter("balance", balance).unwrap(org.hibernate.query.Query.class);
+        try (ScrollableResults<?> rows = query.setReadOnly(true).setFetchSize(EXPORT_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                Object[] row = (Object[]) rows.get();
+                consumer.accept(new CustomerBalance(Customer.formatCustomerId(((Number) row[0]).longValue()),
+                        (String) row[1], (String) row[2], ((Number) row[3]).longValue(),
+                        Money.fromAggregate(row[4]), Money.fromAggregate(row[5])));
+                count++;
+            }
+        }
+        logger.info("Streamed {} customers with balance greater than {}", count, balance);
+        return count;
+    }
+
+    /**
+     * Loads a batch of customers read-only in one query, with their accounts joined in by the
+     * {@link Customer#WITH_ACCOUNTS} fetch graph, and caches their views for
+     * {@link #findCustomerView(String)}. Malformed IDs are skipped.
+     *
+     * @param ids the customer IDs
+     * @return the number of customers found
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public int prefetchCustomers(List<String> ids) {
+        List<Long> keys = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            try {
+                keys.add(Customer.parseCustomerId(id));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid customer ID skipped: {}", id);
+            }
+        }
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        List<Customer> customers = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectCustomersByIdsQuery", Customer.class))
+                .setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(Customer.WITH_ACCOUNTS))
+                .setParameter("ids", keys).getResultList();
+        for (Customer customer : customers) {
+            long key = Customer.parseCustomerId(customer.getCustomerId());
+            customerViews.put(key, new CustomerView(key, customer.getCustomerName(), customer.getCustomerFamily()));
+        }
+        logger.debug("Prefetched {} of {} customers", customers.size(), keys.size());
+        return customers.size();
+    }
+
+    /**
+     * Finds a batch of customers read-only, {@link AccountBeanImpl#MAX_IDS_PER_QUERY} IDs per query.
+     * Repeated and malformed IDs, and IDs recently found missing, are not sent to the database.
+     *
+     * @param ids the customer IDs
+     * @return the customers found
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<Customer> findCustomers(List<String> ids) {
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (String id : ids) {
+            try {
+                long key = Customer.parseCustomerId(id);
+                if (!NegativeCache.CUSTOMERS.isKnownMissing(key)) {
+                    candidates.add(key);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid customer ID skipped: {}", id);
+            }
+        }
+        List<Long> keys = new ArrayList<>(candidates);
+        List<Customer> customers = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i += AccountBeanImpl.MAX_IDS_PER_QUERY) {
+            customers.addAll(ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectCustomersByIdsQuery", Customer.class))
+                    .setParameter("ids", keys.subList(i, Math.min(keys.size(), i + AccountBeanImpl.MAX_IDS_PER_QUERY))).getResultList());
+        }
+        for (Customer customer : customers) {
+            recordRead(Customer.parseCustomerId(customer.getCustomerId()));
+        }
+        logger.debug("Found {} of {} customers", customers.size(), ids.size());
+        return customers;
+    }
+
+    // Counts a read of an existing customer, for the heavy hitters and the hot set saved from them.
+    private static void recordRead(long key) {
+        HeavyHitters.CUSTOMERS.record(key);
+    }
+
+    // Throws CustomerNotFoundExceptin without a query if the customer was recently found missing.
+    private static void checkNotKnownMissing(long key) throws CustomerNotFoundExceptin {
+        if (NegativeCache.CUSTOMERS.isKnownMissing(key)) {
+            logger.debug("Customer with key: {} is known not to exist", key);
+            throw new CustomerNotFoundExceptin("Customer could not found.");
+        }
+    }
+
+    // Converts a customer ID from its 10-digit API form to the stored key; a malformed ID matches no customer.
+    private static long customerKey(String id) throws CustomerNotFoundExceptin {
+        try {
+            return Customer.parseCustomerId(id);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid customer ID: {}", id);
+            throw new CustomerNotFoundExceptin("Customer could not found.");
+        }
+    }
 }
@@ -2,8 +2,11 @@ package Business.Event;
 
 
 import Business.AccountBeanImpl;
+import Web.StartupPhases;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.SessionFactoryObserver;
 import org.hibernate.boot.Metadata;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.event.service.spi.EventListenerRegistry;
@@ -32,6 +35,9 @@ public class EventListenerIntegrator implements Integrator, IntegratorProvider {
 
     /**
      * Integrates custom event listeners into the Hibernate event system.
+     * It also marks the startup phases around the session factory: everything up to this call
+     * (container boot and mapping metadata), then the session factory itself, which includes the
+     * schema update and the named query checks unless the fast-boot build turns them off.
      *
      * @param metadata        The Hibernate metadata containing entity mappings.
      * @param sessionFactory  The Hibernate session factory being initialized.
@@ -41,6 +47,13 @@ public class EventListenerIntegrator implements Integrator, IntegratorProvider {
     public void integrate(Metadata metadata, SessionFactoryImplementor
             sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
         logger.info("Integrating custom event listeners...");
+        StartupPhases.INSTANCE.mark("deployment");
+        sessionFactory.addObserver(new SessionFactoryObserver() {
+            @Override
+            public void sessionFactoryCreated(SessionFactory factory) {
+                StartupPhases.INSTANCE.mark("session-factory");
+            }
+        });
         // Obtain the EventListenerRegistry to manage Hibernate event listeners.
         EventListenerRegistry eventListenerRegistry =
                 serviceRegistry.getService(EventListenerRegistry.class);
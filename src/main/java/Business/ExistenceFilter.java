@@ -0,0 +1,197 @@
+package Business;
+
+import Business.Concurrent.BloomFilter;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Knows which account ids certainly do not exist, so lookups of missing ids, such as scanners and
+ * stale clients, are answered without a database round trip.
+ * <p>
+ * A {@link BloomFilter} is built from the database periodically; until the first rebuild has
+ * finished it answers for no id. The filter only answers for ids up to a watermark: the highest id
+ * seen by the rebuild, capped by the reservation point of the id sequence at an earlier rebuild
+ * that is at least the settle time old. The first rebuild has no earlier point, so it waits for its
+ * own to settle before it scans, and the filter answers as soon as that rebuild has finished. Every id below that point was handed out from a block that
+ * has expired since and was committed before the rebuild scanned the table, as long as the settle
+ * time exceeds the block lifetime plus the longest transaction creating an account. Ids above the
+ * watermark, including those created since on any node, always reach the database. Account ids are
+ * only ever allocated by the server, so this holds for every node.
+ * </p>
+ * <p>
+ * Ids are never removed: a deleted id stays in the filter as a false positive until the next
+ * rebuild. False positives still reach the database once; the miss is then kept in a
+ * {@link NegativeCache} for a short time, so a repeated probe of the same missing id does not.
+ * Creating an id drops it from the negative cache, which answers from startup on.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ExistenceFilter {
+    // Number of ids the filter is sized for, and its false positive rate at that size
+    private static final long EXPECTED_IDS = Long.getLong("project2.idfilter.expectedIds", 1_000_000);
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Time after which every id below a reservation point is committed; see the class comment
+    private static final long SETTLE_MILLIS = Long.getLong("project2.idfilter.settleSeconds", 360) * 1000;
+    // Account ids
+    public static final ExistenceFilter ACCOUNTS = new ExistenceFilter(EXPECTED_IDS, FALSE_POSITIVE_RATE, SETTLE_MILLIS,
+            NegativeCache.TTL_MILLIS, NegativeCache.MAX_ENTRIES);
+
+    // A built filter and the highest id it answers for, published together.
+    private static final class Snapshot {
+        final BloomFilter filter;
+        final long watermark;
+
+        Snapshot(BloomFilter filter, long watermark) {
+            this.filter = filter;
+            this.watermark = watermark;
+        }
+    }
+
+    private final long expectedIds;
+    private final double falsePositiveRate;
+    private final long settleMillis;
+    // Filter answering lookups; null until the first rebuild has finished
+    private volatile Snapshot snapshot;
+    // Reservation points of earlier rebuilds, oldest first, as {time, next unreserved id}
+    private final Deque<long[]> reservations = new ArrayDeque<>();
+    // Confirmed misses
+    private final NegativeCache misses;
+    private final LongAdder filterHits = new LongAdder();
+
+    /**
+     * Creates an existence filter; the filter answers for no id until {@link #rebuild(long, Consumer)}
+     * has run, the negative cache answers at once.
+     *
+     * @param expectedIds        the number of ids the filter is sized for
+     * @param falsePositiveRate  the false positive rate of the filter at that size
+     * @param settleMillis       the time after which every id below a reservation point is committed
+     * @param negativeTtlMillis  how long a confirmed miss is kept
+     * @param negativeMaxEntries the most confirmed misses kept
+     */
+    public ExistenceFilter(long expectedIds, double falsePositiveRate, long settleMillis, long negativeTtlMillis,
+                           int negativeMaxEntries) {
+        this.expectedIds = expectedIds;
+        this.falsePositiveRate = falsePositiveRate;
+        this.settleMillis = settleMillis;
+        this.misses = new NegativeCache(negativeTtlMillis, negativeMaxEntries);
+    }
+
+    /**
+     * Tells whether an id certainly does not exist.
+     *
+     * @param id the id
+     * @return true if the id is at most the watermark and not in the filter, or is a recent confirmed miss
+     */
+    public boolean isKnownMissing(long id) {
+        Snapshot current = snapshot;
+        if (current != null && id <= current.watermark && !current.filter.mightContain(id)) {
+            filterHits.increment();
+            return true;
+        }
+        return misses.isKnownMissing(id);
+    }
+
+    /**
+     * Records that the database did not find an id, so it is not looked up again for a while.
+     *
+     * @param id the id
+     */
+    public void missing(long id) {
+        misses.missing(id);
+    }
+
+    /**
+     * Records that an id was created, so a cached miss of it is not answered any more. The filter
+     * itself needs nothing: a new id is above the watermark until a rebuild has scanned it.
+     *
+     * @param id the id
+     */
+    public void added(long id) {
+        misses.added(id);
+    }
+
+    /**
+     * Replaces the filter with one built from the given ids. The old filter answers until the new
+     * one is complete. If no reservation point has settled yet, as on the first rebuild, this one
+     * waits for the oldest point to settle before it reads the ids.
+     *
+     * @param nextUnreserved the first id of the sequence not reserved yet, read before the ids
+     * @param ids            feeds every existing id to the consumer it is given
+     * @return the number of ids loaded
+     * @throws InterruptedException if the thread is interrupted while waiting; the filter is unchanged
+     */
+    public synchronized long rebuild(long nextUnreserved, Consumer<LongConsumer> ids) throws InterruptedException {
+        long now = System.currentTimeMillis();
+        reservations.addLast(new long[] {now, nextUnreserved});
+        long wait = reservations.peekFirst()[0] + settleMillis - now;
+        if (wait > 0) {
+            // Nothing has settled, and a scan now would answer for no id
+            Thread.sleep(wait);
+            now = System.currentTimeMillis();
+        }
+        // The newest reservation point old enough to have settled; older ones are not needed any more
+        long[] settled = null;
+        while (!reservations.isEmpty() && reservations.peekFirst()[0] <= now - settleMillis) {
+            settled = reservations.pollFirst();
+        }
+        if (settled != null) {
+            reservations.addFirst(settled);
+        }
+        BloomFilter next = new BloomFilter(expectedIds, falsePositiveRate);
+        LongAdder loaded = new LongAdder();
+        long[] highest = {Long.MIN_VALUE};
+        ids.accept(id -> {
+            next.add(id);
+            loaded.increment();
+            highest[0] = Math.max(highest[0], id);
+        });
+        // Only a clock set back can leave no settled point; the filter then answers for no id
+        long watermark = settled == null ? Long.MIN_VALUE : Math.min(highest[0], settled[1] - 1);
+        snapshot = new Snapshot(next, watermark);
+        return loaded.sum();
+    }
+
+    /**
+     * Tells whether lookups are answered, that is whether the first rebuild has finished.
+     *
+     * @return true once the filter is built
+     */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Returns the highest id the filter answers for.
+     *
+     * @return the watermark of the last rebuild, {@link Long#MIN_VALUE} if none answers yet
+     */
+    public long getWatermark() {
+        Snapshot current = snapshot;
+        return current == null ? Long.MIN_VALUE : current.watermark;
+    }
+
+    /**
+     * Returns the number of lookups answered by the filter.
+     *
+     * @return the filter hits since startup
+     */
+    public long getFilterHits() {
+        return filterHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups answered by the negative cache.
+     *
+     * @return the negative cache hits since startup
+     */
+    public long getNegativeHits() {
+        return misses.getHits();
+    }
+}
@@ -0,0 +1,165 @@
+package Business.History;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Codec for compressed blocks of balance history points.
+ * <p>
+ * A point is a time in epoch seconds and a balance in minor units (cents). Every point is stored as
+ * the difference to the previous point of the block: the time delta as an unsigned varint and the
+ * balance delta zigzag-encoded as a varint, so small changes of either take a single byte. The first
+ * point of a block is relative to the start of its time bucket and a balance of 0, which keeps every
+ * block decodable on its own.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BalanceBlockCodec {
+
+    private BalanceBlockCodec() {
+    }
+
+    /**
+     * Receives decoded points.
+     */
+    @FunctionalInterface
+    public interface PointSink {
+        /**
+         * Accepts one point.
+         *
+         * @param epochSecond the time of the point
+         * @param minorUnits  the balance at that time, in minor units
+         */
+        void accept(long epochSecond, long minorUnits);
+    }
+
+    /**
+     * Encoder that appends points to a block, possibly continuing an existing block.
+     */
+    public static final class Encoder {
+        private final ByteArrayOutputStream out;
+        private long previousTime;
+        private long previousValue;
+        private int count;
+
+        /**
+         * Creates an encoder for a new block.
+         *
+         * @param bucketStart the start of the time bucket of the block, in epoch seconds
+         */
+        public Encoder(long bucketStart) {
+            this(new byte[0], 0, bucketStart, 0);
+        }
+
+        /**
+         * Creates an encoder that continues an existing block.
+         *
+         * @param data      the encoded points of the block
+         * @param count     the number of points in the block
+         * @param lastTime  the time of the last point, or the bucket start if the block is empty
+         * @param lastValue the value of the last point, or 0 if the block is empty
+         */
+        public Encoder(byte[] data, int count, long lastTime, long lastValue) {
+            this.out = new ByteArrayOutputStream(Math.max(32, data.length + 32));
+            this.out.write(data, 0, data.length);
+            this.count = count;
+            this.previousTime = lastTime;
+            this.previousValue = lastValue;
+        }
+
+        /**
+         * Appends a point. Points must be added in time order.
+         *
+         * @param epochSecond the time of the point
+         * @param minorUnits  the balance at that time, in minor units
+         */
+        public void add(long epochSecond, long minorUnits) {
+            if (epochSecond < previousTime) {
+                throw new IllegalArgumentException("Points must be added in time order: " + epochSecond + " < " + previousTime);
+            }
+            writeVarLong(out, epochSecond - previousTime);
+            writeVarLong(out, zigZag(minorUnits - previousValue));
+            previousTime = epochSecond;
+            previousValue = minorUnits;
+            count++;
+        }
+
+        public int size() {
+            return out.size();
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public long lastTime() {
+            return previousTime;
+        }
+
+        public long lastValue() {
+            return previousValue;
+        }
+
+        public byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Decodes all points of a block in time order.
+     *
+     * @param data        the encoded block
+     * @param bucketStart the start of the time bucket of the block, in epoch seconds
+     * @param sink        the receiver of the points
+     * @return the number of decoded points
+     */
+    public static int decode(byte[] data, long bucketStart, PointSink sink) {
+        long time = bucketStart;
+        long value = 0;
+        int count = 0;
+        int position = 0;
+        while (position < data.length) {
+            // Inline varint reads keep decoding free of allocation
+            long delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            time += delta;
+            long zigZagged = 0;
+            shift = 0;
+            do {
+                b = data[position++];
+                zigZagged |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += unZigZag(zigZagged);
+            sink.accept(time, value);
+            count++;
+        }
+        return count;
+    }
+
+    // Maps signed values to unsigned ones so that small negative deltas stay small: 0, -1, 1, -2 -> 0, 1, 2, 3.
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Writes 7 bits per byte, least significant group first, with the high bit marking continuation.
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
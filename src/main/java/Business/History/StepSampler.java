@@ -0,0 +1,73 @@
+package Business.History;
+
+import Model.BalancePoint;
+import Model.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resamples decoded balance points onto a regular time grid.
+ * <p>
+ * The balance is a step function: it keeps its value until the next point. For every grid time
+ * between start and end the sampler emits the value of the latest point at or before that time.
+ * Points are consumed as they are decoded, so no intermediate list of points is built.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class StepSampler implements BalanceBlockCodec.PointSink {
+    private final long end;
+    private final long resolution;
+    private final List<BalancePoint> samples = new ArrayList<>();
+    // Next grid time to emit.
+    private long next;
+    // Balance in minor units as of the latest consumed point.
+    private long current;
+
+    /**
+     * Creates a sampler.
+     *
+     * @param start        the first grid time, in epoch seconds
+     * @param end          the last possible grid time, in epoch seconds
+     * @param resolution   the distance between grid times, in seconds
+     * @param initialValue the balance before the first consumed point, in minor units
+     */
+    public StepSampler(long start, long end, long resolution, long initialValue) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        this.end = end;
+        this.resolution = resolution;
+        this.next = start;
+        this.current = initialValue;
+    }
+
+    @Override
+    public void accept(long epochSecond, long minorUnits) {
+        // Grid times before this point still see the previous balance
+        while (next < epochSecond && next <= end) {
+            emit();
+        }
+        current = minorUnits;
+    }
+
+    /**
+     * Emits the remaining grid times and returns all samples.
+     *
+     * @return one sample per grid time between start and end
+     */
+    public List<BalancePoint> finish() {
+        while (next <= end) {
+            emit();
+        }
+        return samples;
+    }
+
+    private void emit() {
+        samples.add(new BalancePoint(next, Money.ofMinor(current)));
+        next += resolution;
+    }
+}
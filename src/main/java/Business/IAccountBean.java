@@ -1,7 +1,15 @@
 package Business;
 
 import Entity.Account;
+import Model.AccountPage;
+import Model.AccountSearch;
+import Model.AccountView;
+import Model.Money;
+import Model.Transfer;
 import Exception.AccountNotFoundException;
+import Exception.InsufficientFundsException;
+
+import java.util.List;
 
 
 /**
@@ -20,7 +28,8 @@ import Exception.AccountNotFoundException;
 public interface IAccountBean {
 
     /**
-     * Creates a new {@link Account} in the database.
+     * Creates a new {@link Account} in the database. The account id and account number are
+     * allocated by the server and set on the account; values given by the caller are replaced.
      *
      * @param account The {@link Account} object that needs to be created.
      * @throws IllegalArgumentException if the provided account is invalid.
@@ -29,6 +38,13 @@ public interface IAccountBean {
 
     /**
      * Finds and retrieves an account by its unique identifier.
+     * <p>
+     * For an account in hot mode, the balance of the account returned is the balance of the
+     * account row plus the sum of its balance slots. Inside a transaction of the caller, the
+     * account may be the managed instance of that transaction, and its balance is the balance of
+     * the account row only, so that setting a balance computed from it does not copy the slots into
+     * the row. Use {@link #getAccountBalance(int)} for the whole balance there.
+     * </p>
      *
      * @param id the unique identifier of the account.
      * @return the {@link Account} object if found.
@@ -37,11 +53,67 @@ public interface IAccountBean {
     Account findAccount(int id) throws AccountNotFoundException;
 
     /**
-     * Updates the details of an existing account, specifically the account number.
+     * Finds an account together with the {@link Entity.Customer} owning it, loaded in one query.
+     * Its balance is shown as by {@link #findAccount(int)}.
+     *
+     * @param id the unique identifier of the account.
+     * @return the {@link Account} object with its customer loaded.
+     * @throws AccountNotFoundException if no account is found with the given ID.
+     */
+    Account findAccountWithCustomer(int id) throws AccountNotFoundException;
+
+    /**
+     * Finds and retrieves an account by its account number. Its balance is shown as by
+     * {@link #findAccount(int)}, so inside a transaction of the caller it leaves out the balance
+     * slots of an account in hot mode.
+     *
+     * @param accountNumber the account number.
+     * @return the {@link Account} object if found.
+     * @throws AccountNotFoundException if no account has the given account number.
+     */
+    Account findAccountByNumber(int accountNumber) throws AccountNotFoundException;
+
+    /**
+     * Reads an account by its unique identifier as a read-only view, without loading the entity.
+     *
+     * @param id the unique identifier of the account.
+     * @return the {@link AccountView} of the account.
+     * @throws AccountNotFoundException if no account is found with the given ID.
+     */
+    AccountView findAccountView(int id) throws AccountNotFoundException;
+
+    /**
+     * Reads an account by its account number as a read-only view, without loading the entity.
+     *
+     * @param accountNumber the account number.
+     * @return the {@link AccountView} of the account.
+     * @throws AccountNotFoundException if no account has the given account number.
+     */
+    AccountView findAccountViewByNumber(int accountNumber) throws AccountNotFoundException;
+
+    /**
+     * Searches accounts with optional filters, one page at a time in account number order.
+     * Pages are sought by key, so any page costs about the same as the first one.
+     * The balance filters apply to the balance of the account row; for an account in hot mode
+     * the part of the balance held in balance slots is not included.
+     *
+     * @param search the filters; filters left null are not applied.
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param limit  the page size, or 0 for the default page size.
+     * @return the page of accounts and the cursor of the next page.
+     * @throws IllegalArgumentException if a filter, the cursor or the page size is invalid.
+     */
+    AccountPage searchAccounts(AccountSearch search, String cursor, int limit);
+
+    /**
+     * Updates the details of an existing account, specifically the account number. The number
+     * must be below the account numbers not yet reserved for new accounts, so that no new
+     * account is given it later.
      *
      * @param id            the unique identifier of the account to update.
      * @param accountNumber the new account number to set.
      * @throws AccountNotFoundException if no account is found with the given ID.
+     * @throws IllegalArgumentException if the account number is not reserved yet.
      */
     void updateAccount(int id, int accountNumber) throws AccountNotFoundException;
 
@@ -53,5 +125,113 @@ public interface IAccountBean {
      */
     void deleteAccount(int id) throws AccountNotFoundException;
 
-}
+    /**
+     * Moves money from one account to another.
+     * Concurrent movements on the same accounts are serialized, and the source account is never overdrawn.
+     *
+     * @param fromId the unique identifier of the account to debit.
+     * @param toId   the unique identifier of the account to credit.
+     * @param amount the amount to move; must be positive.
+     * @throws AccountNotFoundException   if either account does not exist.
+     * @throws InsufficientFundsException if the source account does not cover the amount.
+     * @throws IllegalArgumentException   if the amount is not positive or both accounts are the same.
+     */
+    void transfer(int fromId, int toId, Money amount) throws AccountNotFoundException, InsufficientFundsException;
 
+    /**
+     * Applies a batch of transfers atomically: either all of them are applied or none is.
+     *
+     * @param transfers the transfers to apply.
+     * @throws AccountNotFoundException   if an account referenced by the batch does not exist.
+     * @throws InsufficientFundsException if the batch would overdraw an account.
+     * @throws IllegalArgumentException   if a transfer is invalid.
+     */
+    void transferBatch(List<Transfer> transfers) throws AccountNotFoundException, InsufficientFundsException;
+
+    /**
+     * Adds money to an account without loading the account as an entity. One transaction runs an
+     * arithmetic UPDATE of the account row, or of a balance slot of a hot account, inserts the
+     * journal entry and reads the new balance back: three statements, not a single round trip.
+     *
+     * @param id     the unique identifier of the account to credit.
+     * @param amount the amount to add; must be positive.
+     * @return the balance read after the deposit, in the same transaction; it includes this deposit
+     *         and every movement committed before the read.
+     * @throws AccountNotFoundException if no account is found with the given ID.
+     * @throws IllegalArgumentException if the amount is not positive.
+     */
+    Money deposit(int id, Money amount) throws AccountNotFoundException;
+
+    /**
+     * Takes money from an account, rejecting the withdrawal in the database if it would overdraw the
+     * account. Like {@link #deposit(int, Money)}, one transaction updates the row with a conditional
+     * UPDATE, inserts the journal entry and reads the new balance back; a hot account whose row does
+     * not cover the amount first has its balance slots folded into the row.
+     *
+     * @param id     the unique identifier of the account to debit.
+     * @param amount the amount to take; must be positive.
+     * @return the balance read after the withdrawal, in the same transaction.
+     * @throws AccountNotFoundException   if no account is found with the given ID.
+     * @throws InsufficientFundsException if the balance does not cover the amount.
+     * @throws IllegalArgumentException   if the amount is not positive.
+     */
+    Money withdraw(int id, Money amount) throws AccountNotFoundException, InsufficientFundsException;
+
+    /**
+     * Returns the balance of an account. For an account in hot mode this is the balance of the
+     * account row plus the sum of its balance slots.
+     *
+     * @param id the unique identifier of the account.
+     * @return the balance of the account.
+     * @throws AccountNotFoundException if no account is found with the given ID.
+     */
+    Money getAccountBalance(int id) throws AccountNotFoundException;
+
+    /**
+     * Puts an account in hot mode, spreading its credits over several balance slots so concurrent
+     * writers do not queue on the account row. Meant for busy accounts such as business accounts.
+     *
+     * @param id    the unique identifier of the account.
+     * @param slots the number of balance slots.
+     * @throws AccountNotFoundException if no account is found with the given ID.
+     * @throws IllegalStateException    if the account is already in hot mode.
+     */
+    void promoteToHotMode(int id, int slots) throws AccountNotFoundException;
+
+    /**
+     * Loads a batch of accounts in one query, to warm the caches of a node before it takes traffic:
+     * the account number cache, and the pages of the rows and indexes in the database. Ids of
+     * accounts that no longer exist are skipped.
+     *
+     * @param ids the account ids.
+     * @return the number of accounts found.
+     */
+    int prefetchAccounts(List<Integer> ids);
+
+    /**
+     * Finds the accounts with the given ids in as few queries as possible. Ids without an account are
+     * left out. Their balances are shown as by {@link #findAccount(int)}.
+     *
+     * @param ids the account ids.
+     * @return the accounts found, in no particular order.
+     */
+    List<Account> findAccounts(List<Integer> ids);
+
+    /**
+     * Rebuilds the filter of existing account ids from the database, so lookups of missing ids are
+     * answered without a query and deleted accounts stop being false positives. The first rebuild
+     * waits for the id reservations made before it to settle, so the filter it builds answers at once.
+     *
+     * @return the number of account ids loaded, 0 if the rebuild was interrupted while waiting.
+     */
+    long rebuildExistenceFilter();
+
+    /**
+     * Takes an account out of hot mode, folding its balance slots back into the account row.
+     *
+     * @param id the unique identifier of the account.
+     * @throws AccountNotFoundException if no account is found with the given ID.
+     */
+    void demoteFromHotMode(int id) throws AccountNotFoundException;
+
+}
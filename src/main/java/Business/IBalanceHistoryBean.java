@@ -0,0 +1,53 @@
+package Business;
+
+import Model.BalancePoint;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface IBalanceHistoryBean
+ * <p>
+ * This interface defines the compressed balance history of accounts: range queries that return
+ * balance curves at a chosen resolution, and the compaction that moves journal entries into the
+ * compressed history.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+public interface IBalanceHistoryBean {
+    /**
+     * Retrieves the balance curve of an account, one point per resolution step between start and end.
+     * Only the history blocks overlapping the range are loaded and decoded.
+     *
+     * @param accountId         the unique identifier of the account.
+     * @param start             the time of the first point.
+     * @param end               the latest possible time of a point.
+     * @param resolutionSeconds the distance between two points, in seconds.
+     * @return the balance at each step.
+     * @throws IllegalArgumentException if the range or resolution is invalid or would yield too many points.
+     */
+    List<BalancePoint> getBalanceHistory(int accountId, Instant start, Instant end, long resolutionSeconds);
+
+    /**
+     * Appends the settled journal entries of all accounts to their compressed history, one
+     * transaction per account.
+     *
+     * @return the number of history points written.
+     */
+    int compact();
+
+    /**
+     * Appends the journal entries of one account up to a point in time to its compressed history,
+     * in a transaction of its own. A compaction of the same account on another node waits until
+     * this one has finished, then continues after the entries it has written.
+     *
+     * @param accountId the ID of the account.
+     * @param settled   the time of the latest entry to append; later entries may still be joined by uncommitted ones.
+     * @return the number of history points written.
+     */
+    int compactAccount(int accountId, Instant settled);
+}
@@ -1,9 +1,14 @@
 package Business;
 
 import Entity.Customer;
+import Model.CustomerBalance;
+import Model.CustomerView;
+import Model.Money;
 import Exception.CustomerNotFoundExceptin;
+import Exception.DuplicatePhoneException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface ICustomerBean
@@ -21,7 +26,8 @@ import java.util.List;
 
 public interface ICustomerBean {
     /**
-     * Creates a new {@link Customer} in the database.
+     * Creates a new {@link Customer} in the database. The accounts given with the customer are
+     * created through {@link IAccountBean#createAccount(Entity.Account)}, so their ids are allocated by the server.
      *
      * @param customer The {@link Customer} object that needs to be created.
      * @throws IllegalArgumentException if the provided customer is invalid.
@@ -29,7 +35,19 @@ public interface ICustomerBean {
     void createCustomer(Customer customer);
 
     /**
-     * Finds and retrieves a customer by their unique identifier.
+     * Creates a new {@link Customer} in the database, optionally rejecting a phone number that
+     * already belongs to another customer.
+     *
+     * @param customer             The {@link Customer} object that needs to be created.
+     * @param rejectDuplicatePhone whether to reject the customer if its phone number is already taken.
+     * @throws DuplicatePhoneException if rejectDuplicatePhone is set and another customer has the same phone number.
+     */
+    void createCustomer(Customer customer, boolean rejectDuplicatePhone) throws DuplicatePhoneException;
+
+    /**
+     * Finds and retrieves a customer by their unique identifier. An ID found missing is answered
+     * without a query for a few seconds, so a customer created meanwhile on another node may be
+     * reported missing until then.
      *
      * @param id the unique identifier of the customer.
      * @return the {@link Customer} object if found.
@@ -37,6 +55,44 @@ public interface ICustomerBean {
      */
     Customer findCustomer(String id) throws CustomerNotFoundExceptin;
 
+    /**
+     * Finds a customer together with all of its accounts, loaded in one query.
+     *
+     * @param id the unique identifier of the customer.
+     * @return the {@link Customer} object with its accounts loaded.
+     * @throws CustomerNotFoundExceptin if no customer is found with the given ID.
+     */
+    Customer findCustomerWithAccounts(String id) throws CustomerNotFoundExceptin;
+
+    /**
+     * Finds the customer a phone number belongs to, in any notation of the number.
+     *
+     * @param phone the phone number, such as "09121234567" or "+98 912 123 4567".
+     * @return the {@link Customer} object if found.
+     * @throws CustomerNotFoundExceptin if no customer has the phone number.
+     */
+    Customer findCustomerByPhone(String phone) throws CustomerNotFoundExceptin;
+
+    /**
+     * Reads a customer by their unique identifier as a read-only view, without loading the entity.
+     * Outside a transaction the view may come from a cache of this node, so a customer deleted on
+     * another node can still be returned for a few minutes.
+     *
+     * @param id the unique identifier of the customer.
+     * @return the {@link CustomerView} of the customer.
+     * @throws CustomerNotFoundExceptin if no customer is found with the given ID.
+     */
+    CustomerView findCustomerView(String id) throws CustomerNotFoundExceptin;
+
+    /**
+     * Reads the customer a phone number belongs to as a read-only view, without loading the entity.
+     *
+     * @param phone the phone number in any notation.
+     * @return the {@link CustomerView} of the customer.
+     * @throws CustomerNotFoundExceptin if no customer has the phone number.
+     */
+    CustomerView findCustomerViewByPhone(String phone) throws CustomerNotFoundExceptin;
+
     /**
      * Updates the details of an existing customer, specifically their address and phone number.
      *
@@ -61,5 +117,36 @@ public interface ICustomerBean {
      * @param balance the balance amount to compare.
      * @return a list of {@link Customer} objects with a balance greater than the given amount.
      */
-    List<Customer> findCustomersWithBalance(double balance);
+    List<Customer> findCustomersWithBalance(Money balance);
+
+    /**
+     * Loads a batch of customers and their accounts in one query, to warm the caches of a node
+     * before it takes traffic: the customer view cache, and the pages of the rows and indexes in the
+     * database. Ids of customers that no longer exist are skipped.
+     *
+     * @param ids the customer IDs.
+     * @return the number of customers found.
+     */
+    int prefetchCustomers(List<String> ids);
+
+    /**
+     * Finds the customers with the given IDs in as few queries as possible, without their accounts.
+     * IDs without a customer, and malformed IDs, are left out.
+     *
+     * @param ids the customer IDs.
+     * @return the customers found, in no particular order.
+     */
+    List<Customer> findCustomers(List<String> ids);
+
+    /**
+     * Streams the customers having accounts with a balance greater than the specified amount, one
+     * {@link CustomerBalance} per customer in customer ID order. Rows are read through a forward-only
+     * cursor and handed to the consumer one at a time, so memory use does not grow with the result.
+     * The export runs in the caller's transaction if there is one, and without one otherwise.
+     *
+     * @param balance  the balance amount to compare.
+     * @param consumer receives each customer with its qualifying balances.
+     * @return the number of customers streamed.
+     */
+    long streamCustomersWithBalance(Money balance, Consumer<CustomerBalance> consumer);
 }
@@ -0,0 +1,28 @@
+package Business;
+
+import Model.IdSequence;
+
+/**
+ * Interface IIdBlockBean
+ * <p>
+ * This interface defines the reservation of identifier blocks for server-side allocation of
+ * account ids and account numbers. Each reservation commits on its own, so a reserved block is
+ * never handed out twice even if the transaction that needed it rolls back.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+public interface IIdBlockBean {
+    /**
+     * Reserves a block of consecutive values of a sequence.
+     *
+     * @param sequence the sequence to reserve from.
+     * @param size     the number of values to reserve.
+     * @return the first value of the block; the block ends before {@code first + size}.
+     * @throws IllegalStateException if the sequence has fewer than {@code size} values left.
+     */
+    long reserveBlock(IdSequence sequence, int size);
+}
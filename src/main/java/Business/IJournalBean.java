@@ -0,0 +1,69 @@
+package Business;
+
+import Entity.AccountJournalEntry;
+import Model.Money;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface IJournalBean
+ * <p>
+ * This interface defines the read side of the append-only account journal: the movements of an
+ * account over a time range and its balance at any point in time. The journal itself is written
+ * by the account operations, in the same transaction as the balance change.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+public interface IJournalBean {
+    /**
+     * Computes the balance of an account as of a point in time, from the nearest snapshot taken
+     * before that time plus the journal entries after it.
+     *
+     * @param accountId the unique identifier of the account.
+     * @param asOf      the point in time.
+     * @return the balance of the account at that time, zero if it had no movements yet.
+     */
+    Money getBalanceAsOf(int accountId, Instant asOf);
+
+    /**
+     * Retrieves the journal entries of an account in a time range, oldest first.
+     *
+     * @param accountId the unique identifier of the account.
+     * @param from      the start of the range, exclusive.
+     * @param to        the end of the range, inclusive.
+     * @return the journal entries in the range.
+     */
+    List<AccountJournalEntry> findJournal(int accountId, Instant from, Instant to);
+
+    /**
+     * Writes balance snapshots for every account with enough settled journal entries since its
+     * latest snapshot.
+     *
+     * @return the number of snapshots written.
+     */
+    int takeSnapshots();
+
+    /**
+     * Writes the opening entry of every account that has none, each in a transaction of its own,
+     * see {@link #recordBaseline(int)}. Run in the background at startup; the node does not
+     * take traffic until it has finished.
+     *
+     * @return the number of opening entries written.
+     */
+    int recordBaselines();
+
+    /**
+     * Writes the opening entry of an account that has none. Its amount is the current balance minus
+     * the sum of the journal, so the journal adds up to the balance even if movements were journaled
+     * before the opening entry was written.
+     *
+     * @param accountId the unique identifier of the account.
+     * @return true if an opening entry was written, false if the account has one or does not exist.
+     */
+    boolean recordBaseline(int accountId);
+}
@@ -0,0 +1,60 @@
+package Business;
+
+import Entity.IdBlock;
+import Model.IdSequence;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stateless session bean reserving blocks of server-allocated identifiers.
+ * <p>
+ * The reservation row of a sequence is locked for the duration of a short transaction of its own,
+ * so concurrent nodes reserve disjoint blocks. The first reservation of a sequence starts right
+ * after the highest value already in use.
+ * </p>
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@Stateless(name = "idBlockBean")
+public class IdBlockBeanImpl implements IIdBlockBean {
+    private static final Logger logger = LogManager.getLogger(IdBlockBeanImpl.class);
+    // Persistence context for interacting with the database
+    @PersistenceContext(unitName = "PersistenceUnit")
+    public EntityManager entityManager;
+
+    /**
+     * Reserves a block of consecutive values of a sequence in a transaction of its own.
+     *
+     * @param sequence the sequence to reserve from
+     * @param size     the number of values to reserve
+     * @return the first value of the block
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public long reserveBlock(IdSequence sequence, int size) {
+        IdBlock block = entityManager.find(IdBlock.class, sequence.name(), LockModeType.PESSIMISTIC_WRITE);
+        if (block == null) {
+            // First reservation: continue after the values callers assigned themselves. Two nodes
+            // racing here both insert the row, and the loser fails on the primary key and retries.
+            Number max = (Number) entityManager.createNamedQuery(sequence.getSeedQuery()).getSingleResult();
+            long first = max == null ? sequence.getMinValue() : Math.max(sequence.getMinValue(), max.longValue() + 1);
+            block = new IdBlock(sequence.name(), first);
+            entityManager.persist(block);
+        }
+        long first = block.getNextValue();
+        if (first + size - 1 > sequence.getMaxValue()) {
+            throw new IllegalStateException("Sequence " + sequence + " is exhausted");
+        }
+        block.setNextValue(first + size);
+        logger.info("Reserved {} values of {} starting at {}", size, sequence, first);
+        return first;
+    }
+}
@@ -0,0 +1,104 @@
+package Business.Interceptor;
+
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.InvocationContext;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.StaleStateException;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Interceptor that re-runs a business method when it fails because of an optimistic locking conflict.
+ * <p>
+ * Each attempt runs in its own transaction through {@link TransactionRunner}, so a conflicting
+ * attempt is rolled back on its own and the next attempt reads the latest committed version.
+ * Between attempts the interceptor sleeps for a jittered, exponentially growing backoff, and it
+ * gives up after a bounded number of attempts. The methods it wraps should use
+ * {@code TransactionAttributeType.SUPPORTS} so that they do not open a transaction of their own.
+ * A call made inside a transaction of the caller is not retried: the conflict has already marked
+ * that transaction for rollback, and an attempt in a new transaction would commit on its own,
+ * outside the unit of work of the caller. It runs in the caller's transaction once, and the
+ * conflict reaches the caller, which owns the transaction and can retry it as a whole.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+public class OptimisticRetryInterceptor {
+    // Logger for tracking retries.
+    private static final Logger logger = LogManager.getLogger(OptimisticRetryInterceptor.class);
+    // Maximum number of attempts, including the first one.
+    public static final int MAX_ATTEMPTS = Integer.getInteger("project2.retry.maxAttempts", 5);
+    // Backoff of the first retry and upper bound of any backoff, in milliseconds.
+    private static final long BASE_BACKOFF_MILLIS = Long.getLong("project2.retry.baseBackoffMillis", 5);
+    private static final long MAX_BACKOFF_MILLIS = Long.getLong("project2.retry.maxBackoffMillis", 200);
+
+    // Runs each attempt in a new transaction.
+    @EJB
+    TransactionRunner transactionRunner;
+    // Tells whether the call runs in a transaction of the caller.
+    @Resource
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    /**
+     * Invokes the business method, retrying it while it fails with an optimistic locking conflict.
+     *
+     * @param context the invocation context of the intercepted method
+     * @return the result of the business method
+     * @throws Exception the exception of the last attempt, or any non-conflict exception
+     */
+    @AroundInvoke
+    public Object retryOnConflict(InvocationContext context) throws Exception {
+        if (transactionRegistry != null && transactionRegistry.getTransactionKey() != null) {
+            // Joins the caller's transaction; only the caller can retry it
+            return context.proceed();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionRunner.runInNewTransaction(context::proceed);
+            } catch (Exception e) {
+                // Only conflicts are retried, and only up to the limit.
+                if (!isConflict(e) || attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                long backoff = backoffMillis(attempt);
+                logger.warn("Optimistic locking conflict in {} (attempt {}/{}), retrying in {} ms",
+                        context.getMethod().getName(), attempt, MAX_ATTEMPTS, backoff);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the given exception, or one of its causes, is an optimistic locking conflict.
+     *
+     * @param e the exception to inspect
+     * @return true if the failure was caused by a concurrent update
+     */
+    public static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes a "full jitter" backoff: a random delay between zero and an exponentially growing cap.
+     *
+     * @param attempt the number of the attempt that just failed, starting at 1
+     * @return the delay before the next attempt, in milliseconds
+     */
+    public static long backoffMillis(int attempt) {
+        long cap = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,37 @@
+package Business.Interceptor;
+
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Stateless session bean that runs a unit of work in its own container-managed transaction.
+ * <p>
+ * Interceptors execute inside the transaction of the business method they wrap, so a retry
+ * cannot simply call {@code proceed()} again once the transaction has been marked for rollback.
+ * {@link OptimisticRetryInterceptor} uses this bean to give every attempt a fresh transaction.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@Stateless(name = "transactionRunner")
+public class TransactionRunner {
+
+    /**
+     * Runs the given work in a new transaction, suspending the caller's transaction if there is one.
+     *
+     * @param work the unit of work to execute
+     * @param <T>  the type of the result
+     * @return the result of the work
+     * @throws Exception any exception thrown by the work
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public <T> T runInNewTransaction(Callable<T> work) throws Exception {
+        return work.call();
+    }
+}
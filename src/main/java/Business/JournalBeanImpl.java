@@ -0,0 +1,219 @@
+package Business;
+
+import Entity.Account;
+import Entity.AccountBalanceSlot;
+import Entity.AccountBalanceSnapshot;
+import Entity.AccountJournalEntry;
+import Model.JournalEntryType;
+import Model.Money;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Schedule;
+import jakarta.ejb.SessionContext;
+import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Stateless session bean for reading the account journal and maintaining its balance snapshots.
+ * <p>
+ * A snapshot is written every {@link #SNAPSHOT_EVERY} journal entries of an account, so a historical
+ * balance never needs more than a short journal tail on top of the nearest snapshot. Snapshots only
+ * cover entries older than {@link #SETTLE_MILLIS}: younger entries may belong to a transaction that
+ * has not committed yet and would otherwise be missing from the snapshot forever.
+ * </p>
+ * <p>
+ * Accounts created before the journal get their opening entry at startup, see
+ * {@link #recordBaselines()}; until then their historical balances and snapshots lack it.
+ * </p>
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@Stateless(name = "journalBean")
+public class JournalBeanImpl implements IJournalBean {
+    private static final Logger logger = LogManager.getLogger(JournalBeanImpl.class);
+    // Number of journal entries between two snapshots of the same account
+    public static final int SNAPSHOT_EVERY = Integer.getInteger("project2.journal.snapshotEvery", 1000);
+    // Minimum age of a journal entry before a snapshot may include it, in milliseconds
+    public static final long SETTLE_MILLIS = Long.getLong("project2.journal.settleMillis", 300_000);
+    // Persistence context for interacting with the database
+    @PersistenceContext(unitName = "PersistenceUnit")
+    public EntityManager entityManager;
+    // Session context used to write each opening entry in a transaction of its own
+    @Resource
+    SessionContext sessionContext;
+
+    /**
+     * Computes the balance of an account as of a point in time.
+     *
+     * @param accountId the ID of the account
+     * @param asOf      the point in time
+     * @return the balance at that time
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public Money getBalanceAsOf(int accountId, Instant asOf) {
+        logger.info("Computing balance of account {} as of {}", accountId, asOf);
+        Instant from = Instant.EPOCH;
+        Money balance = Money.ZERO;
+        List<?> snapshots = ReadOnlyQueries.readOnly(entityManager.createNamedQuery("selectLatestSnapshotQuery"))
+                .setParameter("id", accountId).setParameter("asOf", asOf).setMaxResults(1).getResultList();
+        if (!snapshots.isEmpty()) {
+            AccountBalanceSnapshot snapshot = (AccountBalanceSnapshot) snapshots.get(0);
+            from = snapshot.getTakenAt();
+            balance = snapshot.getBalance();
+        }
+        // Only the tail after the snapshot is summed
+        Money tail = Money.fromAggregate(ReadOnlyQueries.readOnly(entityManager.createNamedQuery("sumJournalQuery"))
+                .setParameter("id", accountId).setParameter("from", from).setParameter("to", asOf).getSingleResult());
+        return balance.plus(tail);
+    }
+
+    /**
+     * Retrieves the journal entries of an account in a time range.
+     *
+     * @param accountId the ID of the account
+     * @param from      the start of the range, exclusive
+     * @param to        the end of the range, inclusive
+     * @return the entries in the range, oldest first
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.SUPPORTS)
+    public List<AccountJournalEntry> findJournal(int accountId, Instant from, Instant to) {
+        logger.info("Reading journal of account {} from {} to {}", accountId, from, to);
+        return selectJournal(accountId, from, to, true);
+    }
+
+    // Reads journal entries in a time range; read-only for the finder, managed as usual for the snapshot maintenance.
+    private List<AccountJournalEntry> selectJournal(int accountId, Instant from, Instant to, boolean readOnly) {
+        Query query = entityManager.createNamedQuery("selectJournalQuery");
+        if (readOnly) {
+            ReadOnlyQueries.readOnly(query);
+        }
+        return query.setParameter("id", accountId).setParameter("from", from).setParameter("to", to)
+                .getResultList().stream().map(AccountJournalEntry.class::cast).collect(Collectors.toList());
+    }
+
+    /**
+     * Writes the snapshots that are due.
+     *
+     * @return the number of snapshots written
+     */
+    @Override
+    public int takeSnapshots() {
+        Instant settled = Instant.now().minusMillis(SETTLE_MILLIS);
+        List<?> due = entityManager.createNamedQuery("selectAccountsDueForSnapshotQuery")
+                .setParameter("settled", settled).setParameter("epoch", Instant.EPOCH)
+                .setParameter("every", (long) SNAPSHOT_EVERY).getResultList();
+        int taken = 0;
+        for (Object accountId : due) {
+            taken += snapshotAccount((Integer) accountId, settled);
+        }
+        logger.info("Wrote {} balance snapshots for {} accounts.", taken, due.size());
+        return taken;
+    }
+
+    // Runs the snapshot maintenance every minute.
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    void scheduledSnapshots() {
+        takeSnapshots();
+    }
+
+    // Walks the settled entries after the latest snapshot and writes a snapshot every SNAPSHOT_EVERY entries.
+    private int snapshotAccount(int accountId, Instant settled) {
+        Instant from = Instant.EPOCH;
+        long balance = 0;
+        List<?> snapshots = entityManager.createNamedQuery("selectLatestSnapshotQuery")
+                .setParameter("id", accountId).setParameter("asOf", settled).setMaxResults(1).getResultList();
+        if (!snapshots.isEmpty()) {
+            AccountBalanceSnapshot snapshot = (AccountBalanceSnapshot) snapshots.get(0);
+            from = snapshot.getTakenAt();
+            balance = snapshot.getBalance().getMinorUnits();
+        }
+        List<AccountJournalEntry> entries = selectJournal(accountId, from, settled, false);
+        int taken = 0;
+        int sinceSnapshot = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            AccountJournalEntry entry = entries.get(i);
+            balance = Math.addExact(balance, entry.getAmount().getMinorUnits());
+            sinceSnapshot++;
+            // A snapshot covers everything up to its time, so never split entries sharing a timestamp
+            boolean lastAtThisTime = i + 1 == entries.size() || !entries.get(i + 1).getOccurredAt().equals(entry.getOccurredAt());
+            if (sinceSnapshot >= SNAPSHOT_EVERY && lastAtThisTime) {
+                entityManager.persist(new AccountBalanceSnapshot(accountId, entry.getOccurredAt(), Money.ofMinor(balance)));
+                sinceSnapshot = 0;
+                taken++;
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Writes the opening entry of every account that has none, one transaction per account.
+     *
+     * @return the number of opening entries written
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public int recordBaselines() {
+        List<?> accountIds = entityManager.createNamedQuery("selectAccountsWithoutOpeningQuery").getResultList();
+        IJournalBean self = sessionContext.getBusinessObject(IJournalBean.class);
+        int recorded = 0;
+        for (Object accountId : accountIds) {
+            if (self.recordBaseline((Integer) accountId)) {
+                recorded++;
+            }
+        }
+        logger.info("Wrote {} opening entries for accounts created before the journal.", recorded);
+        return recorded;
+    }
+
+    /**
+     * Writes the opening entry of an account that has none, as its current balance minus the sum of
+     * its journal. The entry is dated at the first movement of the account, and the snapshots of the
+     * account, which lack it, are dropped so they are taken again.
+     *
+     * @param accountId the ID of the account
+     * @return true if an opening entry was written
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean recordBaseline(int accountId) {
+        // Locking the account row and its balance slots keeps every movement of the account from
+        // committing until the balance and the journal below have been read
+        Account account = entityManager.find(Account.class, accountId, LockModeType.PESSIMISTIC_WRITE);
+        if (account == null) {
+            return false;
+        }
+        long balance = account.getAccountBalance().getMinorUnits();
+        for (Object row : entityManager.createNamedQuery("selectAccountSlotsQuery").setParameter("id", accountId)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList()) {
+            balance = Math.addExact(balance, ((AccountBalanceSlot) row).getBalance().getMinorUnits());
+        }
+        // Another node may have written it meanwhile
+        long openings = ((Number) entityManager.createNamedQuery("countOpeningEntriesQuery")
+                .setParameter("id", accountId).getSingleResult()).longValue();
+        if (openings > 0) {
+            return false;
+        }
+        Object[] journal = (Object[]) entityManager.createNamedQuery("summarizeJournalQuery")
+                .setParameter("id", accountId).getSingleResult();
+        Money journaled = Money.fromAggregate(journal[0]);
+        Instant firstMovement = journal[1] == null ? Instant.now() : (Instant) journal[1];
+        entityManager.persist(new AccountJournalEntry(accountId, Money.ofMinor(balance).minus(journaled),
+                JournalEntryType.OPENING, null, firstMovement));
+        entityManager.createNamedQuery("deleteAccountSnapshotsQuery").setParameter("id", accountId).executeUpdate();
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package Business;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps ids the database recently did not find, so a repeated probe of the same missing id, such as
+ * a scanner or a stale client retrying, is answered without a query.
+ * <p>
+ * A miss is kept for a short time, and creating the id on this node drops it at once. An id created
+ * on another node may still be reported missing here until its entry expires. When the cache is
+ * full, expired misses are dropped, and all misses if that is not enough.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class NegativeCache {
+    // How long a confirmed miss is kept, and the most misses kept
+    static final long TTL_MILLIS = Long.getLong("project2.negativeCache.ttlMillis", 5000);
+    static final int MAX_ENTRIES = Integer.getInteger("project2.negativeCache.size", 100_000);
+    // Customer keys; account ids are kept by ExistenceFilter.ACCOUNTS
+    public static final NegativeCache CUSTOMERS = new NegativeCache(TTL_MILLIS, MAX_ENTRIES);
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    // Confirmed misses, with the time (System.currentTimeMillis) at which they expire
+    private final Map<Long, Long> misses = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Creates a negative cache.
+     *
+     * @param ttlMillis  how long a confirmed miss is kept
+     * @param maxEntries the most confirmed misses kept
+     */
+    public NegativeCache(long ttlMillis, int maxEntries) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Tells whether an id is a recent confirmed miss.
+     *
+     * @param id the id
+     * @return true if the database did not find the id a short time ago
+     */
+    public boolean isKnownMissing(long id) {
+        Long expiry = misses.get(id);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry > System.currentTimeMillis()) {
+            hits.increment();
+            return true;
+        }
+        misses.remove(id, expiry);
+        return false;
+    }
+
+    /**
+     * Records that the database did not find an id, so it is not looked up again for a while.
+     *
+     * @param id the id
+     */
+    public void missing(long id) {
+        long now = System.currentTimeMillis();
+        if (misses.size() >= maxEntries) {
+            misses.values().removeIf(expiry -> expiry <= now);
+            if (misses.size() >= maxEntries) {
+                misses.clear();
+            }
+        }
+        misses.put(id, now + ttlMillis);
+    }
+
+    /**
+     * Records that an id was created, so a cached miss of it is not answered any more.
+     *
+     * @param id the id
+     */
+    public void added(long id) {
+        misses.remove(id);
+    }
+
+    /**
+     * Returns the number of lookups answered by the cache.
+     *
+     * @return the hits since startup
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+}
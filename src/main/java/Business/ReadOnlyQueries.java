@@ -0,0 +1,43 @@
+package Business;
+
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Read-only execution mode shared by the finder methods of the session beans.
+ * <p>
+ * The finders run with {@code SUPPORTS}, so a call from outside a transaction starts none, and
+ * their queries go through {@link #readOnly(Query)}: entities are loaded read-only, so Hibernate
+ * keeps no dirty-checking snapshot for them, and the persistence context is not flushed before
+ * the query. Methods that modify what they load must not use this mode; they load through their
+ * own non-read-only paths.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+final class ReadOnlyQueries {
+    // Properties for EntityManager.find that load the entity read-only.
+    static final Map<String, Object> FIND_PROPERTIES = Collections.singletonMap(HibernateHints.HINT_READ_ONLY, true);
+
+    private ReadOnlyQueries() {
+    }
+
+    /**
+     * Switches a query to read-only execution.
+     *
+     * @param query the query
+     * @param <Q>   the type of the query
+     * @return the same query
+     */
+    static <Q extends Query> Q readOnly(Q query) {
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        query.setFlushMode(FlushModeType.COMMIT);
+        return query;
+    }
+}
@@ -9,6 +9,7 @@ import javax.xml.parsers.DocumentBuilderFactory;
 
 import Entity.Account;
 import Model.AccountType;
+import Model.Money;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.w3c.dom.Document;
@@ -39,7 +40,7 @@ public class AccountSoapClient {
     public static void main(String[] args) {
         try {
             String soapEndpointUrl = "http://localhost:7001/project2/AccountSoapService";
-            Account account = new Account(123, 7891011, 1000.00, AccountType.CHECKING);
+            Account account = new Account(Money.parse("1000.00"), AccountType.CHECKING);
             // Demonstrating SOAP requests for various operations
             createAccount(soapEndpointUrl, account);
             findAccount(soapEndpointUrl, 12);
@@ -37,7 +37,7 @@ public class CustomerRestClient {
      */
 
     public static void main(String[] args) {
-        String customerId = "C123456";
+        String customerId = "0000123456";
         String customerJson = "{\"customerId\":\"12\", \"customerAddress\":\"Tehran-niyavaran\", \"customerPhone\":\"09123456789\"}";
         String customerJson2 = "{\"customerAddress\":\"Tehran-pasdaran\", \"customerPhone\":\"09123456789\"}";
         // Send GET, POST, PUT, DELETE requests
@@ -2,11 +2,14 @@ package Entity;
 
 import Model.AccountType;
 import Model.AccountValidation;
+import Model.Money;
+import Model.NonNegativeMoney;
 import jakarta.persistence.Basic;
 import jakarta.persistence.Column;
 import jakarta.persistence.Id;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.NaturalId;
 import Exception.AccountTypeException;
 
 /**
@@ -24,31 +27,58 @@ import Exception.AccountTypeException;
 // Indicates that this class is a JPA entity and should be mapped to a table
 @Entity
 // Maps the class to the "account" table in the database
-@Table(name = "account")
+// Composite indexes for the account search: each filter column followed by the account number the search pages on
+@Table(name = "account", indexes = {
+        @Index(name = "idx_account_customer_number", columnList = "customerId, accountNumber"),
+        @Index(name = "idx_account_type_number", columnList = "accountType, accountNumber"),
+})
+// Fetch plan for the finders that also need the owner of the account
+@NamedEntityGraph(name = Account.WITH_CUSTOMER, attributeNodes = @NamedAttributeNode("customer"))
 @NamedQueries({@NamedQuery(query = "SELECT a FROM Account a WHERE a.accountId = :id", name = "selectAccountQuery"),
-        @NamedQuery(query = "UPDATE Account a SET a.accountNumber = :accountNumber WHERE a.accountId = :id", name = "updateAaccountQuery"),
+        @NamedQuery(query = "SELECT a FROM Account a WHERE a.accountNumber = :accountNumber", name = "selectAccountByNumberQuery"),
+        // Projections for the read-only find paths; they build Model.AccountView without managing an entity.
+        // The balance slots of a hot account are summed in the same statement, an empty index lookup otherwise.
+        @NamedQuery(query = "SELECT NEW Model.AccountView(a.accountId, a.accountNumber, a.accountBalance, a.accountType, (SELECT SUM(s.balance) FROM AccountBalanceSlot s WHERE s.accountId = a.accountId)) FROM Account a WHERE a.accountId = :id", name = "selectAccountViewQuery"),
+        @NamedQuery(query = "SELECT NEW Model.AccountView(a.accountId, a.accountNumber, a.accountBalance, a.accountType, (SELECT SUM(s.balance) FROM AccountBalanceSlot s WHERE s.accountId = a.accountId)) FROM Account a WHERE a.accountNumber = :accountNumber", name = "selectAccountViewByNumberQuery"),
         @NamedQuery(query = "DELETE FROM Account a WHERE a.accountId = :id", name = "deleteAccountQuery"),
+        // Conditional debit: only succeeds if the balance covers the amount, so overdraft is rejected by the database
+        @NamedQuery(query = "UPDATE Account a SET a.accountBalance = a.accountBalance - :amount, a.version = a.version + 1 WHERE a.accountId = :id AND a.accountBalance >= :amount", name = "debitAccountQuery"),
+        @NamedQuery(query = "UPDATE Account a SET a.accountBalance = a.accountBalance + :amount, a.version = a.version + 1 WHERE a.accountId = :id", name = "creditAccountQuery"),
+        @NamedQuery(query = "SELECT COUNT(a) FROM Account a WHERE a.accountId = :id", name = "countAccountQuery"),
+        @NamedQuery(query = "SELECT a.accountBalance FROM Account a WHERE a.accountId = :id", name = "selectAccountBalanceQuery"),
+        // Hot mode switches; the balance slot count is never written by merge, only by these queries
+        @NamedQuery(query = "UPDATE Account a SET a.balanceSlots = :slots WHERE a.accountId = :id AND a.balanceSlots = 0", name = "promoteAccountQuery"),
+        @NamedQuery(query = "UPDATE Account a SET a.balanceSlots = 0 WHERE a.accountId = :id AND a.balanceSlots > 0", name = "demoteAccountQuery"),
+        @NamedQuery(query = "SELECT a.accountId, a.balanceSlots FROM Account a WHERE a.balanceSlots > 0", name = "selectHotAccountsQuery"),
+        // Seeds of the server-allocated sequences, see Model.IdSequence
+        @NamedQuery(query = "SELECT MAX(a.accountId) FROM Account a", name = "selectMaxAccountIdQuery"),
+        @NamedQuery(query = "SELECT MAX(a.accountNumber) FROM Account a", name = "selectMaxAccountNumberQuery"),
+        @NamedQuery(query = "SELECT a FROM Account a WHERE a.accountId IN :ids", name = "selectAccountsByIdsQuery"),
+        // Every account id, answered from the primary key index; feeds the existence filter
+        @NamedQuery(query = "SELECT a.accountId FROM Account a", name = "selectAccountIdsQuery"),
 })
 public class Account {
+    // Name of the entity graph loading an account together with its customer.
+    public static final String WITH_CUSTOMER = "Account.withCustomer";
     // Primary key for the Account entity.
     @Id
     @Column(name = "accountId")
     @NotNull(message = "Account ID cannot be null")
     private int accountId;
-    // Basic field for storing the account number.
-    @Basic
+    // Business key of the account; as a natural id it gets a unique index. Mutable through updateAccount.
+    @NaturalId(mutable = true)
     @Column(name = "accountNumber")
     @NotNull(message = "Account number cannot be null")
     @Min(value = 1000, message = "Account number must be at least 1000")
     @Max(value = 999999999, message = "Account number must be less than 1 billion")
     private int accountNumber;
-    // Basic field for storing the account balance.
+    // Basic field for storing the account balance, in minor units (see MoneyConverter).
     @Basic
     @Column(name = "accountBalance")
     @NotNull(message = "Account balance cannot be null")
-    @DecimalMin(value = "0.0", message = "Account balance must be greater than or equal to 0.0")
-    @Positive(message = "Account balance must be positive")
-    private double accountBalance;
+    // Zero is allowed: a debit may take the whole balance, see debitAccountQuery
+    @NonNegativeMoney(message = "Account balance must not be negative")
+    private Money accountBalance;
     // Basic field for storing the type of account.
     @Basic
     @Column(name = "accountType")
@@ -58,6 +88,18 @@ public class Account {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customerId", referencedColumnName = "customerId")
     private Customer customer;
+    // Version column used for optimistic locking; every update checks and increments it.
+    @Version
+    @Column(name = "version")
+    private long version;
+    // Number of balance slots when the account is in hot mode, 0 otherwise.
+    @Basic
+    @Column(name = "balanceSlots", nullable = false, updatable = false)
+    private int balanceSlots;
+    // Balance held in the balance slots of a hot account, set on the detached copies returned by the
+    // read-only finders so they report the whole balance; never persisted.
+    @Transient
+    private Money slotBalance;
 
     /**
      * Parameterized constructor to initialize an account.
@@ -68,7 +110,7 @@ public class Account {
      * @param accountType    the type of the account (e.g., savings, current)
      */
 
-    public Account(int accountId, int number, double accountBalance, AccountType accountType) throws AccountTypeException {
+    public Account(int accountId, int number, Money accountBalance, AccountType accountType) throws AccountTypeException {
         this.accountId = accountId;
         this.accountNumber = number;
         this.accountBalance = accountBalance;
@@ -77,6 +119,17 @@ public class Account {
         this.accountType = accountType;
     }
 
+    /**
+     * Creates an account whose id and account number are allocated by the server when it is created.
+     *
+     * @param accountBalance the opening balance of the account
+     * @param accountType    the type of the account
+     */
+
+    public Account(Money accountBalance, AccountType accountType) throws AccountTypeException {
+        this(0, 0, accountBalance, accountType);
+    }
+
     /**
      * Default constructor for JPA.
      */
@@ -102,11 +155,17 @@ public class Account {
         this.accountNumber = number;
     }
 
-    public double getAccountBalance() {
-        return accountBalance;
+    /**
+     * Returns the balance of the account. For an account read by the finders outside a transaction,
+     * this includes the balance held in its balance slots.
+     *
+     * @return the balance
+     */
+    public Money getAccountBalance() {
+        return slotBalance == null || accountBalance == null ? accountBalance : accountBalance.plus(slotBalance);
     }
 
-    public void setAccountBalance(double accountBalance) {
+    public void setAccountBalance(Money accountBalance) {
         this.accountBalance = accountBalance;
     }
 
@@ -127,6 +186,24 @@ public class Account {
         this.customer = customer;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public int getBalanceSlots() {
+        return balanceSlots;
+    }
+
+    /**
+     * Includes the balance of the balance slots in {@link #getAccountBalance()}; only meant for
+     * detached copies, as the balance written by a merge stays the one of the account row.
+     *
+     * @param slotBalance the sum of the balance slots
+     */
+    public void includeSlotBalance(Money slotBalance) {
+        this.slotBalance = slotBalance;
+    }
+
     /**
      * Overridden toString method to provide a string representation of the account object.
      *
@@ -137,7 +214,7 @@ public class Account {
         return "Account{" +
                 "accountId=" + accountId +
                 ", number=" + accountNumber +
-                ", accountBalance=" + accountBalance +
+                ", accountBalance=" + getAccountBalance() +
                 ", accountType='" + accountType + '\'' +
                 '}';
     }
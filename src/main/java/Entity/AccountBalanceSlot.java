@@ -0,0 +1,110 @@
+package Entity;
+
+import Model.Money;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Entity class representing one sub-balance slot of a hot account.
+ * <p>
+ * An account in hot mode spreads its credits over several slot rows, so concurrent writers do not
+ * queue on the single balance column of the account row. The balance of such an account is the
+ * balance of the account row plus the sum of its slots.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "account_balance_slot")
+@IdClass(AccountBalanceSlot.Key.class)
+@NamedQueries({
+        @NamedQuery(query = "UPDATE AccountBalanceSlot s SET s.balance = s.balance + :amount WHERE s.accountId = :id AND s.slot = :slot", name = "creditAccountSlotQuery"),
+        @NamedQuery(query = "SELECT SUM(s.balance) FROM AccountBalanceSlot s WHERE s.accountId = :id", name = "sumAccountSlotsQuery"),
+        @NamedQuery(query = "SELECT s FROM AccountBalanceSlot s WHERE s.accountId = :id", name = "selectAccountSlotsQuery"),
+        @NamedQuery(query = "DELETE FROM AccountBalanceSlot s WHERE s.accountId = :id", name = "deleteAccountSlotsQuery"),
+})
+public class AccountBalanceSlot {
+    // Id of the account the slot belongs to.
+    @Id
+    @Column(name = "accountId")
+    private int accountId;
+    // Index of the slot, between 0 and the number of slots of the account.
+    @Id
+    @Column(name = "slot")
+    private int slot;
+    // Part of the account balance held by this slot, in minor units.
+    @Basic
+    @Column(name = "balance", nullable = false)
+    private Money balance = Money.ZERO;
+
+    /**
+     * Creates an empty slot of an account.
+     *
+     * @param accountId the id of the account
+     * @param slot      the index of the slot
+     */
+    public AccountBalanceSlot(int accountId, int slot) {
+        this.accountId = accountId;
+        this.slot = slot;
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public AccountBalanceSlot() {
+    }
+
+    // Getter and setter for properties.
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    public void setBalance(Money balance) {
+        this.balance = balance;
+    }
+
+    /**
+     * Composite primary key of a slot: the account id and the slot index.
+     */
+    public static class Key implements Serializable {
+        private int accountId;
+        private int slot;
+
+        public Key() {
+        }
+
+        public Key(int accountId, int slot) {
+            this.accountId = accountId;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return accountId == key.accountId && slot == key.slot;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, slot);
+        }
+    }
+}
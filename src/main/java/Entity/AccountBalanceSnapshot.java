@@ -0,0 +1,82 @@
+package Entity;
+
+import Model.Money;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing the balance of an account at a point in time.
+ * <p>
+ * A snapshot holds the sum of all journal entries of the account up to and including
+ * {@code takenAt}. The balance at any later time is the snapshot plus the short journal tail
+ * after it, so historical balances never require replaying the whole journal.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "account_balance_snapshot", indexes = @Index(name = "idx_snapshot_account_time", columnList = "accountId, takenAt"))
+@NamedQueries({
+        @NamedQuery(query = "SELECT s FROM AccountBalanceSnapshot s WHERE s.accountId = :id AND s.takenAt <= :asOf ORDER BY s.takenAt DESC", name = "selectLatestSnapshotQuery"),
+        @NamedQuery(query = "DELETE FROM AccountBalanceSnapshot s WHERE s.accountId = :id", name = "deleteAccountSnapshotsQuery"),
+})
+public class AccountBalanceSnapshot {
+    // Primary key; allocated in blocks like the journal ids.
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "snapshotIdGenerator")
+    @TableGenerator(name = "snapshotIdGenerator", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "nextValue", pkColumnValue = "account_balance_snapshot", allocationSize = 50)
+    @Column(name = "id")
+    private long id;
+    // Id of the account.
+    @Basic
+    @Column(name = "accountId", nullable = false)
+    private int accountId;
+    // Time of the last journal entry included in the balance.
+    @Basic
+    @Column(name = "takenAt", nullable = false)
+    private Instant takenAt;
+    // Sum of the journal entries of the account up to takenAt, in minor units.
+    @Basic
+    @Column(name = "balance", nullable = false)
+    private Money balance;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param accountId the id of the account
+     * @param takenAt   the time of the last journal entry included
+     * @param balance   the balance at that time
+     */
+    public AccountBalanceSnapshot(int accountId, Instant takenAt, Money balance) {
+        this.accountId = accountId;
+        this.takenAt = takenAt;
+        this.balance = balance;
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public AccountBalanceSnapshot() {
+    }
+
+    // Getters only: snapshots are immutable once written.
+    public long getId() {
+        return id;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+}
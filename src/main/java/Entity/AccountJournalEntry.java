@@ -0,0 +1,123 @@
+package Entity;
+
+import Model.JournalEntryType;
+import Model.Money;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing one entry of the append-only account journal.
+ * <p>
+ * Every change of an account balance is recorded as an entry holding the signed amount and the
+ * time it happened. Entries are never updated or deleted. Ids come from a pooled table generator
+ * instead of an identity column, so the entries of one transaction are inserted as a JDBC batch.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "account_journal", indexes = @Index(name = "idx_journal_account_time", columnList = "accountId, occurredAt"))
+@NamedQueries({
+        @NamedQuery(query = "SELECT SUM(e.amount) FROM AccountJournalEntry e WHERE e.accountId = :id AND e.occurredAt > :from AND e.occurredAt <= :to", name = "sumJournalQuery"),
+        @NamedQuery(query = "SELECT e FROM AccountJournalEntry e WHERE e.accountId = :id AND e.occurredAt > :from AND e.occurredAt <= :to ORDER BY e.occurredAt, e.id", name = "selectJournalQuery"),
+        // Time and amount only, for the history compaction; it reads them a page at a time without managing entities
+        @NamedQuery(query = "SELECT e.occurredAt, e.amount FROM AccountJournalEntry e WHERE e.accountId = :id AND e.occurredAt > :from AND e.occurredAt <= :to ORDER BY e.occurredAt, e.id", name = "selectJournalAmountsQuery"),
+        // Accounts with at least :every settled entries after their latest snapshot
+        @NamedQuery(query = "SELECT e.accountId FROM AccountJournalEntry e WHERE e.occurredAt <= :settled AND e.occurredAt > COALESCE((SELECT MAX(s.takenAt) FROM AccountBalanceSnapshot s WHERE s.accountId = e.accountId), :epoch) GROUP BY e.accountId HAVING COUNT(e) >= :every", name = "selectAccountsDueForSnapshotQuery"),
+        // Accounts created before the journal, or before opening entries were written for every account
+        @NamedQuery(query = "SELECT a.accountId FROM Account a WHERE NOT EXISTS (SELECT e.id FROM AccountJournalEntry e WHERE e.accountId = a.accountId AND e.entryType = Model.JournalEntryType.OPENING)", name = "selectAccountsWithoutOpeningQuery"),
+        @NamedQuery(query = "SELECT COUNT(e) FROM AccountJournalEntry e WHERE e.accountId = :id AND e.entryType = Model.JournalEntryType.OPENING", name = "countOpeningEntriesQuery"),
+        @NamedQuery(query = "SELECT SUM(e.amount), MIN(e.occurredAt) FROM AccountJournalEntry e WHERE e.accountId = :id", name = "summarizeJournalQuery"),
+})
+public class AccountJournalEntry {
+    // Primary key; allocated in blocks so inserts can be batched.
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "journalIdGenerator")
+    @TableGenerator(name = "journalIdGenerator", table = "id_generator", pkColumnName = "name",
+            valueColumnName = "nextValue", pkColumnValue = "account_journal", allocationSize = 100)
+    @Column(name = "id")
+    private long id;
+    // Id of the account whose balance changed.
+    @Basic
+    @Column(name = "accountId", nullable = false)
+    private int accountId;
+    // Signed change of the balance, in minor units.
+    @Basic
+    @Column(name = "amount", nullable = false)
+    private Money amount;
+    // Kind of movement.
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entryType", nullable = false, length = 16)
+    private JournalEntryType entryType;
+    // Other account of a transfer, null for other movements.
+    @Basic
+    @Column(name = "counterpartyId")
+    private Integer counterpartyId;
+    // Time of the movement.
+    @Basic
+    @Column(name = "occurredAt", nullable = false)
+    private Instant occurredAt;
+
+    /**
+     * Creates a journal entry.
+     *
+     * @param accountId      the id of the account whose balance changed
+     * @param amount         the signed change of the balance
+     * @param entryType      the kind of movement
+     * @param counterpartyId the other account of a transfer, or null
+     * @param occurredAt     the time of the movement
+     */
+    public AccountJournalEntry(int accountId, Money amount, JournalEntryType entryType, Integer counterpartyId, Instant occurredAt) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.entryType = entryType;
+        this.counterpartyId = counterpartyId;
+        this.occurredAt = occurredAt;
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public AccountJournalEntry() {
+    }
+
+    // Getters only: journal entries are immutable once written.
+    public long getId() {
+        return id;
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public JournalEntryType getEntryType() {
+        return entryType;
+    }
+
+    public Integer getCounterpartyId() {
+        return counterpartyId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountJournalEntry{" +
+                "id=" + id +
+                ", accountId=" + accountId +
+                ", amount=" + amount +
+                ", entryType=" + entryType +
+                ", counterpartyId=" + counterpartyId +
+                ", occurredAt=" + occurredAt +
+                '}';
+    }
+}
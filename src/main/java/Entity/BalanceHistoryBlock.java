@@ -0,0 +1,175 @@
+package Entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Entity class representing a compressed block of the balance history of an account.
+ * <p>
+ * History points are grouped per account and time bucket; a bucket holds one or more blocks
+ * ("parts") so that no block grows without bound. The points themselves are encoded by
+ * {@link Business.History.BalanceBlockCodec}. The last point is also kept in plain columns, so new
+ * points can be appended and a range query can find the balance before its start without decoding.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "balance_history_block")
+@IdClass(BalanceHistoryBlock.Key.class)
+@NamedQueries({
+        // Selects the encoded points directly, since the data column is loaded lazily on entities
+        @NamedQuery(query = "SELECT b.bucketStart, b.data FROM BalanceHistoryBlock b WHERE b.accountId = :id AND b.bucketStart >= :fromBucket AND b.bucketStart <= :to ORDER BY b.bucketStart, b.part", name = "selectHistoryBlocksQuery"),
+        @NamedQuery(query = "SELECT b FROM BalanceHistoryBlock b WHERE b.accountId = :id AND b.bucketStart < :beforeBucket ORDER BY b.bucketStart DESC, b.part DESC", name = "selectPreviousHistoryBlockQuery"),
+        // Accounts with settled journal entries that are not in their history yet
+        @NamedQuery(query = "SELECT e.accountId FROM AccountJournalEntry e WHERE e.occurredAt <= :settled AND e.occurredAt > COALESCE((SELECT MAX(b.lastEntryAt) FROM BalanceHistoryBlock b WHERE b.accountId = e.accountId), :epoch) GROUP BY e.accountId", name = "selectAccountsDueForHistoryQuery"),
+})
+public class BalanceHistoryBlock {
+    // Id of the account.
+    @Id
+    @Column(name = "accountId")
+    private int accountId;
+    // Start of the time bucket, in epoch seconds.
+    @Id
+    @Column(name = "bucketStart")
+    private long bucketStart;
+    // Index of the block within its bucket.
+    @Id
+    @Column(name = "part")
+    private int part;
+    // Number of points in the block.
+    @Basic
+    @Column(name = "pointCount", nullable = false)
+    private int pointCount;
+    // Time (epoch seconds) and balance (minor units) of the last point.
+    @Basic
+    @Column(name = "lastTime", nullable = false)
+    private long lastTime;
+    @Basic
+    @Column(name = "lastValue", nullable = false)
+    private long lastValue;
+    // Time of the last journal entry folded into the history of the account.
+    @Basic
+    @Column(name = "lastEntryAt", nullable = false)
+    private Instant lastEntryAt;
+    // The encoded points, up to BalanceHistoryBeanImpl.MAX_BLOCK_BYTES. Loaded lazily when the entities
+    // are enhanced, so reading the last point of a block does not transfer the encoded points.
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "data", nullable = false)
+    private byte[] data;
+
+    /**
+     * Creates an empty block.
+     *
+     * @param accountId   the id of the account
+     * @param bucketStart the start of the time bucket, in epoch seconds
+     * @param part        the index of the block within its bucket
+     */
+    public BalanceHistoryBlock(int accountId, long bucketStart, int part) {
+        this.accountId = accountId;
+        this.bucketStart = bucketStart;
+        this.part = part;
+        this.lastTime = bucketStart;
+        this.lastEntryAt = Instant.EPOCH;
+        this.data = new byte[0];
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public BalanceHistoryBlock() {
+    }
+
+    // Getter and setter for properties.
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public long getBucketStart() {
+        return bucketStart;
+    }
+
+    public int getPart() {
+        return part;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public long getLastTime() {
+        return lastTime;
+    }
+
+    public long getLastValue() {
+        return lastValue;
+    }
+
+    public Instant getLastEntryAt() {
+        return lastEntryAt;
+    }
+
+    public void setLastEntryAt(Instant lastEntryAt) {
+        this.lastEntryAt = lastEntryAt;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Replaces the encoded points of the block.
+     *
+     * @param data       the encoded points
+     * @param pointCount the number of points
+     * @param lastTime   the time of the last point, in epoch seconds
+     * @param lastValue  the balance of the last point, in minor units
+     */
+    public void setData(byte[] data, int pointCount, long lastTime, long lastValue) {
+        this.data = data;
+        this.pointCount = pointCount;
+        this.lastTime = lastTime;
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * Composite primary key of a block: the account id, the bucket start and the part.
+     */
+    public static class Key implements Serializable {
+        private int accountId;
+        private long bucketStart;
+        private int part;
+
+        public Key() {
+        }
+
+        public Key(int accountId, long bucketStart, int part) {
+            this.accountId = accountId;
+            this.bucketStart = bucketStart;
+            this.part = part;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return accountId == key.accountId && bucketStart == key.bucketStart && part == key.part;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, bucketStart, part);
+        }
+    }
+}
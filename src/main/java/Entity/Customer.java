@@ -1,10 +1,12 @@
 package Entity;
 
 import Model.CustomerValidation;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
 import Exception.BirthdateException;
 
 import java.time.LocalDate;
@@ -22,21 +24,41 @@ import java.util.List;
 // Indicates that this class is a JPA entity and should be mapped to a table
 @Entity
 // Maps the class to the "customer" table in the database
-@Table(name = "customer")
+@Table(name = "customer", indexes = @Index(name = "idx_customer_phone_key", columnList = "customerPhoneKey"))
+// Fetch plan for the finders that also need the accounts of the customer
+@NamedEntityGraph(name = Customer.WITH_ACCOUNTS, attributeNodes = @NamedAttributeNode("accounts"))
+// Uninitialized customer proxies, such as the owners of a list of accounts, are loaded BATCH_SIZE at a time
+@BatchSize(size = Customer.BATCH_SIZE)
 @NamedQueries({@NamedQuery(query = "SELECT c FROM Customer c WHERE c.customerId = :id", name = "selectCustomerQuery"),
-        @NamedQuery(query = "UPDATE Customer c SET c.customerAddress = :customerAddress,c.customerPhone=:customerPhone WHERE c.customerId = :id", name = "updateCustomerQuery"),
+        // Answered from idx_customer_phone_key; the oldest customer wins if legacy data holds duplicates
+        @NamedQuery(query = "SELECT c FROM Customer c WHERE c.customerPhoneKey = :phoneKey ORDER BY c.customerId", name = "selectCustomerByPhoneQuery"),
+        // Projections for the read-only find paths; they build Model.CustomerView without managing an entity
+        @NamedQuery(query = "SELECT NEW Model.CustomerView(c.customerId, c.customerName, c.customerFamily) FROM Customer c WHERE c.customerId = :id", name = "selectCustomerViewQuery"),
+        @NamedQuery(query = "SELECT NEW Model.CustomerView(c.customerId, c.customerName, c.customerFamily) FROM Customer c WHERE c.customerPhoneKey = :phoneKey ORDER BY c.customerId", name = "selectCustomerViewByPhoneQuery"),
         @NamedQuery(query = "DELETE FROM Customer c WHERE c.customerId = :id", name = "deleteCustomerQuery"),
-        @NamedQuery(query = "SELECT c FROM Customer c JOIN c.accounts a WHERE a.accountBalance > :balance", name = "findCustomersWithBalance")
+        @NamedQuery(query = "SELECT c FROM Customer c JOIN c.accounts a WHERE a.accountBalance > :balance", name = "findCustomersWithBalance"),
+        // One row per customer, in primary key order, with its qualifying accounts aggregated
+        @NamedQuery(query = "SELECT c.customerId, c.customerName, c.customerFamily, COUNT(a), SUM(a.accountBalance), MAX(a.accountBalance) "
+                + "FROM Customer c JOIN c.accounts a WHERE a.accountBalance > :balance "
+                + "GROUP BY c.customerId, c.customerName, c.customerFamily ORDER BY c.customerId", name = "selectCustomerBalancesQuery"),
+        @NamedQuery(query = "SELECT c FROM Customer c WHERE c.customerId IN :ids", name = "selectCustomersByIdsQuery"),
 })
 public class Customer {
-    // Primary key for the Customer entity
+    // Name of the entity graph loading a customer together with its accounts.
+    public static final String WITH_ACCOUNTS = "Customer.withAccounts";
+    // Number of customers, or account collections, initialized by one lazy load.
+    public static final int BATCH_SIZE = 50;
+    // Primary key for the Customer entity, stored as a fixed-width BIGINT. The 10-digit string form
+    // (with leading zeros) only exists at the API boundary, see getCustomerId and setCustomerId.
     @Id
     @Column(name = "customerId")
-    // Validates that customerId cannot be null
-    @NotNull(message = "Customer ID cannot be null")
-    // Validates customerId must be exactly
+    private long customerId;
+    // Customer ID as set through the API, kept so that a malformed one is reported by validation
+    // like the other fields instead of failing while the request is bound; null for loaded customers
+    @Transient
+    // Validates customerId is exactly 10 digits
     @Pattern(regexp = "\\d{10}", message = "Customer ID must be exactly 10 digits")
-    private String customerId;
+    private String customerIdInput;
     // Basic field for storing the customer's first name
     @Basic
     @Column(name = "customerName")
@@ -65,13 +87,23 @@ public class Customer {
     // Validates phone number format
     @Pattern(regexp = "0\\d{10}", message = "Customer phone must be 11 digits and start with '0'")
     private String customerPhone;
+    // Normalized phone number (see CustomerValidation.normalizePhone), kept in sync with customerPhone and indexed for lookups
+    @Basic
+    @Column(name = "customerPhoneKey", length = 16)
+    private String customerPhoneKey;
     // Basic field for storing the customer's birthdate
     @Basic
     @Column(name = "customerBirthday")
     private LocalDate customerBirthday;
-    // One-to-many relationship with the Account entity (Lazy fetching for performance)
+    // One-to-many relationship with the Account entity (Lazy fetching for performance); touching the
+    // accounts of one customer in a list loads those of up to BATCH_SIZE customers in the same query
     @OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, mappedBy = "customer")
+    @BatchSize(size = BATCH_SIZE)
     private List<Account> accounts;
+    // Version column used for optimistic locking; every update checks and increments it
+    @Version
+    @Column(name = "version")
+    private long version;
 
     // Default constructor for JPA
     public Customer() {
@@ -89,23 +121,63 @@ public class Customer {
      * @throws BirthdateException if the provided birthdate is invalid
      */
     public Customer(String customerId, String customerName, String customerFamily, String customerAddress, String customerPhone, LocalDate customerBirthday) throws BirthdateException {
-        this.customerId = customerId;
+        setCustomerId(customerId);
         this.customerName = customerName;
         this.customerFamily = customerFamily;
         this.customerAddress = customerAddress;
         this.customerPhone = customerPhone;
+        this.customerPhoneKey = CustomerValidation.normalizePhone(customerPhone);
         // Validate the birthdate using CustomerValidation class
         CustomerValidation.customerBirthDateValidation(customerBirthday);
         this.customerBirthday = customerBirthday;
     }
 
-    // Getter and setter for properties.
+    /**
+     * Converts the 10-digit string form of a customer ID to the stored number.
+     *
+     * @param customerId the customer ID, exactly 10 digits with its leading zeros
+     * @return the customer ID as a number
+     * @throws IllegalArgumentException if the ID is not made of exactly 10 digits
+     */
+    public static long parseCustomerId(String customerId) {
+        if (customerId == null || customerId.length() != 10) {
+            throw new IllegalArgumentException("Customer ID must be exactly 10 digits: " + customerId);
+        }
+        long id = 0;
+        for (int i = 0; i < customerId.length(); i++) {
+            char c = customerId.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Customer ID must be exactly 10 digits: " + customerId);
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    /**
+     * Formats a stored customer ID as the 10-digit string used by the services, with leading zeros.
+     *
+     * @param customerId the customer ID as a number
+     * @return the 10-digit customer ID
+     */
+    public static String formatCustomerId(long customerId) {
+        String digits = Long.toString(customerId);
+        return digits.length() >= 10 ? digits : "0000000000".substring(digits.length()) + digits;
+    }
+
+    // Getter and setter for properties; the ID is exchanged in its 10-digit string form.
     public String getCustomerId() {
-        return customerId;
+        return customerIdInput != null ? customerIdInput : formatCustomerId(customerId);
     }
 
     public void setCustomerId(String customerId) {
-        this.customerId = customerId;
+        this.customerIdInput = customerId;
+        try {
+            this.customerId = parseCustomerId(customerId);
+        } catch (IllegalArgumentException e) {
+            // Left to the validation of customerIdInput
+            this.customerId = 0;
+        }
     }
 
     public String getCustomerName() {
@@ -138,6 +210,19 @@ public class Customer {
 
     public void setCustomerPhone(String customerPhone) {
         this.customerPhone = customerPhone;
+        this.customerPhoneKey = CustomerValidation.normalizePhone(customerPhone);
+    }
+
+    @JsonIgnore
+    public String getCustomerPhoneKey() {
+        return customerPhoneKey;
+    }
+
+    // Recomputes the phone key before every write, also for customers bound from JSON or XML by field
+    @PrePersist
+    @PreUpdate
+    void updatePhoneKey() {
+        this.customerPhoneKey = CustomerValidation.normalizePhone(customerPhone);
     }
 
     public LocalDate getCustomerBirthday() {
@@ -157,6 +242,10 @@ public class Customer {
         this.accounts = account;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     // Method to add an account to the customer
     public void addAccount(Account account) {
         if (this.accounts == null) {
@@ -175,7 +264,7 @@ public class Customer {
     @Override
     public String toString() {
         return "Customer{" +
-                "customerId=" + customerId +
+                "customerId=" + getCustomerId() +
                 ", customerName='" + customerName + '\'' +
                 ", customerFamily='" + customerFamily + '\'' +
                 '}';
@@ -0,0 +1,43 @@
+package Entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity class representing the lock row of one normalized phone number.
+ * <p>
+ * A create that rejects duplicate phone numbers locks the row of its number before checking for
+ * another owner, so two such creates of the same number run one after the other. A row lock holds
+ * under every isolation level, unlike a lock on a range of the phone index.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "customer_phone_lock")
+public class CustomerPhoneLock {
+    // Normalized phone number, see Model.CustomerValidation.normalizePhone.
+    @Id
+    @Column(name = "phoneKey", length = 16)
+    private String phoneKey;
+
+    /**
+     * Creates the lock row of a phone number.
+     *
+     * @param phoneKey the normalized phone number
+     */
+    public CustomerPhoneLock(String phoneKey) {
+        this.phoneKey = phoneKey;
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public CustomerPhoneLock() {
+    }
+
+    public String getPhoneKey() {
+        return phoneKey;
+    }
+}
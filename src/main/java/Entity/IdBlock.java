@@ -0,0 +1,58 @@
+package Entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Entity class representing the reservation state of one server-allocated identifier sequence.
+ * <p>
+ * The row holds the first value not yet reserved by any node. A node reserves a block by locking
+ * the row and moving {@code nextValue} forward by the block size, then hands out the block from
+ * memory (see {@code Business.Concurrent.BlockAllocator}).
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "id_block")
+public class IdBlock {
+    // Name of the sequence, see Model.IdSequence.
+    @Id
+    @Column(name = "name", length = 32)
+    private String name;
+    // First value that has not been reserved yet.
+    @Basic
+    @Column(name = "nextValue", nullable = false)
+    private long nextValue;
+
+    /**
+     * Creates the reservation state of a sequence.
+     *
+     * @param name      the name of the sequence
+     * @param nextValue the first value to reserve
+     */
+    public IdBlock(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    /**
+     * Default constructor for JPA.
+     */
+    public IdBlock() {
+    }
+
+    // Getter and setter for properties.
+    public String getName() {
+        return name;
+    }
+
+    public long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,41 @@
+package Exception;
+
+import jakarta.ejb.ApplicationException;
+
+/**
+ * Custom exception class that represents an exception when a phone number already belongs to a customer.
+ * <p>
+ * This exception is thrown when a customer is created with duplicate phone rejection enabled and
+ * another customer already has the same phone number, after normalization.
+ * It rolls back the surrounding transaction, so the customer is not created.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationException(rollback = true)
+public class DuplicatePhoneException extends Exception {
+    /**
+     * Default constructor for DuplicatePhoneException.
+     * <p>
+     * This constructor creates a new DuplicatePhoneException instance without any detailed message.
+     * </p>
+     */
+    public DuplicatePhoneException() {
+    }
+
+    /**
+     * Constructor for DuplicatePhoneException with a detailed message.
+     * <p>
+     * This constructor creates a new DuplicatePhoneException instance with a custom error message
+     * that can provide more information about the cause of the exception.
+     * </p>
+     *
+     * @param message the error message describing the cause of the exception
+     */
+    public DuplicatePhoneException(String message) {
+        // Call the superclass constructor with the provided message
+        super(message);
+    }
+}
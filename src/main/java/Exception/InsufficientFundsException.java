@@ -0,0 +1,40 @@
+package Exception;
+
+import jakarta.ejb.ApplicationException;
+
+/**
+ * Custom exception class that represents an exception when an account does not hold enough funds.
+ * <p>
+ * This exception is thrown when a transfer or withdrawal would make an account balance negative.
+ * It rolls back the surrounding transaction, so no part of the money movement is applied.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@ApplicationException(rollback = true)
+public class InsufficientFundsException extends Exception {
+    /**
+     * Default constructor for InsufficientFundsException.
+     * <p>
+     * This constructor creates a new InsufficientFundsException instance without any detailed message.
+     * </p>
+     */
+    public InsufficientFundsException() {
+    }
+
+    /**
+     * Constructor for InsufficientFundsException with a detailed message.
+     * <p>
+     * This constructor creates a new InsufficientFundsException instance with a custom error message
+     * that can provide more information about the cause of the exception.
+     * </p>
+     *
+     * @param message the error message describing the cause of the exception
+     */
+    public InsufficientFundsException(String message) {
+        // Call the superclass constructor with the provided message
+        super(message);
+    }
+}
@@ -0,0 +1,163 @@
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Applies the versioned schema migrations out of band, before the application is deployed with the
+ * fast-boot build, which no longer lets Hibernate update the schema at startup.
+ * <p>
+ * Migrations are the {@code V<version>__<description>.sql} files of a directory, applied in version
+ * order. Every applied version is recorded in the {@code schema_version} table, so each script runs
+ * once per database and a rerun only applies the new ones. A database that already holds tables but
+ * no version history was created by {@code hbm2ddl}; it is refused unless
+ * {@code -Dproject2.migrate.baseline=<version>} records the versions up to that one as applied.
+ * </p>
+ * Run with {@code -Dproject2.migrate.url=... -Dproject2.migrate.user=... -Dproject2.migrate.password=...}
+ * and the migration directory as argument (default {@code src/main/resources/db/migration}).
+ *
+ * @author mahsa
+ */
+public class Migrate {
+    // Logger instance for logging the applied migrations
+    private static final Logger logger = LogManager.getLogger(Migrate.class);
+    // File name of a migration: version and description
+    private static final Pattern MIGRATION_FILE = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /**
+     * Applies the pending migrations.
+     *
+     * @param args the migration directory, optional
+     * @throws Exception if a migration fails; the versions applied before it stay recorded
+     */
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "src/main/resources/db/migration");
+        SortedMap<Integer, Path> migrations = findMigrations(directory);
+        String url = System.getProperty("project2.migrate.url", "jdbc:mysql://localhost:3306/project2");
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("project2.migrate.user", "root"), System.getProperty("project2.migrate.password", ""))) {
+            createVersionTable(connection);
+            Set<Integer> applied = appliedVersions(connection);
+            if (applied.isEmpty()) {
+                baseline(connection, migrations, applied);
+            }
+            int count = 0;
+            for (Map.Entry<Integer, Path> migration : migrations.entrySet()) {
+                if (!applied.contains(migration.getKey())) {
+                    apply(connection, migration.getKey(), migration.getValue());
+                    count++;
+                }
+            }
+            logger.info("{} migration(s) applied, schema is at version {}.", count,
+                    migrations.isEmpty() ? "none" : migrations.lastKey());
+        }
+    }
+
+    // Lists the migration files of the directory by version.
+    private static SortedMap<Integer, Path> findMigrations(Path directory) throws IOException {
+        SortedMap<Integer, Path> migrations = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = MIGRATION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && migrations.put(Integer.parseInt(matcher.group(1)), file) != null) {
+                    throw new IllegalStateException("Two migrations with version " + matcher.group(1) + " in " + directory);
+                }
+            }
+        }
+        return migrations;
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT NOT NULL PRIMARY KEY, " +
+                    "script VARCHAR(255) NOT NULL, " +
+                    "appliedAt DATETIME(6) NOT NULL, " +
+                    "millis BIGINT NOT NULL)");
+        }
+    }
+
+    private static Set<Integer> appliedVersions(Connection connection) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt(1));
+            }
+        }
+        return versions;
+    }
+
+    // Handles a database without version history: empty databases start from scratch, others need a baseline.
+    private static void baseline(Connection connection, SortedMap<Integer, Path> migrations, Set<Integer> applied) throws SQLException {
+        Integer baseline = Integer.getInteger("project2.migrate.baseline");
+        if (baseline == null) {
+            try (ResultSet tables = connection.getMetaData().getTables(connection.getCatalog(), null, "account", null)) {
+                if (tables.next()) {
+                    throw new IllegalStateException("The database has tables but no schema_version history; "
+                            + "rerun with -Dproject2.migrate.baseline=<last version already applied>");
+                }
+            }
+            return;
+        }
+        for (Map.Entry<Integer, Path> migration : migrations.headMap(baseline + 1).entrySet()) {
+            record(connection, migration.getKey(), migration.getValue(), 0);
+            applied.add(migration.getKey());
+        }
+        logger.info("Existing schema recorded at version {}.", baseline);
+    }
+
+    // Runs the statements of one migration and records its version.
+    private static void apply(Connection connection, int version, Path file) throws IOException, SQLException {
+        logger.info("Applying {}...", file.getFileName());
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))) {
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    throw new SQLException("Migration " + file.getFileName() + " failed at: " + sql, e);
+                }
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        record(connection, version, file, millis);
+        logger.info("Applied {} in {} ms.", file.getFileName(), millis);
+    }
+
+    private static void record(Connection connection, int version, Path file, long millis) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO schema_version (version, script, appliedAt, millis) VALUES (?, ?, CURRENT_TIMESTAMP(6), ?)")) {
+            insert.setInt(1, version);
+            insert.setString(2, file.getFileName().toString());
+            insert.setLong(3, millis);
+            insert.executeUpdate();
+        }
+    }
+
+    // Splits a script into statements: comment lines are dropped and statements end with a semicolon.
+    private static List<String> statements(String script) {
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : script.split("\r?\n")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String sql : withoutComments.toString().split(";")) {
+            if (!sql.trim().isEmpty()) {
+                statements.add(sql.trim());
+            }
+        }
+        return statements;
+    }
+}
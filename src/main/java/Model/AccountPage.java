@@ -0,0 +1,78 @@
+package Model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of an account search and the cursor of the next page.
+ * <p>
+ * Pages are sought by key rather than skipped by offset: the cursor records the last account number
+ * of the page, and the next page starts right after it through the account number index. Fetching
+ * a deep page therefore costs the same as fetching the first. Cursors are opaque to clients; they
+ * are Base64 strings that only {@link #decodeCursor(String)} interprets.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class AccountPage {
+    // Version tag of the cursor format.
+    private static final String CURSOR_PREFIX = "n1:";
+
+    // Accounts of the page, ordered by account number.
+    private final List<AccountView> accounts;
+    // Cursor of the next page, null on the last page.
+    private final String nextCursor;
+
+    /**
+     * Creates a page.
+     *
+     * @param accounts   the accounts of the page
+     * @param nextCursor the cursor of the next page, null if there is none
+     */
+    public AccountPage(List<AccountView> accounts, String nextCursor) {
+        this.accounts = accounts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AccountView> getAccounts() {
+        return accounts;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Encodes the position after an account number as a cursor.
+     *
+     * @param lastAccountNumber the last account number of a page
+     * @return the opaque cursor
+     */
+    public static String encodeCursor(int lastAccountNumber) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastAccountNumber).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor made by {@link #encodeCursor(int)}.
+     *
+     * @param cursor the opaque cursor
+     * @return the last account number of the previous page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static int decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // Also covers malformed Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Model;
+
+/**
+ * Optional filters of an account search; a filter left null is not applied.
+ * <p>
+ * The filters are combined with AND. Results are always ordered by account number, which is also
+ * the key the search pages on (see {@link AccountPage}).
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class AccountSearch {
+    // 10-digit ID of the customer owning the accounts.
+    private String customerId;
+    // Type of the accounts.
+    private AccountType accountType;
+    // Inclusive bounds of the balance of the account row.
+    private Money minBalance;
+    private Money maxBalance;
+    // Leading digits of the account number.
+    private String numberPrefix;
+
+    /**
+     * Default constructor for JSON and SOAP binding.
+     */
+    public AccountSearch() {
+    }
+
+    // Getter and setter for properties.
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
+    public void setAccountType(AccountType accountType) {
+        this.accountType = accountType;
+    }
+
+    public Money getMinBalance() {
+        return minBalance;
+    }
+
+    public void setMinBalance(Money minBalance) {
+        this.minBalance = minBalance;
+    }
+
+    public Money getMaxBalance() {
+        return maxBalance;
+    }
+
+    public void setMaxBalance(Money maxBalance) {
+        this.maxBalance = maxBalance;
+    }
+
+    public String getNumberPrefix() {
+        return numberPrefix;
+    }
+
+    public void setNumberPrefix(String numberPrefix) {
+        this.numberPrefix = numberPrefix;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountSearch{" +
+                "customerId=" + customerId +
+                ", accountType=" + accountType +
+                ", minBalance=" + minBalance +
+                ", maxBalance=" + maxBalance +
+                ", numberPrefix=" + numberPrefix +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package Model;
+
+/**
+ * Read-only view of an account with the fields shown by the find endpoints.
+ * <p>
+ * Views are built directly from projection queries, so no managed {@code Account} entity, dirty
+ * checking snapshot or customer proxy is created for a read. The text form matches the one of
+ * the entity.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class AccountView {
+    private final int accountId;
+    private final int accountNumber;
+    private final Money accountBalance;
+    private final AccountType accountType;
+
+    /**
+     * Creates a view; used by the constructor expressions of the account projection queries.
+     *
+     * @param accountId      the account ID
+     * @param accountNumber  the account number
+     * @param accountBalance the balance stored on the account row
+     * @param accountType    the account type
+     */
+    public AccountView(int accountId, int accountNumber, Money accountBalance, AccountType accountType) {
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+        this.accountBalance = accountBalance;
+        this.accountType = accountType;
+    }
+
+    /**
+     * Creates a view whose balance adds the balance slots of a hot account; used by the projection
+     * queries, which sum the slots in a subquery.
+     *
+     * @param accountId      the account ID
+     * @param accountNumber  the account number
+     * @param accountBalance the balance stored on the account row
+     * @param accountType    the account type
+     * @param slotBalance    the sum of the balance slots as returned by the aggregate, null without slots
+     */
+    public AccountView(int accountId, int accountNumber, Money accountBalance, AccountType accountType, Object slotBalance) {
+        this(accountId, accountNumber, accountBalance.plus(Money.fromAggregate(slotBalance)), accountType);
+    }
+
+    public int getAccountId() {
+        return accountId;
+    }
+
+    public int getAccountNumber() {
+        return accountNumber;
+    }
+
+    public Money getAccountBalance() {
+        return accountBalance;
+    }
+
+    public AccountType getAccountType() {
+        return accountType;
+    }
+
+    @Override
+    public String toString() {
+        return "Account{" +
+                "accountId=" + accountId +
+                ", number=" + accountNumber +
+                ", accountBalance=" + accountBalance +
+                ", accountType='" + accountType + '\'' +
+                '}';
+    }
+}
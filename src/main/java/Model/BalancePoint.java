@@ -0,0 +1,41 @@
+package Model;
+
+import java.time.Instant;
+
+/**
+ * The balance of an account at a point in time, as returned by balance history queries.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class BalancePoint {
+    // Time of the point, in epoch seconds.
+    private final long epochSecond;
+    // Balance of the account at that time.
+    private final Money balance;
+
+    /**
+     * Creates a point.
+     *
+     * @param epochSecond the time of the point, in epoch seconds
+     * @param balance     the balance at that time
+     */
+    public BalancePoint(long epochSecond, Money balance) {
+        this.epochSecond = epochSecond;
+        this.balance = balance;
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public Money getBalance() {
+        return balance;
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochSecond(epochSecond) + " " + balance;
+    }
+}
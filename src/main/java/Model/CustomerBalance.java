@@ -0,0 +1,77 @@
+package Model;
+
+/**
+ * A customer together with the balances of its accounts above a threshold, as streamed by the
+ * high-balance customer export. One instance describes one customer, however many of its accounts
+ * qualify.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class CustomerBalance {
+    // Customer ID in its 10-digit form.
+    private final String customerId;
+    private final String customerName;
+    private final String customerFamily;
+    // Number of accounts of the customer above the threshold.
+    private final long accounts;
+    // Sum of the balances of those accounts.
+    private final Money totalBalance;
+    // Largest balance among those accounts.
+    private final Money maxBalance;
+
+    /**
+     * Creates a customer balance.
+     *
+     * @param customerId     the customer ID in its 10-digit form
+     * @param customerName   the first name of the customer
+     * @param customerFamily the family name of the customer
+     * @param accounts       the number of qualifying accounts
+     * @param totalBalance   the sum of the qualifying balances
+     * @param maxBalance     the largest qualifying balance
+     */
+    public CustomerBalance(String customerId, String customerName, String customerFamily, long accounts,
+                           Money totalBalance, Money maxBalance) {
+        this.customerId = customerId;
+        this.customerName = customerName;
+        this.customerFamily = customerFamily;
+        this.accounts = accounts;
+        this.totalBalance = totalBalance;
+        this.maxBalance = maxBalance;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerFamily() {
+        return customerFamily;
+    }
+
+    public long getAccounts() {
+        return accounts;
+    }
+
+    public Money getTotalBalance() {
+        return totalBalance;
+    }
+
+    public Money getMaxBalance() {
+        return maxBalance;
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerBalance{" +
+                "customerId='" + customerId + '\'' +
+                ", accounts=" + accounts +
+                ", totalBalance=" + totalBalance +
+                ", maxBalance=" + maxBalance +
+                '}';
+    }
+}
@@ -53,6 +53,44 @@ public class CustomerValidation {
         return false;
     }
 
+    /**
+     * Normalizes a phone number to the form it is indexed and compared by.
+     * <p>
+     * Separators such as spaces, dashes and parentheses are dropped, and the international forms
+     * {@code +98...} and {@code 0098...} as well as a missing leading zero are mapped to the
+     * national form starting with '0', so "+98 912 123 4567" and "09121234567" compare equal.
+     * </p>
+     *
+     * @param customerPhone the phone number as entered, may be null
+     * @return the normalized phone number, or null if it contains no digits
+     */
+    public static String normalizePhone(String customerPhone) {
+        if (customerPhone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(customerPhone.length());
+        for (int i = 0; i < customerPhone.length(); i++) {
+            char c = customerPhone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        String phone = digits.toString();
+        if (phone.isEmpty()) {
+            return null;
+        }
+        if (phone.startsWith("0098")) {
+            return "0" + phone.substring(4);
+        }
+        if (phone.startsWith("98") && phone.length() == 12) {
+            return "0" + phone.substring(2);
+        }
+        if (phone.startsWith("9") && phone.length() == 10) {
+            return "0" + phone;
+        }
+        return phone;
+    }
+
     /**
      * Validates the customer's birthdate.
      * <p>
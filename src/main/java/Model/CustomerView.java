@@ -0,0 +1,55 @@
+package Model;
+
+import Entity.Customer;
+
+/**
+ * Read-only view of a customer with the fields shown by the find endpoints.
+ * <p>
+ * Views are built directly from projection queries, so no managed {@code Customer} entity or
+ * accounts collection is created for a read. The text form matches the one of the entity.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CustomerView {
+    // Customer ID in its 10-digit form.
+    private final String customerId;
+    private final String customerName;
+    private final String customerFamily;
+
+    /**
+     * Creates a view; used by the constructor expressions of the customer projection queries.
+     *
+     * @param customerId     the stored customer key
+     * @param customerName   the first name of the customer
+     * @param customerFamily the family name of the customer
+     */
+    public CustomerView(long customerId, String customerName, String customerFamily) {
+        this.customerId = Customer.formatCustomerId(customerId);
+        this.customerName = customerName;
+        this.customerFamily = customerFamily;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerFamily() {
+        return customerFamily;
+    }
+
+    @Override
+    public String toString() {
+        return "Customer{" +
+                "customerId=" + customerId +
+                ", customerName='" + customerName + '\'' +
+                ", customerFamily='" + customerFamily + '\'' +
+                '}';
+    }
+}
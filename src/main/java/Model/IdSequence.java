@@ -0,0 +1,42 @@
+package Model;
+
+/**
+ * Sequences of identifiers allocated by the server in blocks.
+ * <p>
+ * Each sequence knows the range its values must stay in and the query that returns the highest
+ * value already in use, which seeds the sequence the first time it is reserved so that existing
+ * rows are never handed out again.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public enum IdSequence {
+    ACCOUNT_ID("selectMaxAccountIdQuery", 1, Integer.MAX_VALUE),
+    ACCOUNT_NUMBER("selectMaxAccountNumberQuery", 1000, 999_999_999);
+
+    // Named query returning the highest value in use, or null if there is none.
+    private final String seedQuery;
+    // Smallest and largest value the sequence may return.
+    private final long minValue;
+    private final long maxValue;
+
+    IdSequence(String seedQuery, long minValue, long maxValue) {
+        this.seedQuery = seedQuery;
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    public String getSeedQuery() {
+        return seedQuery;
+    }
+
+    public long getMinValue() {
+        return minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+}
@@ -0,0 +1,19 @@
+package Model;
+
+/**
+ * Enum representing the kinds of balance movements recorded in the account journal.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public enum JournalEntryType {
+    // Initial balance of a new account, or of an account that existed before the journal
+    OPENING,
+    DEPOSIT,
+    WITHDRAWAL,
+    // One side of a transfer; the counterparty is recorded with the entry
+    TRANSFER,
+    // Remaining balance removed when the account is deleted
+    CLOSING
+}
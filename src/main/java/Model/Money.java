@@ -0,0 +1,269 @@
+package Model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+import jakarta.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * An exact amount of money, stored as a whole number of minor units (cents).
+ * <p>
+ * Money replaces floating point balances: additions, subtractions and comparisons work on a single
+ * {@code long}, so they are exact and never allocate intermediate {@link BigDecimal}s. Amounts are
+ * stored in the database as BIGINT minor units (see {@code Entity.MoneyConverter}), written to JSON as
+ * plain decimal numbers such as {@code 1250.5} and to XML as decimal strings.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@JsonSerialize(using = Money.JsonCodec.Serializer.class)
+@JsonDeserialize(using = Money.JsonCodec.Deserializer.class)
+@XmlJavaTypeAdapter(Money.XmlCodec.class)
+public final class Money implements Comparable<Money>, Serializable {
+    // Number of decimal digits of the minor unit.
+    public static final int SCALE = 2;
+    // Number of minor units in one major unit.
+    public static final long MINOR_PER_MAJOR = 100;
+    public static final Money ZERO = new Money(0);
+
+    // The amount in minor units.
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * Creates an amount from minor units.
+     *
+     * @param minorUnits the amount in cents
+     * @return the amount
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Creates an amount from whole major units.
+     *
+     * @param majorUnits the amount in whole units
+     * @return the amount
+     */
+    public static Money ofMajor(long majorUnits) {
+        return ofMinor(Math.multiplyExact(majorUnits, MINOR_PER_MAJOR));
+    }
+
+    /**
+     * Parses a decimal amount such as {@code "-12.5"} or {@code "1000"} exactly.
+     *
+     * @param text the decimal text, with at most {@link #SCALE} significant decimals
+     * @return the amount
+     * @throws IllegalArgumentException if the text is not a decimal number or has more precision than a cent
+     */
+    public static Money parse(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Amount must not be null");
+        }
+        String s = text.trim();
+        int length = s.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Not a decimal amount: " + text);
+            }
+            if (decimals >= SCALE) {
+                // Extra decimals are only accepted if they are zeros
+                if (c != '0') {
+                    throw new IllegalArgumentException("Amount has more than " + SCALE + " decimals: " + text);
+                }
+                continue;
+            }
+            value = Math.addExact(Math.multiplyExact(value, 10), c - '0');
+            digits++;
+            if (decimals >= 0) {
+                decimals++;
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Not a decimal amount: " + text);
+        }
+        for (int d = Math.max(decimals, 0); d < SCALE; d++) {
+            value = Math.multiplyExact(value, 10);
+        }
+        return ofMinor(negative ? -value : value);
+    }
+
+    /**
+     * Converts a decimal amount exactly.
+     *
+     * @param amount the amount
+     * @return the amount
+     * @throws ArithmeticException if the amount has more precision than a cent or does not fit
+     */
+    public static Money of(BigDecimal amount) {
+        return ofMinor(amount.movePointRight(SCALE).longValueExact());
+    }
+
+    /**
+     * Converts a legacy floating point amount, rounding to the nearest cent.
+     * Only meant for data that was stored as {@code double}; new code should not produce doubles.
+     *
+     * @param amount the floating point amount
+     * @return the amount rounded to cents
+     */
+    public static Money fromDouble(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Not a finite amount: " + amount);
+        }
+        return ofMinor(Math.round(amount * MINOR_PER_MAJOR));
+    }
+
+    /**
+     * Converts the result of a JPQL aggregate over a money column, which Hibernate returns either
+     * converted or as the raw number of minor units.
+     *
+     * @param aggregate the query result; null for an aggregate over no rows
+     * @return the amount, zero for null
+     */
+    public static Money fromAggregate(Object aggregate) {
+        if (aggregate == null) {
+            return ZERO;
+        }
+        if (aggregate instanceof Money) {
+            return (Money) aggregate;
+        }
+        return ofMinor(((Number) aggregate).longValue());
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money && ((Money) o).minorUnits == minorUnits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * Returns the amount as a plain decimal with two decimals, such as {@code -12.50}.
+     *
+     * @return the decimal representation
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(minorUnits);
+        long major = abs / MINOR_PER_MAJOR;
+        long minor = abs % MINOR_PER_MAJOR;
+        return (minorUnits < 0 ? "-" : "") + major + (minor < 10 ? ".0" : ".") + minor;
+    }
+
+    /**
+     * Jackson codecs: amounts are written as JSON numbers and read from numbers or strings.
+     */
+    public static final class JsonCodec {
+        private JsonCodec() {
+        }
+
+        public static final class Serializer extends JsonSerializer<Money> {
+            @Override
+            public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+                // Written as a raw number so clients see 12.50 rather than "12.50"
+                gen.writeNumber(value.toString());
+            }
+        }
+
+        public static final class Deserializer extends JsonDeserializer<Money> {
+            @Override
+            public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+                String text = p.getText();
+                try {
+                    return parse(text);
+                } catch (IllegalArgumentException e) {
+                    // Numbers in exponent notation, such as 1.5e3
+                    if (p.currentToken() != null && p.currentToken().isNumeric()) {
+                        return of(p.getDecimalValue());
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * JAXB adapter used by the SOAP services: amounts are exchanged as decimal strings.
+     */
+    public static final class XmlCodec extends XmlAdapter<String, Money> {
+        @Override
+        public Money unmarshal(String value) {
+            return value == null ? null : parse(value);
+        }
+
+        @Override
+        public String marshal(Money value) {
+            return value == null ? null : value.toString();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package Model;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bean validation constraint requiring a {@link Money} amount to be zero or positive.
+ * The standard {@code @PositiveOrZero} and {@code @DecimalMin} constraints only apply to numbers.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+@Documented
+@Constraint(validatedBy = NonNegativeMoney.Validator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NonNegativeMoney {
+    String message() default "Amount must not be negative";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /**
+     * Validates a money amount; null values are left to {@code @NotNull}.
+     */
+    class Validator implements ConstraintValidator<NonNegativeMoney, Money> {
+        @Override
+        public boolean isValid(Money value, ConstraintValidatorContext context) {
+            return value == null || value.signum() >= 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package Model;
+
+/**
+ * A single movement of money from one account to another.
+ * <p>
+ * Instances are used as the elements of a batch transfer and are bound from JSON and SOAP requests,
+ * which is why the class keeps a default constructor and setters.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class Transfer {
+    // ID of the account the money is taken from.
+    private int fromId;
+    // ID of the account the money is credited to.
+    private int toId;
+    // Amount to move; must be positive.
+    private Money amount;
+
+    /**
+     * Default constructor for JSON and SOAP binding.
+     */
+    public Transfer() {
+    }
+
+    /**
+     * Parameterized constructor to initialize a transfer.
+     *
+     * @param fromId the ID of the account to debit
+     * @param toId   the ID of the account to credit
+     * @param amount the amount to move
+     */
+    public Transfer(int fromId, int toId, Money amount) {
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amount = amount;
+    }
+
+    // Getter and setter for properties.
+    public int getFromId() {
+        return fromId;
+    }
+
+    public void setFromId(int fromId) {
+        this.fromId = fromId;
+    }
+
+    public int getToId() {
+        return toId;
+    }
+
+    public void setToId(int toId) {
+        this.toId = toId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "Transfer{" +
+                "fromId=" + fromId +
+                ", toId=" + toId +
+                ", amount=" + amount +
+                '}';
+    }
+}
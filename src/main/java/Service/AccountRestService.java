@@ -1,8 +1,19 @@
 package Service;
 
 import Business.IAccountBean;
+import Business.IBalanceHistoryBean;
+import Business.IJournalBean;
 import Entity.Account;
+import Entity.AccountJournalEntry;
+import Model.AccountPage;
+import Model.AccountSearch;
+import Model.AccountView;
+import Model.AccountType;
+import Model.BalancePoint;
+import Model.Money;
+import Model.Transfer;
 import Exception.AccountNotFoundException;
+import Exception.InsufficientFundsException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ejb.EJB;
 import jakarta.ws.rs.Consumes;
@@ -13,9 +24,13 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
  * REST service for managing account operations.
  * <p>
@@ -35,6 +50,12 @@ public class AccountRestService {
     // Injected business bean for account operations.
     @EJB
     IAccountBean iAccountBean;
+    // Injected business bean for the account journal.
+    @EJB
+    IJournalBean iJournalBean;
+    // Injected business bean for the compressed balance history.
+    @EJB
+    IBalanceHistoryBean iBalanceHistoryBean;
 
     /**
      * Creates a new account.
@@ -77,7 +98,7 @@ public class AccountRestService {
         logger.info("Received request to find account with ID: {}", id);
         try {
             // Retrieve account by ID.
-            Account account = iAccountBean.findAccount(id);
+            AccountView account = iAccountBean.findAccountView(id);
             // Log the success.
             logger.info("Account found: {}", account);
             return "Account found: " + account.toString();
@@ -88,6 +109,96 @@ public class AccountRestService {
         }
     }
 
+    /**
+     * Retrieves an account together with the customer owning it.
+     *
+     * @param id The ID of the account.
+     * @return The account and its owner, or an error message if not found.
+     */
+
+    @GET
+    @Path("/{id}/customer")
+    @Produces("text/plain")
+    public String findAccountWithCustomer(@PathParam("id") int id) {
+        logger.info("Received request to find account with ID: {} and its customer", id);
+        try {
+            Account account = iAccountBean.findAccountWithCustomer(id);
+            logger.info("Account found: {}", account);
+            return "Account found: " + account + "\nCustomer: " + account.getCustomer();
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Retrieves an account by account number.
+     *
+     * @param accountNumber The account number.
+     * @return A success message with account details or an error message if not found.
+     */
+
+    @GET
+    @Path("/number/{accountNumber}")
+    @Produces("text/plain")
+    public String findAccountByNumber(@PathParam("accountNumber") int accountNumber) {
+        logger.info("Received request to find account with number: {}", accountNumber);
+        try {
+            AccountView account = iAccountBean.findAccountViewByNumber(accountNumber);
+            logger.info("Account found: {}", account);
+            return "Account found: " + account.toString();
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found with number: {}", accountNumber, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Searches accounts, one page at a time in account number order.
+     * Every filter is optional. The response lists one account per line, followed by a
+     * "next: <cursor>" line when there are more results; pass that cursor to get the next page.
+     *
+     * @param customerId   the 10-digit ID of the owning customer.
+     * @param accountType  the account type.
+     * @param minBalance   the smallest balance, as a decimal amount.
+     * @param maxBalance   the largest balance, as a decimal amount.
+     * @param numberPrefix the leading digits of the account number.
+     * @param cursor       the cursor of the page to fetch, absent for the first page.
+     * @param limit        the page size, absent for the default.
+     * @return the page of accounts or an error message.
+     */
+
+    @GET
+    @Path("/search")
+    @Produces("text/plain")
+    public String searchAccounts(@QueryParam("customerId") String customerId, @QueryParam("type") String accountType,
+                                 @QueryParam("minBalance") String minBalance, @QueryParam("maxBalance") String maxBalance,
+                                 @QueryParam("numberPrefix") String numberPrefix, @QueryParam("cursor") String cursor,
+                                 @QueryParam("limit") int limit) {
+        logger.info("Received request to search accounts: customerId={}, type={}, balance=[{}, {}], prefix={}, cursor={}",
+                customerId, accountType, minBalance, maxBalance, numberPrefix, cursor);
+        try {
+            AccountSearch search = new AccountSearch();
+            search.setCustomerId(customerId);
+            search.setAccountType(accountType == null ? null : AccountType.fromString(accountType));
+            search.setMinBalance(minBalance == null ? null : Money.parse(minBalance));
+            search.setMaxBalance(maxBalance == null ? null : Money.parse(maxBalance));
+            search.setNumberPrefix(numberPrefix);
+            AccountPage page = iAccountBean.searchAccounts(search, cursor, limit);
+            StringBuilder result = new StringBuilder();
+            for (AccountView account : page.getAccounts()) {
+                result.append(account).append('\n');
+            }
+            if (page.getNextCursor() != null) {
+                result.append("next: ").append(page.getNextCursor()).append('\n');
+            }
+            return result.toString();
+        } catch (Exception e) {
+            logger.warn("Error searching accounts", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
     /**
      * Updates an account's details.
      *
@@ -150,4 +261,282 @@ public class AccountRestService {
             return "Error: " + e.getMessage();
         }
     }
+
+    /**
+     * Moves money between two accounts.
+     *
+     * @param transfer the transfer to execute, with source, target and amount
+     * @return A success or error message as plain text.
+     */
+
+    @POST
+    @Path("/transfer")
+    @Consumes("application/json")
+    @Produces("text/plain")
+    public String transfer(Transfer transfer) {
+        // Log the request.
+        logger.info("Received request to execute transfer: {}", transfer);
+        try {
+            // Call business logic to move the money.
+            iAccountBean.transfer(transfer.getFromId(), transfer.getToId(), transfer.getAmount());
+            // Log the success.
+            logger.info("Transfer executed successfully: {}", transfer);
+            return "Transfer executed successfully: " + transfer;
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            // Log the rejected transfer.
+            logger.warn("Transfer rejected: {}", transfer, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error executing transfer: {}", transfer, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Applies a batch of transfers atomically.
+     *
+     * @param transfers the transfers to execute
+     * @return A success or error message as plain text.
+     */
+
+    @POST
+    @Path("/transfer/batch")
+    @Consumes("application/json")
+    @Produces("text/plain")
+    public String transferBatch(List<Transfer> transfers) {
+        if (transfers == null) {
+            // A request without a body has no batch to apply
+            logger.warn("Rejected a transfer batch without a body");
+            return "Error: The request must contain a list of transfers.";
+        }
+        // Log the request.
+        logger.info("Received request to execute a batch of {} transfers", transfers.size());
+        try {
+            // Call business logic to apply the whole batch.
+            iAccountBean.transferBatch(transfers);
+            // Log the success.
+            logger.info("Batch of {} transfers executed successfully", transfers.size());
+            return "Batch of " + transfers.size() + " transfers executed successfully";
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            // Log the rejected batch.
+            logger.warn("Transfer batch rejected", e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error executing transfer batch", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Deposits money into an account.
+     *
+     * @param id     The unique ID of the account to credit.
+     * @param amount The amount to deposit, as a decimal such as 12.50.
+     * @return The new balance or an error message as plain text.
+     */
+
+    @POST
+    @Path("/{id}/deposit")
+    @Produces("text/plain")
+    public String deposit(@PathParam("id") int id, @QueryParam("amount") String amount) {
+        // Log the request.
+        logger.info("Received request to deposit {} into account with ID: {}", amount, id);
+        try {
+            // Call business logic to credit the account.
+            Money balance = iAccountBean.deposit(id, Money.parse(amount));
+            // Log the success.
+            logger.info("Deposit into account {} succeeded, new balance: {}", id, balance);
+            return "Deposit successful. New balance: " + balance;
+        } catch (AccountNotFoundException e) {
+            // Log account not found.
+            logger.warn("Account not found for deposit with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error depositing into account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Withdraws money from an account.
+     *
+     * @param id     The unique ID of the account to debit.
+     * @param amount The amount to withdraw, as a decimal such as 12.50.
+     * @return The new balance or an error message as plain text.
+     */
+
+    @POST
+    @Path("/{id}/withdraw")
+    @Produces("text/plain")
+    public String withdraw(@PathParam("id") int id, @QueryParam("amount") String amount) {
+        // Log the request.
+        logger.info("Received request to withdraw {} from account with ID: {}", amount, id);
+        try {
+            // Call business logic to debit the account.
+            Money balance = iAccountBean.withdraw(id, Money.parse(amount));
+            // Log the success.
+            logger.info("Withdrawal from account {} succeeded, new balance: {}", id, balance);
+            return "Withdrawal successful. New balance: " + balance;
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            // Log the rejected withdrawal.
+            logger.warn("Withdrawal rejected for account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error withdrawing from account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Retrieves the balance of an account, including the balance slots of an account in hot mode.
+     * With an {@code asOf} time (ISO-8601, e.g. 2024-01-31T23:59:59Z) the historical balance is
+     * computed from the account journal instead.
+     *
+     * @param id   The unique ID of the account.
+     * @param asOf Optional point in time.
+     * @return The balance or an error message as plain text.
+     */
+
+    @GET
+    @Path("/{id}/balance")
+    @Produces("text/plain")
+    public String getAccountBalance(@PathParam("id") int id, @QueryParam("asOf") String asOf) {
+        // Log the request.
+        logger.info("Received request to read the balance of account with ID: {} as of {}", id, asOf);
+        try {
+            if (asOf != null) {
+                return String.valueOf(iJournalBean.getBalanceAsOf(id, Instant.parse(asOf)));
+            }
+            return String.valueOf(iAccountBean.getAccountBalance(id));
+        } catch (AccountNotFoundException e) {
+            // Log account not found.
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error reading the balance of account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Puts an account in hot mode with the given number of balance slots.
+     *
+     * @param id    The unique ID of the account.
+     * @param slots The number of balance slots.
+     * @return Success or error message as plain text.
+     */
+
+    @POST
+    @Path("/{id}/hot")
+    @Produces("text/plain")
+    public String promoteToHotMode(@PathParam("id") int id, @QueryParam("slots") int slots) {
+        // Log the request.
+        logger.info("Received request to promote account with ID: {} to hot mode with {} slots", id, slots);
+        try {
+            iAccountBean.promoteToHotMode(id, slots);
+            return "Account promoted to hot mode with " + slots + " balance slots.";
+        } catch (AccountNotFoundException e) {
+            // Log account not found.
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error promoting account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Takes an account out of hot mode.
+     *
+     * @param id The unique ID of the account.
+     * @return Success or error message as plain text.
+     */
+
+    @DELETE
+    @Path("/{id}/hot")
+    @Produces("text/plain")
+    public String demoteFromHotMode(@PathParam("id") int id) {
+        // Log the request.
+        logger.info("Received request to demote account with ID: {} from hot mode", id);
+        try {
+            iAccountBean.demoteFromHotMode(id);
+            return "Account demoted from hot mode.";
+        } catch (AccountNotFoundException e) {
+            // Log account not found.
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error demoting account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Retrieves the journal entries of an account in a time range, one entry per line.
+     *
+     * @param id   The unique ID of the account.
+     * @param from Start of the range (ISO-8601, exclusive); defaults to the beginning of the journal.
+     * @param to   End of the range (ISO-8601, inclusive); defaults to now.
+     * @return The journal entries or an error message as plain text.
+     */
+
+    @GET
+    @Path("/{id}/journal")
+    @Produces("text/plain")
+    public String findJournal(@PathParam("id") int id, @QueryParam("from") String from, @QueryParam("to") String to) {
+        // Log the request.
+        logger.info("Received request to read the journal of account with ID: {} from {} to {}", id, from, to);
+        try {
+            List<AccountJournalEntry> entries = iJournalBean.findJournal(id,
+                    from == null ? Instant.EPOCH : Instant.parse(from), to == null ? Instant.now() : Instant.parse(to));
+            StringBuilder result = new StringBuilder();
+            for (AccountJournalEntry entry : entries) {
+                result.append(entry).append('\n');
+            }
+            return result.toString();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error reading the journal of account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Retrieves the balance curve of an account, one "time balance" line per resolution step.
+     *
+     * @param id         The unique ID of the account.
+     * @param start      Time of the first point (ISO-8601).
+     * @param end        Latest time of a point (ISO-8601); defaults to now.
+     * @param resolution Distance between two points, in seconds; defaults to one day.
+     * @return The balance curve or an error message as plain text.
+     */
+
+    @GET
+    @Path("/{id}/history")
+    @Produces("text/plain")
+    public String getBalanceHistory(@PathParam("id") int id, @QueryParam("start") String start,
+                                    @QueryParam("end") String end, @QueryParam("resolution") Long resolution) {
+        // Log the request.
+        logger.info("Received request to read the balance history of account with ID: {} from {} to {} every {}s", id, start, end, resolution);
+        try {
+            List<BalancePoint> points = iBalanceHistoryBean.getBalanceHistory(id, Instant.parse(start),
+                    end == null ? Instant.now() : Instant.parse(end), resolution == null ? 86_400 : resolution);
+            StringBuilder result = new StringBuilder();
+            for (BalancePoint point : points) {
+                result.append(point).append('\n');
+            }
+            return result.toString();
+        } catch (Exception e) {
+            // Log generic error.
+            logger.error("Error reading the balance history of account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
 }
@@ -2,13 +2,21 @@ package Service;
 
 import Business.IAccountBean;
 import Entity.Account;
+import Model.Money;
+import Model.Transfer;
 import jakarta.ejb.*;
 import jakarta.jws.*;
 import jakarta.jws.WebService;
 import Exception.AccountNotFoundException;
+import Exception.InsufficientFundsException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * SOAP Web Service for Account operations.
  * Provides methods for creating, finding, updating, and deleting accounts.
@@ -40,7 +48,7 @@ public class AccountSoapService {
             // Delegate to business layer.
             iAccountBean.createAccount(account);
             logger.info("Account created successfully: {}", account);
-            return "Account created successfully.";
+            return "Account created successfully with ID: " + account.getAccountId();
         } catch (Exception e) {
             logger.error("Error while creating account", e);
             return "Error while creating account: " + e.getMessage();
@@ -62,6 +70,47 @@ public class AccountSoapService {
         return iAccountBean.findAccount(id);
     }
 
+    /**
+     * Finds several accounts by ID with one IN-list query instead of one query per ID.
+     *
+     * @param ids The IDs of the accounts to find.
+     * @return The accounts found, in the order of the IDs; IDs without an account are skipped.
+     */
+
+    @WebMethod
+    public List<Account> findAccounts(List<Integer> ids) {
+        logger.info("Received request to find {} accounts", ids == null ? 0 : ids.size());
+        List<Account> accounts = new ArrayList<>();
+        if (ids == null) {
+            return accounts;
+        }
+        Map<Integer, Account> found = new HashMap<>();
+        for (Account account : iAccountBean.findAccounts(ids)) {
+            found.put(account.getAccountId(), account);
+        }
+        for (int id : ids) {
+            Account account = found.get(id);
+            if (account != null) {
+                accounts.add(account);
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Finds an account by its account number.
+     *
+     * @param accountNumber The account number of the account to find.
+     * @return The account entity.
+     * @throws AccountNotFoundException If no account has the account number.
+     */
+
+    @WebMethod
+    public Account findAccountByNumber(int accountNumber) throws AccountNotFoundException {
+        logger.info("Received request to find account with number: {}", accountNumber);
+        return iAccountBean.findAccountByNumber(accountNumber);
+    }
+
     /**
      * Updates the account number of an existing account.
      *
@@ -110,4 +159,170 @@ public class AccountSoapService {
             return "Error: " + e.getMessage();
         }
     }
+
+    /**
+     * Moves money between two accounts.
+     *
+     * @param fromId The ID of the account to debit.
+     * @param toId   The ID of the account to credit.
+     * @param amount The amount to move, as a decimal such as 12.50.
+     * @return Success or error message.
+     */
+
+    @WebMethod
+    public String transfer(int fromId, int toId, String amount) {
+        logger.info("Received request to transfer {} from account {} to account {}", amount, fromId, toId);
+        try {
+            // Delegate the transfer to business logic.
+            iAccountBean.transfer(fromId, toId, Money.parse(amount));
+            logger.info("Transfer executed successfully: from={}, to={}, amount={}", fromId, toId, amount);
+            return "Transfer executed successfully.";
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            logger.warn("Transfer rejected: from={}, to={}, amount={}", fromId, toId, amount, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error executing transfer: from={}, to={}, amount={}", fromId, toId, amount, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Applies a batch of transfers atomically.
+     *
+     * @param transfers The transfers to execute.
+     * @return Success or error message.
+     */
+
+    @WebMethod
+    public String transferBatch(List<Transfer> transfers) {
+        logger.info("Received request to execute a batch of {} transfers", transfers.size());
+        try {
+            // Delegate the batch to business logic.
+            iAccountBean.transferBatch(transfers);
+            logger.info("Batch of {} transfers executed successfully", transfers.size());
+            return "Batch executed successfully.";
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            logger.warn("Transfer batch rejected", e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error executing transfer batch", e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Deposits money into an account.
+     *
+     * @param id     The ID of the account to credit.
+     * @param amount The amount to deposit, as a decimal such as 12.50.
+     * @return Success message with the new balance, or error message.
+     */
+
+    @WebMethod
+    public String deposit(int id, String amount) {
+        logger.info("Received request to deposit {} into account with ID: {}", amount, id);
+        try {
+            // Delegate the deposit to business logic.
+            Money balance = iAccountBean.deposit(id, Money.parse(amount));
+            logger.info("Deposit into account {} succeeded, new balance: {}", id, balance);
+            return "Deposit successful. New balance: " + balance;
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found for deposit with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error depositing into account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Withdraws money from an account.
+     *
+     * @param id     The ID of the account to debit.
+     * @param amount The amount to withdraw, as a decimal such as 12.50.
+     * @return Success message with the new balance, or error message.
+     */
+
+    @WebMethod
+    public String withdraw(int id, String amount) {
+        logger.info("Received request to withdraw {} from account with ID: {}", amount, id);
+        try {
+            // Delegate the withdrawal to business logic.
+            Money balance = iAccountBean.withdraw(id, Money.parse(amount));
+            logger.info("Withdrawal from account {} succeeded, new balance: {}", id, balance);
+            return "Withdrawal successful. New balance: " + balance;
+        } catch (AccountNotFoundException | InsufficientFundsException e) {
+            logger.warn("Withdrawal rejected for account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error withdrawing from account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Retrieves the balance of an account, including the balance slots of an account in hot mode.
+     *
+     * @param id The ID of the account.
+     * @return The balance, or error message.
+     */
+
+    @WebMethod
+    public String getAccountBalance(int id) {
+        logger.info("Received request to read the balance of account with ID: {}", id);
+        try {
+            return String.valueOf(iAccountBean.getAccountBalance(id));
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error reading the balance of account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Puts an account in hot mode with the given number of balance slots.
+     *
+     * @param id    The ID of the account.
+     * @param slots The number of balance slots.
+     * @return Success or error message.
+     */
+
+    @WebMethod
+    public String promoteToHotMode(int id, int slots) {
+        logger.info("Received request to promote account with ID: {} to hot mode with {} slots", id, slots);
+        try {
+            iAccountBean.promoteToHotMode(id, slots);
+            return "Account promoted to hot mode with " + slots + " balance slots.";
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error promoting account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Takes an account out of hot mode.
+     *
+     * @param id The ID of the account.
+     * @return Success or error message.
+     */
+
+    @WebMethod
+    public String demoteFromHotMode(int id) {
+        logger.info("Received request to demote account with ID: {} from hot mode", id);
+        try {
+            iAccountBean.demoteFromHotMode(id);
+            return "Account demoted from hot mode.";
+        } catch (AccountNotFoundException e) {
+            logger.warn("Account not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error demoting account with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
 }
@@ -1,14 +1,24 @@
 package Service;
 
 import Business.ICustomerBean;
+import Entity.Account;
 import Entity.Customer;
 import Exception.CustomerNotFoundExceptin;
+import Model.CustomerBalance;
+import Model.CustomerView;
+import Model.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.ejb.EJB;
+import jakarta.ejb.EJBException;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * REST Web Service for managing customer operations.
  * Provides endpoints for creating, retrieving, updating, and deleting customers.
@@ -30,10 +40,10 @@ public class CustomerRestService {
     @POST
     @Consumes("application/json")
     @Produces("text/plain")
-    public String createCustomer(Customer customer) {
+    public String createCustomer(Customer customer, @QueryParam("rejectDuplicatePhone") boolean rejectDuplicatePhone) {
         logger.info("Received request to create customer: {}", customer);
         try {
-            iCustomerBean.createCustomer(customer);
+            iCustomerBean.createCustomer(customer, rejectDuplicatePhone);
             logger.info("Customer created successfully: {}", customer);
             return "Customer created successfully: " + customer.toString();
         } catch (Exception e) {
@@ -49,7 +59,7 @@ public class CustomerRestService {
     public String findCustomer(@PathParam("id") String id) {
         logger.info("Received request to find customer with ID: {}", id);
         try {
-            Customer customer = iCustomerBean.findCustomer(id);
+            CustomerView customer = iCustomerBean.findCustomerView(id);
             logger.info("Customer found: {}", customer);
             return "Customer found: " + customer.toString();
         } catch (CustomerNotFoundExceptin e) {
@@ -58,6 +68,92 @@ public class CustomerRestService {
         }
     }
 
+    // Finds a customer together with its accounts, one account per line
+    @GET
+    @Path("/{id}/accounts")
+    @Produces("text/plain")
+    public String findCustomerWithAccounts(@PathParam("id") String id) {
+        logger.info("Received request to find customer with ID: {} and its accounts", id);
+        try {
+            Customer customer = iCustomerBean.findCustomerWithAccounts(id);
+            logger.info("Customer found: {}", customer);
+            StringBuilder result = new StringBuilder("Customer found: ").append(customer).append('\n');
+            for (Account account : customer.getAccount()) {
+                result.append(account).append('\n');
+            }
+            return result.toString();
+        } catch (CustomerNotFoundExceptin e) {
+            logger.warn("Customer not found with ID: {}", id, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    // Finds the customer a phone number belongs to
+    @GET
+    @Path("/phone/{phone}")
+    @Produces("text/plain")
+    public String findCustomerByPhone(@PathParam("phone") String phone) {
+        logger.info("Received request to find customer with phone: {}", phone);
+        try {
+            CustomerView customer = iCustomerBean.findCustomerViewByPhone(phone);
+            logger.info("Customer found: {}", customer);
+            return "Customer found: " + customer.toString();
+        } catch (CustomerNotFoundExceptin e) {
+            logger.warn("Customer not found with phone: {}", phone, e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    // Streams the customers having accounts above a balance as NDJSON, one customer per line
+    @GET
+    @Path("/export/balance")
+    @Produces("application/x-ndjson")
+    public StreamingOutput exportCustomersWithBalance(@QueryParam("min") @DefaultValue("10000") String min) {
+        Money balance;
+        try {
+            balance = Money.parse(min);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Error: " + e.getMessage());
+        }
+        logger.info("Received request to export customers with balance greater than: {}", balance);
+        ObjectWriter writer = new ObjectMapper().writerFor(CustomerBalance.class);
+        // The query runs while the response is written, so rows go to the client as they are read
+        return output -> {
+            try {
+                long count = iCustomerBean.streamCustomersWithBalance(balance, customerBalance -> {
+                    try {
+                        output.write(writer.writeValueAsBytes(customerBalance));
+                        output.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                logger.info("Exported {} customers with balance greater than {}", count, balance);
+            } catch (UncheckedIOException e) {
+                logger.warn("Customer export aborted", e);
+                throw e.getCause();
+            } catch (EJBException e) {
+                // The container wraps the write failure, a runtime exception of the consumer
+                UncheckedIOException writeFailure = findWriteFailure(e);
+                if (writeFailure == null) {
+                    throw e;
+                }
+                logger.warn("Customer export aborted", writeFailure);
+                throw writeFailure.getCause();
+            }
+        };
+    }
+
+    // Returns the failed write to the response among the causes of an exception, or null if there is none.
+    private static UncheckedIOException findWriteFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UncheckedIOException) {
+                return (UncheckedIOException) cause;
+            }
+        }
+        return null;
+    }
+
     @PUT
     @Path("/{id}")
     @Consumes("application/json")
@@ -6,9 +6,15 @@ import jakarta.ejb.EJB;
 import jakarta.jws.WebMethod;
 import jakarta.jws.WebService;
 import Exception.CustomerNotFoundExceptin;
+import Exception.DuplicatePhoneException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * SOAP Web Service for customer operations.
  * Provides methods for creating, finding, updating, and deleting customers.
@@ -53,6 +59,29 @@ public class CustomerSoapService {
         }
     }
 
+    /**
+     * Creates a new customer unless another customer already has the same phone number.
+     *
+     * @param customer The customer to be created.
+     * @return Success or error message.
+     */
+
+    @WebMethod
+    public String createCustomerWithUniquePhone(Customer customer) {
+        logger.info("Received request to create customer with unique phone: {}", customer);
+        try {
+            iCustomerBean.createCustomer(customer, true);
+            logger.info("Customer created successfully: {}", customer);
+            return "Customer created successfully.";
+        } catch (DuplicatePhoneException e) {
+            logger.warn("Phone number already taken for customer with ID: {}", customer.getCustomerId());
+            return "Error: " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("Error while creating customer with ID: {}", customer.getCustomerId(), e);
+            return "Error: " + e.getMessage();
+        }
+    }
+
     /**
      * Finds a customer by ID.
      *
@@ -68,6 +97,48 @@ public class CustomerSoapService {
         return iCustomerBean.findCustomer(id);
     }
 
+    /**
+     * Finds several customers by ID, without their accounts, with one IN-list query instead of one
+     * query per ID.
+     *
+     * @param ids The IDs of the customers to find.
+     * @return The customers found, in the order of the IDs; IDs without a customer are skipped.
+     */
+
+    @WebMethod
+    public List<Customer> findCustomers(List<String> ids) {
+        logger.info("Received request to find {} customers", ids == null ? 0 : ids.size());
+        List<Customer> customers = new ArrayList<>();
+        if (ids == null) {
+            return customers;
+        }
+        Map<String, Customer> found = new HashMap<>();
+        for (Customer customer : iCustomerBean.findCustomers(ids)) {
+            found.put(customer.getCustomerId(), customer);
+        }
+        for (String id : ids) {
+            Customer customer = found.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+
+    /**
+     * Finds the customer a phone number belongs to.
+     *
+     * @param phone The phone number, in any notation.
+     * @return The customer entity if found.
+     * @throws CustomerNotFoundExceptin If no customer has the phone number.
+     */
+
+    @WebMethod
+    public Customer findCustomerByPhone(String phone) throws CustomerNotFoundExceptin {
+        logger.info("Received request to find customer with phone: {}", phone);
+        return iCustomerBean.findCustomerByPhone(phone);
+    }
+
     /**
      * Updates a customer's details.
      *
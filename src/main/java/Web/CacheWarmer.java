@@ -0,0 +1,177 @@
+package Web;
+
+import Business.Concurrent.HeavyHitters;
+import Business.IAccountBean;
+import Business.ICustomerBean;
+import Entity.Customer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * CacheWarmer keeps the hot set of this node across restarts, so a restarted node loads its hot
+ * accounts and customers in a few batched queries instead of letting every first request miss.
+ * <p>
+ * While the node runs, {@link #save()} is called periodically and writes the most read account and
+ * customer ids, as reported by {@link HeavyHitters}, to a local file, one {@code account <id>} or
+ * {@code customer <id>} line each. At startup, {@link #prefill(ExecutorService, long)} reads the
+ * file back and loads the ids in batches, several batches in parallel, through the prefetch methods
+ * of the beans. These fill the in-memory caches of the beans that outlive the prefill, the account
+ * number cache and the customer view cache, and bring the rows and indexes into the database
+ * buffer pool. The file is only a hint: ids that no longer exist are skipped, and a missing or
+ * unreadable file means an empty hot set.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class CacheWarmer {
+    private static final Logger logger = LogManager.getLogger(CacheWarmer.class);
+    // Name of the prefill in Readiness and StartupPhases.
+    public static final String GATE = "cache-prefill";
+
+    private final IAccountBean accountBean;
+    private final ICustomerBean customerBean;
+    private final Path file;
+    // Most ids saved per kind.
+    private final int maxIds;
+    // Ids loaded per query.
+    private final int batchSize;
+
+    /**
+     * Creates a cache warmer.
+     *
+     * @param accountBean  the account bean loading the accounts
+     * @param customerBean the customer bean loading the customers
+     * @param file         the file holding the hot set
+     * @param maxIds       the most account ids, and customer ids, saved
+     * @param batchSize    the number of ids loaded per query
+     */
+    public CacheWarmer(IAccountBean accountBean, ICustomerBean customerBean, Path file, int maxIds, int batchSize) {
+        this.accountBean = accountBean;
+        this.customerBean = customerBean;
+        this.file = file;
+        this.maxIds = maxIds;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Writes the current hot set to the file. The counts are decayed on their own schedule, so the
+     * hot set follows recent traffic. The file is replaced atomically, so a crash never leaves half of it.
+     */
+    public void save() {
+        List<HeavyHitters.HotKey> accounts = HeavyHitters.ACCOUNTS.top(maxIds);
+        List<HeavyHitters.HotKey> customers = HeavyHitters.CUSTOMERS.top(maxIds);
+        if (accounts.isEmpty() && customers.isEmpty()) {
+            // Nothing read since the last save; keep the previous hot set
+            return;
+        }
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (HeavyHitters.HotKey key : accounts) {
+                    writer.write("account " + key.getId());
+                    writer.newLine();
+                }
+                for (HeavyHitters.HotKey key : customers) {
+                    writer.write("customer " + key.getId());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Saved hot set: {} accounts, {} customers", accounts.size(), customers.size());
+        } catch (IOException e) {
+            logger.warn("Could not save the hot set to {}", file, e);
+        }
+    }
+
+    /**
+     * Loads the saved hot set, running the batches on the given executor, and reports the outcome
+     * to {@link Readiness}. Batches still running when the time budget is spent are cancelled.
+     *
+     * @param executor      the executor running the batches
+     * @param timeoutMillis the time budget of the prefill
+     */
+    public void prefill(ExecutorService executor, long timeoutMillis) {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMillis;
+        List<Integer> accounts = new ArrayList<>();
+        List<String> customers = new ArrayList<>();
+        read(accounts, customers);
+
+        List<Future<Integer>> accountBatches = new ArrayList<>();
+        for (int i = 0; i < accounts.size(); i += batchSize) {
+            List<Integer> batch = accounts.subList(i, Math.min(accounts.size(), i + batchSize));
+            accountBatches.add(executor.submit(() -> accountBean.prefetchAccounts(batch)));
+        }
+        List<Future<Integer>> customerBatches = new ArrayList<>();
+        for (int i = 0; i < customers.size(); i += batchSize) {
+            List<String> batch = customers.subList(i, Math.min(customers.size(), i + batchSize));
+            customerBatches.add(executor.submit(() -> customerBean.prefetchCustomers(batch)));
+        }
+        int loadedAccounts = await(accountBatches, deadline);
+        int loadedCustomers = await(customerBatches, deadline);
+
+        long millis = System.currentTimeMillis() - start;
+        String outcome = "loaded " + loadedAccounts + " of " + accounts.size() + " accounts and "
+                + loadedCustomers + " of " + customers.size() + " customers";
+        StartupPhases.INSTANCE.record(GATE, millis);
+        Readiness.INSTANCE.gateFinished(GATE, outcome);
+        logger.info("Cache prefill {} in {} ms.", outcome, millis);
+    }
+
+    // Reads the hot set file; unknown and malformed lines are skipped.
+    private void read(List<Integer> accounts, List<String> customers) {
+        if (!Files.exists(file)) {
+            logger.info("No hot set saved at {}", file);
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] parts = line.trim().split(" ");
+                try {
+                    if (parts.length == 2 && parts[0].equals("account")) {
+                        accounts.add(Integer.parseInt(parts[1]));
+                    } else if (parts.length == 2 && parts[0].equals("customer")) {
+                        customers.add(Customer.formatCustomerId(Long.parseLong(parts[1])));
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Skipping hot set line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read the hot set from {}", file, e);
+        }
+    }
+
+    // Sums the results of the batches that finish before the deadline and cancels the others.
+    private static int await(List<Future<Integer>> batches, long deadline) {
+        int loaded = 0;
+        for (Future<Integer> batch : batches) {
+            try {
+                loaded += batch.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                batch.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.cancel(true);
+            } catch (Exception e) {
+                logger.warn("Cache prefill batch failed.", e);
+            }
+        }
+        return loaded;
+    }
+}
@@ -1,6 +1,7 @@
 package Web.Controller;
 
 
+import Model.Money;
 import jakarta.servlet.*;
 import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
@@ -77,13 +78,13 @@ public class AccountFilter implements Filter {
             Integer.parseInt(accountIdStr);
             // Try parsing accountNumber as an integer
             Integer.parseInt(accountNumberStr);
-            // Try parsing accountBalance as a double
-            Double.parseDouble(accountBalanceStr);
+            // Try parsing accountBalance as an exact amount of money
+            Money.parse(accountBalanceStr);
             // Log that input validation has passed
             logger.info("Input validation passed for accountId={}, accountNumber={}, accountBalance={}, accountType={}", accountIdStr, accountNumberStr, accountBalanceStr, accountType);
 
-        } catch (NumberFormatException e) {
-            // Log an error if the number format is invalid
+        } catch (IllegalArgumentException e) {
+            // Log an error if the number format is invalid (NumberFormatException is an IllegalArgumentException)
             logger.error("Invalid number format in input: accountId={}, accountNumber={}, accountBalance={}",
                     accountIdStr, accountNumberStr, accountBalanceStr, e);
             // Send an error response to the client with a message indicating the number format error
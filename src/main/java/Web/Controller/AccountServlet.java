@@ -3,6 +3,8 @@ package Web.Controller;
 import Business.IAccountBean;
 import Entity.Account;
 import Model.AccountType;
+import Model.AccountView;
+import Model.Money;
 import jakarta.ejb.EJB;
 import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServlet;
@@ -48,15 +50,16 @@ public class AccountServlet extends HttpServlet {
         logger.info("Received POST request to create an account.");
         int accountId = -1;
         int accountNumber = -1;
-        double accountBalance = -1;
+        Money accountBalance = null;
         AccountType accountType = AccountType.valueOf(req.getParameter("accountType"));
         // Attempt to parse account data from the request
         try {
             accountId = Integer.parseInt(req.getParameter("accountId"));
             accountNumber = Integer.parseInt(req.getParameter("accountNumber"));
-            accountBalance = Double.parseDouble(req.getParameter("accountBalance"));
+            accountBalance = Money.parse(req.getParameter("accountBalance"));
             logger.debug("Parsed input data: accountId={}, accountNumber={}, accountBalance={}, accountType={}", accountId, accountNumber, accountBalance, accountType);
-        } catch (NumberFormatException e) {
+        } catch (IllegalArgumentException e) {
+            // Also covers NumberFormatException and amounts finer than a cent
             logger.error("Invalid input data.", e);
         }
         // Prepare HTML response for client
@@ -66,7 +69,7 @@ public class AccountServlet extends HttpServlet {
         out.println("<head><title>Create Account</title></head>");
         out.println("<body bgcolor=\"white\">");
         // Validate if required data is available
-        if (accountId == -1 || accountNumber == -1 || accountBalance == -1 || accountType == null) {
+        if (accountId == -1 || accountNumber == -1 || accountBalance == null || accountType == null) {
             out.println("<h1 style='color: red;'>Invalid input data. Please check the values provided.</h1>");
             logger.warn("Invalid input data received for account creation.");
         } else {
@@ -126,7 +129,7 @@ public class AccountServlet extends HttpServlet {
         } else {
             try {
                 // Fetch account details from business logic
-                Account account = iAccountBean.findAccount(accountId);
+                AccountView account = iAccountBean.findAccountView(accountId);
                 out.println("<h1>Account Details</h1>");
                 out.println("<p>Account Info is: " + account + "</p>");
                 logger.info("Fetched account details successfully: {}", account);
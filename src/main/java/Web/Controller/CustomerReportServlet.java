@@ -2,6 +2,8 @@ package Web.Controller;
 
 import Business.ICustomerBean;
 import Entity.Customer;
+import Model.Money;
+import Web.StartupPhases;
 import jakarta.ejb.EJB;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.annotation.WebServlet;
@@ -21,6 +23,8 @@ import java.util.Map;
 
 /**
  * Servlet to generate and serve a report of customers whose account balance is greater than 10,000.
+ * The report template is compiled on the first request and reused afterwards, so neither the
+ * startup nor later requests pay for the Jasper compiler.
  *
  * @author mahsa
  * @version 1.0
@@ -34,6 +38,10 @@ public class CustomerReportServlet extends HttpServlet {
     private ICustomerBean icustomerBean;
     // Logger for tracking report generation process
     private static final Logger logger = LogManager.getLogger(CustomerReportServlet.class);
+    // Location of the report template in the web application
+    private static final String REPORT_TEMPLATE = "/src/main/webapp/WEB-INF/reports/CustomerReport.jrxml";
+    // Compiled report template, set on first use
+    private volatile JasperReport jasperReport;
 
     /**
      * Handles the GET request to generate and download the customer balance report as a PDF.
@@ -47,7 +55,7 @@ public class CustomerReportServlet extends HttpServlet {
         logger.info("Report generation request received.");
 
         // Fetch the list of customers with an account balance greater than 10,000
-        List<Customer> customers = icustomerBean.findCustomersWithBalance(10000);
+        List<Customer> customers = icustomerBean.findCustomersWithBalance(Money.ofMajor(10000));
         logger.debug("Number of customers retrieved for report: {}", customers.size());
 
         // Set content type to PDF and specify filename in the header
@@ -62,19 +70,10 @@ public class CustomerReportServlet extends HttpServlet {
         parameters.put("ReportTitle", "Customers with Balance Greater than 10000");
 
         try {
-            // Load the JRXML file (report template) from the servlet context
-            logger.info("Loading report template.");
-            InputStream reportStream = getServletContext().getResourceAsStream("/src/main/webapp/WEB-INF/reports/CustomerReport.jrxml");
-            if (reportStream == null) {
-                logger.warn("Report template not found.");
-                throw new IOException("Report template not found: /WEB-INF/reports/CustomerReport.jrxml");
-            }
-            // Compile the Jasper report from the JRXML template
-            logger.info("Compiling Jasper report.");
-            JasperReport jasperReport = JasperCompileManager.compileReport(reportStream);
+            JasperReport report = compiledReport();
             // Fill the report with data and parameters
             logger.info("Filling report with data.");
-            JasperPrint jasperPrint = JasperFillManager.fillReport(jasperReport, parameters, dataSource);
+            JasperPrint jasperPrint = JasperFillManager.fillReport(report, parameters, dataSource);
 
             // Export the report to a PDF and send it to the client
             logger.info("Exporting report to PDF.");
@@ -94,6 +93,39 @@ public class CustomerReportServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Returns the compiled report template, compiling it on the first call.
+     *
+     * @return the compiled report
+     * @throws IOException If the template cannot be found.
+     * @throws JRException If the template cannot be compiled.
+     */
+    private JasperReport compiledReport() throws IOException, JRException {
+        JasperReport report = jasperReport;
+        if (report == null) {
+            synchronized (this) {
+                report = jasperReport;
+                if (report == null) {
+                    // Load the JRXML file (report template) from the servlet context
+                    logger.info("Loading report template.");
+                    long start = System.nanoTime();
+                    try (InputStream reportStream = getServletContext().getResourceAsStream(REPORT_TEMPLATE)) {
+                        if (reportStream == null) {
+                            logger.warn("Report template not found.");
+                            throw new IOException("Report template not found: /WEB-INF/reports/CustomerReport.jrxml");
+                        }
+                        // Compile the Jasper report from the JRXML template
+                        logger.info("Compiling Jasper report.");
+                        report = JasperCompileManager.compileReport(reportStream);
+                    }
+                    StartupPhases.INSTANCE.record("jasper-compile", (System.nanoTime() - start) / 1_000_000);
+                    jasperReport = report;
+                }
+            }
+        }
+        return report;
+    }
+
     /**
      * Displays an error page with the given message in case of an exception during report generation.
      *
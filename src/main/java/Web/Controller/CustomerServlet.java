@@ -122,7 +122,7 @@ public class CustomerServlet extends HttpServlet {
             // Fetching the customer details from the database or business logic
             logger.info("Fetching customer with ID: " + id);
             out.println("<h1>Customer Details</h1>");
-            out.println("<p>The result is: " + iCustomerBean.findCustomer(id).toString() + "</p>");
+            out.println("<p>The result is: " + iCustomerBean.findCustomerView(id).toString() + "</p>");
         } catch (NumberFormatException e) {
             // Handling invalid customer ID format
             logger.error("Invalid customer ID: " + id, e);
@@ -0,0 +1,66 @@
+package Web.Controller;
+
+import Business.Concurrent.HeavyHitters;
+import Entity.Customer;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * HotKeysServlet is the admin view of the heavy hitters: the accounts or customers that dominate
+ * the traffic of this node, hottest first, as plain text. Each line holds the id, its top-K count,
+ * the most that count may be over, and the count-min sketch estimate.
+ * <p>
+ * Parameters: {@code kind} is {@code account} (default) or {@code customer}, {@code limit} the
+ * number of ids (default 20).
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@WebServlet(name = "HotKeysServlet", urlPatterns = "/admin/hotkeys")
+public class HotKeysServlet extends HttpServlet {
+    // Logger for tracking events in the servlet
+    private static final Logger logger = LogManager.getLogger(HotKeysServlet.class);
+
+    /**
+     * Handles GET requests by writing the hot keys of the requested kind.
+     *
+     * @param req  HttpServletRequest from the client.
+     * @param resp HttpServletResponse used to send the hot keys.
+     * @throws IOException If an error occurs during I/O operations.
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String kind = req.getParameter("kind") == null ? "account" : req.getParameter("kind");
+        int limit;
+        try {
+            limit = req.getParameter("limit") == null ? 20 : Integer.parseInt(req.getParameter("limit"));
+        } catch (NumberFormatException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid limit: " + req.getParameter("limit"));
+            return;
+        }
+        boolean customers = kind.equals("customer");
+        if (!customers && !kind.equals("account")) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown kind: " + kind);
+            return;
+        }
+        logger.debug("Received GET request for the hot {} keys.", kind);
+        HeavyHitters hitters = customers ? HeavyHitters.CUSTOMERS : HeavyHitters.ACCOUNTS;
+        resp.setContentType("text/plain");
+        PrintWriter out = resp.getWriter();
+        out.println("# " + kind + " count error estimate");
+        for (HeavyHitters.HotKey key : hitters.top(limit)) {
+            String id = customers ? Customer.formatCustomerId(key.getId()) : Long.toString(key.getId());
+            out.println(id + " " + key.getCount() + " " + key.getError() + " " + hitters.estimate(key.getId()));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Web.Controller;
+
+import Business.Concurrent.SingleFlight;
+import Business.ExistenceFilter;
+import Business.NegativeCache;
+import Web.Readiness;
+import Web.StartupPhases;
+import Web.Telemetry;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * MetricsServlet exposes the web tier telemetry as plain text, one "name value" pair per line.
+ * Reading the metrics only sums striped counters and never blocks request threads.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@WebServlet(name = "MetricsServlet", urlPatterns = "/metrics")
+public class MetricsServlet extends HttpServlet {
+    // Logger for tracking events in the servlet
+    private static final Logger logger = LogManager.getLogger(MetricsServlet.class);
+
+    /**
+     * Handles GET requests by writing the current telemetry values.
+     *
+     * @param req  HttpServletRequest from the client.
+     * @param resp HttpServletResponse used to send the metrics.
+     * @throws IOException If an error occurs during I/O operations.
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        logger.debug("Received GET request for metrics.");
+        Telemetry telemetry = Telemetry.INSTANCE;
+        resp.setContentType("text/plain");
+        PrintWriter out = resp.getWriter();
+        // Session metrics
+        out.println("sessions_live " + telemetry.getLiveSessions());
+        out.println("sessions_peak " + telemetry.getPeakSessions());
+        out.println("sessions_created_total " + telemetry.getSessionsCreated());
+        out.println("sessions_destroyed_total " + telemetry.getSessionsDestroyed());
+        out.println("sessions_churn_per_second " + telemetry.getSessionChurnPerSecond());
+        // Request metrics
+        out.println("requests_in_flight " + telemetry.getInFlightRequests());
+        out.println("requests_in_flight_peak " + telemetry.getPeakInFlightRequests());
+        for (Map.Entry<String, Long> entry : telemetry.getInFlightByServlet().entrySet()) {
+            out.println("requests_in_flight{servlet=\"" + entry.getKey() + "\"} " + entry.getValue());
+        }
+        // Startup metrics
+        StartupPhases startupPhases = StartupPhases.INSTANCE;
+        out.println("startup_millis " + startupPhases.getLastMark());
+        out.println("ready " + (Readiness.INSTANCE.isReady() ? 1 : 0));
+        for (Map.Entry<String, Long> entry : startupPhases.getPhases().entrySet()) {
+            out.println("startup_phase_millis{phase=\"" + entry.getKey() + "\"} " + entry.getValue());
+        }
+        // Lookups of missing ids answered without a query
+        ExistenceFilter accounts = ExistenceFilter.ACCOUNTS;
+        out.println("idfilter_ready " + (accounts.isReady() ? 1 : 0));
+        out.println("idfilter_watermark " + Math.max(0, accounts.getWatermark()));
+        out.println("idfilter_hits_total " + accounts.getFilterHits());
+        out.println("negative_cache_hits_total{kind=\"account\"} " + accounts.getNegativeHits());
+        out.println("negative_cache_hits_total{kind=\"customer\"} " + NegativeCache.CUSTOMERS.getHits());
+        // Concurrent reads served by another caller's query
+        for (SingleFlight<?, ?> loads : SingleFlight.instances()) {
+            String label = "{load=\"" + loads.getName() + "\"} ";
+            out.println("coalescing_loads_total" + label + loads.getLoads());
+            out.println("coalescing_joined_total" + label + loads.getCoalesced());
+            out.println("coalescing_bypassed_total" + label + loads.getBypassed());
+            out.println("coalescing_ratio" + label + loads.getCoalescingRatio());
+        }
+    }
+}
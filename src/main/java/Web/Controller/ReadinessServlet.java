@@ -0,0 +1,38 @@
+package Web.Controller;
+
+import Web.Readiness;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+
+/**
+ * ReadinessServlet tells load balancers whether this node should take traffic: 200 once the
+ * startup tasks (hot set prefill, warm-up) have finished or timed out, 503 before. The body
+ * describes the state of each task in plain text.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@WebServlet(name = "ReadinessServlet", urlPatterns = "/ready")
+public class ReadinessServlet extends HttpServlet {
+
+    /**
+     * Handles GET requests by writing the readiness state.
+     *
+     * @param req  HttpServletRequest from the client.
+     * @param resp HttpServletResponse used to send the state.
+     * @throws IOException If an error occurs during I/O operations.
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        Readiness readiness = Readiness.INSTANCE;
+        resp.setStatus(readiness.isReady() ? HttpServletResponse.SC_OK : HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        resp.setContentType("text/plain");
+        resp.getWriter().println(readiness.describe());
+    }
+}
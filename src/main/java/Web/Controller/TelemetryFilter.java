@@ -0,0 +1,82 @@
+package Web.Controller;
+
+import Web.Telemetry;
+import jakarta.servlet.*;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+
+/**
+ * Filter that records every request in {@link Telemetry}.
+ * It counts the requests that are currently in flight for each servlet, so the metrics endpoint
+ * can report per-servlet and peak concurrency.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+
+@WebFilter(filterName = "TelemetryFilter", urlPatterns = "/*")
+public class TelemetryFilter implements Filter {
+    // Logger to track events related to filtering
+    private static final Logger logger = LogManager.getLogger(TelemetryFilter.class);
+    // Name used when the servlet serving the request cannot be determined
+    private static final String UNKNOWN_SERVLET = "unknown";
+    // Striped counters shared with the listener and the metrics endpoint
+    private final Telemetry telemetry = Telemetry.INSTANCE;
+
+    /**
+     * Initializes the filter.
+     *
+     * @param filterConfig Filter configuration object.
+     */
+    @Override
+    public void init(FilterConfig filterConfig) {
+        logger.info("TelemetryFilter initialized.");
+    }
+
+    /**
+     * Marks the request as in flight for its servlet while the rest of the chain processes it.
+     *
+     * @param request  The request being processed.
+     * @param response The response to be sent.
+     * @param chain    The filter chain for further processing of the request.
+     * @throws IOException      If an I/O error occurs during the filtering process.
+     * @throws ServletException If a servlet error occurs during the filtering process.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        String servletName = servletName(request);
+        telemetry.requestStarted(servletName);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            // Always release the in-flight slot, even if the servlet failed
+            telemetry.requestFinished(servletName);
+        }
+    }
+
+    /**
+     * Destroys the filter.
+     */
+    @Override
+    public void destroy() {
+        logger.info("TelemetryFilter destroyed.");
+    }
+
+    // Resolves the name of the servlet the request is mapped to.
+    private static String servletName(ServletRequest request) {
+        if (request instanceof HttpServletRequest) {
+            HttpServletMapping mapping = ((HttpServletRequest) request).getHttpServletMapping();
+            if (mapping != null && mapping.getServletName() != null) {
+                return mapping.getServletName();
+            }
+        }
+        return UNKNOWN_SERVLET;
+    }
+}
@@ -1,5 +1,13 @@
 package Web;
 
+import Business.Concurrent.HeavyHitters;
+import Business.IAccountBean;
+import Business.ICustomerBean;
+import Business.IJournalBean;
+import jakarta.annotation.Resource;
+import jakarta.ejb.EJB;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
@@ -8,9 +16,19 @@ import jakarta.servlet.http.HttpSessionListener;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Paths;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Project2Listener is a listener for monitoring the lifecycle events of the application context and HTTP sessions.
- * This listener tracks the number of active sessions (online users) and logs relevant events.
+ * Session counts are recorded in {@link Telemetry}, which uses striped counters so that session
+ * creation and destruction never contend on a global lock. At startup it writes the opening
+ * journal entries of accounts that lack one, and meanwhile prefills the hot set saved by the
+ * {@link CacheWarmer} and then runs the {@link WarmUp}, all in the background; the node reports
+ * itself ready through {@link Readiness} once they are done. While the application runs,
+ * the hot set is saved periodically and once more on shutdown, and the filter of existing account
+ * ids is rebuilt periodically, starting right away.
  *
  * @author mahsa
  * @version 1.0
@@ -21,19 +39,129 @@ import org.apache.logging.log4j.Logger;
 public class Project2Listener implements ServletContextListener, HttpSessionListener {
     // Logger to record the lifecycle events and session data
     private static final Logger logger = LogManager.getLogger(Project2Listener.class);
-    // Variable to track the number of online users (active sessions)
-    private static int onlineUsers = 0;
+    // Lock-free counters for live sessions and session churn
+    private final Telemetry telemetry = Telemetry.INSTANCE;
+    // Time spent in each startup phase
+    private final StartupPhases startupPhases = StartupPhases.INSTANCE;
+    // Number of warm-up calls replayed at startup; 0 turns the warm-up off.
+    private static final int WARMUP_CALLS = Integer.getInteger("project2.warmup.calls", 5000);
+    // Longest time, in seconds, the warm-up may keep the node not ready.
+    private static final int WARMUP_TIMEOUT_SECONDS = Integer.getInteger("project2.warmup.timeoutSeconds", 60);
+    // Share of each call replayed by the warm-up; see WarmUp.
+    private static final String WARMUP_MIX = System.getProperty("project2.warmup.mix", WarmUp.DEFAULT_MIX);
+    // File holding the hot set between restarts.
+    private static final String HOTSET_FILE = System.getProperty("project2.hotset.file",
+            Paths.get(System.getProperty("java.io.tmpdir"), "project2-hotset.txt").toString());
+    // Most account ids, and customer ids, kept in the hot set; at most project2.hotkeys.topK are tracked.
+    private static final int HOTSET_SIZE = Integer.getInteger("project2.hotset.size", 1_000);
+    // Ids loaded per prefill query.
+    private static final int HOTSET_BATCH_SIZE = Integer.getInteger("project2.hotset.batchSize", 500);
+    // Seconds between two saves of the hot set.
+    private static final int HOTSET_SAVE_SECONDS = Integer.getInteger("project2.hotset.saveSeconds", 300);
+    // Longest time, in seconds, the prefill may keep the node not ready.
+    private static final int PREFILL_TIMEOUT_SECONDS = Integer.getInteger("project2.hotset.prefillTimeoutSeconds", 30);
+    // Seconds between two decays of the heavy hitters, which also refresh the hot keys pinned in caches.
+    private static final int HOTKEYS_DECAY_SECONDS = Integer.getInteger("project2.hotkeys.decaySeconds", 60);
+    // Name of the opening entries in Readiness and StartupPhases.
+    private static final String BASELINES_GATE = "journal-baselines";
+    // Longest time, in seconds, writing the opening entries may keep the node not ready.
+    private static final int BASELINES_TIMEOUT_SECONDS = Integer.getInteger("project2.journal.baselineTimeoutSeconds", 600);
+    // Seconds between two rebuilds of the existence filter, which bounds how long a deleted id stays
+    // a false positive; 0 turns the filter off.
+    private static final int IDFILTER_REBUILD_SECONDS = Integer.getInteger("project2.idfilter.rebuildSeconds", 60);
+
+    @EJB
+    private IAccountBean iAccountBean;
+    @EJB
+    private ICustomerBean iCustomerBean;
+    @EJB
+    private IJournalBean iJournalBean;
+    // Container-managed threads for the background startup tasks and the prefill batches
+    @Resource
+    private ManagedExecutorService executor;
+    // Container-managed timer for the periodic hot set saves
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+    // Warm-up in progress, if any
+    private WarmUp warmUp;
+    private CacheWarmer cacheWarmer;
+    private ScheduledFuture<?> hotSetSaves;
+    private ScheduledFuture<?> hotKeyDecays;
+    private ScheduledFuture<?> idFilterRebuilds;
 
     /**
      * This method is called when the web application context is initialized.
-     * It is used for any setup or logging required when the application starts.
+     * It is used for any setup or logging required when the application starts, and closes the
+     * boot sequence recorded in {@link StartupPhases}.
      *
      * @param sce The event object containing the ServletContext being initialized.
      */
     @Override
     public void contextInitialized(ServletContextEvent sce) {
+        // Everything since the session factory was built: EJB and web module deployment
+        startupPhases.mark("web-context");
         // Log the application context initialization event
         logger.info("Application context initialized.");
+        startupPhases.mark("listener");
+        logger.info("Startup finished after {} ms, phases in ms: {}", startupPhases.getLastMark(), startupPhases.getPhases());
+        startBackgroundTasks();
+    }
+
+    // Writes the opening entries, and prefills the hot set, then replays the warm-up mix, in the
+    // background; the node is not ready until all finish or time out. The warm-up starts after the
+    // prefill, so its budget adds up.
+    private void startBackgroundTasks() {
+        Readiness.INSTANCE.gateStarted(BASELINES_GATE, BASELINES_TIMEOUT_SECONDS * 1000L);
+        executor.execute(this::recordJournalBaselines);
+        cacheWarmer = new CacheWarmer(iAccountBean, iCustomerBean, Paths.get(HOTSET_FILE), HOTSET_SIZE, HOTSET_BATCH_SIZE);
+        Readiness.INSTANCE.gateStarted(CacheWarmer.GATE, PREFILL_TIMEOUT_SECONDS * 1000L);
+        if (WARMUP_CALLS > 0) {
+            try {
+                warmUp = new WarmUp(iAccountBean, iCustomerBean, WARMUP_MIX, WARMUP_CALLS, WARMUP_TIMEOUT_SECONDS * 1000L);
+                Readiness.INSTANCE.gateStarted(WarmUp.GATE, (PREFILL_TIMEOUT_SECONDS + WARMUP_TIMEOUT_SECONDS) * 1000L);
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid warm-up mix, warm-up skipped: {}", WARMUP_MIX, e);
+            }
+        }
+        WarmUp startupWarmUp = warmUp;
+        executor.execute(() -> {
+            cacheWarmer.prefill(executor, PREFILL_TIMEOUT_SECONDS * 1000L);
+            if (startupWarmUp != null) {
+                startupWarmUp.run();
+            }
+        });
+        hotSetSaves = scheduler.scheduleAtFixedRate(cacheWarmer::save, HOTSET_SAVE_SECONDS, HOTSET_SAVE_SECONDS, TimeUnit.SECONDS);
+        hotKeyDecays = scheduler.scheduleAtFixedRate(() -> {
+            HeavyHitters.ACCOUNTS.decay();
+            HeavyHitters.CUSTOMERS.decay();
+        }, HOTKEYS_DECAY_SECONDS, HOTKEYS_DECAY_SECONDS, TimeUnit.SECONDS);
+        if (IDFILTER_REBUILD_SECONDS > 0) {
+            idFilterRebuilds = scheduler.scheduleAtFixedRate(this::rebuildExistenceFilter, 0, IDFILTER_REBUILD_SECONDS, TimeUnit.SECONDS);
+        }
+        logger.info("Startup tasks started: hot set prefill from {}, warm-up of {} calls.", HOTSET_FILE, warmUp == null ? 0 : WARMUP_CALLS);
+    }
+
+    // Writes the missing opening entries, one transaction per account, before the node takes traffic.
+    private void recordJournalBaselines() {
+        long start = System.currentTimeMillis();
+        String outcome;
+        try {
+            outcome = "wrote " + iJournalBean.recordBaselines() + " opening entries";
+        } catch (RuntimeException e) {
+            logger.error("Could not write the opening entries of the account journal.", e);
+            outcome = "failed: " + e.getMessage();
+        }
+        startupPhases.record(BASELINES_GATE, System.currentTimeMillis() - start);
+        Readiness.INSTANCE.gateFinished(BASELINES_GATE, outcome);
+    }
+
+    // A failed rebuild keeps the previous filter; the next period tries again.
+    private void rebuildExistenceFilter() {
+        try {
+            iAccountBean.rebuildExistenceFilter();
+        } catch (RuntimeException e) {
+            logger.warn("Could not rebuild the existence filter.", e);
+        }
     }
 
     /**
@@ -45,6 +173,21 @@ public class Project2Listener implements ServletContextListener, HttpSessionList
 
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        if (warmUp != null) {
+            warmUp.stop();
+        }
+        if (hotKeyDecays != null) {
+            hotKeyDecays.cancel(false);
+        }
+        if (idFilterRebuilds != null) {
+            // Interrupts the first rebuild while it waits for the id reservations to settle
+            idFilterRebuilds.cancel(true);
+        }
+        if (hotSetSaves != null) {
+            hotSetSaves.cancel(false);
+            // Keep the hot set of this run for the next start
+            cacheWarmer.save();
+        }
         // Log the application context destruction event
         logger.info("Application context destroyed.");
     }
@@ -58,13 +201,10 @@ public class Project2Listener implements ServletContextListener, HttpSessionList
 
     @Override
     public void sessionCreated(HttpSessionEvent se) {
-        // Synchronize the onlineUsers count to ensure thread safety
-        synchronized (Project2Listener.class) {
-            // Increment the online users count
-            onlineUsers++;
-        }
+        // Record the new session in the striped counters
+        telemetry.sessionCreated();
         // Log the creation of a session along with the current number of online users
-        logger.info("Session created. Current online users: {}", onlineUsers);
+        logger.info("Session created. Current online users: {}", telemetry.getLiveSessions());
     }
 
     /**
@@ -76,14 +216,9 @@ public class Project2Listener implements ServletContextListener, HttpSessionList
 
     @Override
     public void sessionDestroyed(HttpSessionEvent se) {
-        // Synchronize the onlineUsers count to ensure thread safety
-        synchronized (Project2Listener.class) {
-            if (onlineUsers > 0) {
-                // Decrement the online users count only if it's greater than 0
-                onlineUsers--;
-            }
-        }
+        // Record the destroyed session in the striped counters
+        telemetry.sessionDestroyed();
         // Log the destruction of a session along with the current number of online users
-        logger.info("Session destroyed. Current online users: {}", onlineUsers);
+        logger.info("Session destroyed. Current online users: {}", telemetry.getLiveSessions());
     }
 }
\ No newline at end of file
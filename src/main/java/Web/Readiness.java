@@ -0,0 +1,80 @@
+package Web;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Readiness tracks whether this node should take traffic. Startup tasks such as the
+ * {@link CacheWarmer} prefill and the {@link WarmUp} are gates: the node is not ready while one of
+ * them runs. Each gate has a time budget and stops blocking readiness when it runs out, so a task
+ * that hangs never keeps the node out of rotation.
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Readiness {
+    // Shared instance used by the listener, the startup tasks and the readiness endpoint.
+    public static final Readiness INSTANCE = new Readiness();
+
+    // Gates still running, with the time (System.currentTimeMillis) at which they stop blocking.
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    // Outcome of the gates that have finished.
+    private final Map<String, String> outcomes = new ConcurrentHashMap<>();
+
+    private Readiness() {
+    }
+
+    /**
+     * Opens a gate: the node is not ready until the gate finishes or its time budget runs out.
+     *
+     * @param gate          the name of the startup task
+     * @param timeoutMillis the longest time the task may keep the node not ready
+     */
+    public void gateStarted(String gate, long timeoutMillis) {
+        outcomes.remove(gate);
+        deadlines.put(gate, System.currentTimeMillis() + timeoutMillis);
+    }
+
+    /**
+     * Closes a gate.
+     *
+     * @param gate    the name of the startup task
+     * @param outcome a short description of what the task did
+     */
+    public void gateFinished(String gate, String outcome) {
+        outcomes.put(gate, outcome);
+        deadlines.remove(gate);
+    }
+
+    /**
+     * Tells whether the node should take traffic.
+     *
+     * @return true once every gate has finished or timed out
+     */
+    public boolean isReady() {
+        long now = System.currentTimeMillis();
+        for (long deadline : deadlines.values()) {
+            if (now < deadline) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Describes the readiness state for the readiness endpoint.
+     *
+     * @return one line for the node, then one line per gate
+     */
+    public String describe() {
+        long now = System.currentTimeMillis();
+        StringBuilder description = new StringBuilder(isReady() ? "ready" : "not ready");
+        Map<String, String> gates = new TreeMap<>(outcomes);
+        deadlines.forEach((gate, deadline) -> gates.put(gate, deadline > now
+                ? "running, " + (deadline - now) + " ms left at most" : "timed out"));
+        gates.forEach((gate, state) -> description.append('\n').append(gate).append(": ").append(state));
+        return description.toString();
+    }
+}
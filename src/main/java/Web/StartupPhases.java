@@ -0,0 +1,72 @@
+package Web;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * StartupPhases records how long each phase of the application startup took, so that the effect
+ * of the fast-boot build and of lazily initialized components can be measured.
+ * <p>
+ * The boot sequence is recorded with {@link #mark(String)}: every mark closes a phase that started
+ * at the previous mark, the first one at JVM start. Components initialized on first use rather
+ * than at startup report their own duration with {@link #record(String, long)}. Phases are only
+ * recorded a handful of times per run, so a plain lock is enough.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class StartupPhases {
+    // Shared instance used by the persistence integrator, the listener and the metrics endpoint.
+    public static final StartupPhases INSTANCE = new StartupPhases();
+
+    // Duration of each phase in milliseconds, in the order they were recorded.
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    // JVM uptime, in milliseconds, at the last mark.
+    private long lastMark;
+
+    private StartupPhases() {
+    }
+
+    /**
+     * Ends a phase of the boot sequence; it lasted since the previous mark.
+     *
+     * @param phase the name of the phase that just ended
+     */
+    public synchronized void mark(String phase) {
+        long now = ManagementFactory.getRuntimeMXBean().getUptime();
+        phases.put(phase, now - lastMark);
+        lastMark = now;
+    }
+
+    /**
+     * Records a phase outside the boot sequence, such as the first use of a lazy component.
+     *
+     * @param phase  the name of the phase
+     * @param millis its duration in milliseconds
+     */
+    public synchronized void record(String phase, long millis) {
+        phases.put(phase, millis);
+    }
+
+    /**
+     * Returns the recorded phases in the order they were recorded.
+     *
+     * @return a snapshot of the phase durations in milliseconds
+     */
+    public synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * Returns the JVM uptime at the last mark, which is the end of the boot sequence once the
+     * application context has been initialized.
+     *
+     * @return the uptime in milliseconds
+     */
+    public synchronized long getLastMark() {
+        return lastMark;
+    }
+}
@@ -0,0 +1,171 @@
+package Web;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Telemetry holds the live counters of the web tier: active sessions, session churn,
+ * in-flight requests per servlet and the peak concurrency observed for both.
+ * <p>
+ * All hot-path counters are striped ({@link LongAdder}), so session and request threads never
+ * contend on a shared lock. Readers such as the metrics endpoint only sum the stripes and
+ * therefore never block the threads that are recording.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public final class Telemetry {
+    // Shared instance used by the listener, the request filter and the metrics endpoint.
+    public static final Telemetry INSTANCE = new Telemetry();
+    // Length of the sliding window, in seconds, used to compute the session churn rate.
+    private static final int CHURN_WINDOW_SECONDS = 60;
+
+    // Number of sessions currently alive.
+    private final LongAdder liveSessions = new LongAdder();
+    // Total number of sessions created and destroyed since startup.
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder sessionsDestroyed = new LongAdder();
+    // Highest number of live sessions observed.
+    private final AtomicLong peakSessions = new AtomicLong();
+    // Number of requests currently being processed, overall and per servlet.
+    private final LongAdder inFlightRequests = new LongAdder();
+    private final ConcurrentHashMap<String, LongAdder> inFlightByServlet = new ConcurrentHashMap<>();
+    // Highest number of concurrent requests observed.
+    private final AtomicLong peakInFlightRequests = new AtomicLong();
+    // Ring of per-second churn buckets. Each bucket packs the epoch second it belongs to (high 32
+    // bits) with its count (low 32 bits), so recycling a bucket and counting in it is one atomic update.
+    private final AtomicLongArray churnBuckets = new AtomicLongArray(CHURN_WINDOW_SECONDS);
+
+    private Telemetry() {
+    }
+
+    /**
+     * Records the creation of an HTTP session.
+     */
+    public void sessionCreated() {
+        liveSessions.increment();
+        sessionsCreated.increment();
+        recordChurn();
+        updatePeak(peakSessions, liveSessions.sum());
+    }
+
+    /**
+     * Records the destruction of an HTTP session.
+     */
+    public void sessionDestroyed() {
+        liveSessions.decrement();
+        sessionsDestroyed.increment();
+        recordChurn();
+    }
+
+    /**
+     * Records the start of a request handled by the given servlet.
+     *
+     * @param servletName the name of the servlet serving the request
+     */
+    public void requestStarted(String servletName) {
+        inFlightRequests.increment();
+        inFlightByServlet.computeIfAbsent(servletName, name -> new LongAdder()).increment();
+        updatePeak(peakInFlightRequests, inFlightRequests.sum());
+    }
+
+    /**
+     * Records the end of a request handled by the given servlet.
+     *
+     * @param servletName the name of the servlet that served the request
+     */
+    public void requestFinished(String servletName) {
+        inFlightRequests.decrement();
+        LongAdder counter = inFlightByServlet.get(servletName);
+        if (counter != null) {
+            counter.decrement();
+        }
+    }
+
+    // Getters used by the metrics endpoint; none of them block recording threads.
+    public long getLiveSessions() {
+        // Sessions restored by the container before this listener was registered may drive the sum below zero.
+        return Math.max(0, liveSessions.sum());
+    }
+
+    public long getSessionsCreated() {
+        return sessionsCreated.sum();
+    }
+
+    public long getSessionsDestroyed() {
+        return sessionsDestroyed.sum();
+    }
+
+    public long getPeakSessions() {
+        return peakSessions.get();
+    }
+
+    public long getInFlightRequests() {
+        return Math.max(0, inFlightRequests.sum());
+    }
+
+    public long getPeakInFlightRequests() {
+        return peakInFlightRequests.get();
+    }
+
+    /**
+     * Returns the number of in-flight requests per servlet, sorted by servlet name.
+     *
+     * @return a snapshot of the per-servlet in-flight counters
+     */
+    public Map<String, Long> getInFlightByServlet() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        inFlightByServlet.forEach((name, counter) -> snapshot.put(name, Math.max(0, counter.sum())));
+        return snapshot;
+    }
+
+    /**
+     * Returns the session churn rate (creations plus destructions per second) over the last minute.
+     *
+     * @return the average number of session events per second in the sliding window
+     */
+    public double getSessionChurnPerSecond() {
+        long now = currentSecond();
+        long events = 0;
+        for (int i = 0; i < CHURN_WINDOW_SECONDS; i++) {
+            // Only count buckets that belong to the current window.
+            long bucket = churnBuckets.get(i);
+            if (now - (bucket >>> 32) < CHURN_WINDOW_SECONDS) {
+                events += bucket & 0xFFFFFFFFL;
+            }
+        }
+        return (double) events / CHURN_WINDOW_SECONDS;
+    }
+
+    // Adds one session event to the bucket of the current second, recycling the bucket if it is stale.
+    // A stale bucket is replaced by a count of one in the same compare-and-set that checks its second,
+    // so an event counted by another thread for the new second is never reset.
+    private void recordChurn() {
+        long second = currentSecond();
+        int index = (int) (second % CHURN_WINDOW_SECONDS);
+        long bucket;
+        long next;
+        do {
+            bucket = churnBuckets.get(index);
+            next = (bucket >>> 32) == second ? bucket + 1 : (second << 32) | 1;
+        } while (!churnBuckets.compareAndSet(index, bucket, next));
+    }
+
+    // Raises the peak to the given value without locking; losing a race only means another thread stored a higher value.
+    private static void updatePeak(AtomicLong peak, long value) {
+        long current = peak.get();
+        while (value > current && !peak.compareAndSet(current, value)) {
+            current = peak.get();
+        }
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
@@ -0,0 +1,198 @@
+package Web;
+
+import Business.Concurrent.HeavyHitters;
+import Business.IAccountBean;
+import Business.ICustomerBean;
+import Entity.Account;
+import Model.AccountSearch;
+import Model.AccountView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * WarmUp replays a synthetic mix of read calls through the session beans right after deployment,
+ * so that the JIT has compiled the bean, Hibernate and Jackson paths before real traffic arrives.
+ * <p>
+ * It samples existing accounts and customers with the account search, then calls the finders on
+ * random samples and renders the results the way the REST services and servlets do. Only finders
+ * are called, so the warm-up never changes data. The share of each call comes from
+ * {@code -Dproject2.warmup.mix}, a list of {@code name=weight} pairs over the names of
+ * {@link Call}. It stops after {@code project2.warmup.calls} calls, when its time budget is spent or
+ * when {@link #stop()} is called, and reports the outcome to {@link Readiness}. Its calls are not
+ * counted by {@link HeavyHitters}.
+ * </p>
+ *
+ * @author mahsa
+ * @version 1.0
+ * @since 1.0
+ */
+public class WarmUp implements Runnable {
+    private static final Logger logger = LogManager.getLogger(WarmUp.class);
+    // Name of the warm-up in Readiness and StartupPhases.
+    public static final String GATE = "warm-up";
+    // Default share of each call, close to the read traffic of the REST services.
+    public static final String DEFAULT_MIX = "accountView=4,account=2,balance=2,customerView=2,customer=1,search=1";
+    // Number of accounts sampled, and of those the number whose customer is looked up.
+    private static final int ACCOUNT_SAMPLE = 200;
+    private static final int CUSTOMER_SAMPLE = 50;
+
+    /**
+     * The calls the warm-up can replay, with their names in the mix.
+     */
+    public enum Call {
+        ACCOUNT("account"), ACCOUNT_VIEW("accountView"), BALANCE("balance"),
+        CUSTOMER("customer"), CUSTOMER_VIEW("customerView"), SEARCH("search");
+
+        private final String key;
+
+        Call(String key) {
+            this.key = key;
+        }
+
+        static Call of(String key) {
+            for (Call call : values()) {
+                if (call.key.equals(key)) {
+                    return call;
+                }
+            }
+            throw new IllegalArgumentException("Unknown warm-up call: " + key);
+        }
+    }
+
+    private final IAccountBean accountBean;
+    private final ICustomerBean customerBean;
+    // Calls to replay, each repeated by its weight; a random element is picked for every call.
+    private final Call[] mix;
+    private final int calls;
+    private final long timeoutMillis;
+    // Renders the views the way the REST services do.
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile boolean stopped;
+
+    /**
+     * Creates a warm-up.
+     *
+     * @param accountBean   the account bean to call
+     * @param customerBean  the customer bean to call
+     * @param mix           the share of each call, as {@code name=weight} pairs separated by commas
+     * @param calls         the number of calls to replay
+     * @param timeoutMillis the time budget of the warm-up
+     * @throws IllegalArgumentException if the mix names an unknown call or has no positive weight
+     */
+    public WarmUp(IAccountBean accountBean, ICustomerBean customerBean, String mix, int calls, long timeoutMillis) {
+        this.accountBean = accountBean;
+        this.customerBean = customerBean;
+        this.mix = parseMix(mix);
+        this.calls = calls;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Stops the warm-up after the current call.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void run() {
+        // The synthetic calls must not make their sample look hot
+        HeavyHitters.untracked(this::replay);
+    }
+
+    // Replays the calls and reports the outcome.
+    private void replay() {
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMillis;
+        long done = 0;
+        long failures = 0;
+        try {
+            List<Integer> accountIds = new ArrayList<>();
+            for (AccountView view : accountBean.searchAccounts(new AccountSearch(), null, ACCOUNT_SAMPLE).getAccounts()) {
+                accountIds.add(view.getAccountId());
+            }
+            Set<String> customerIds = new LinkedHashSet<>();
+            for (int i = 0; i < Math.min(CUSTOMER_SAMPLE, accountIds.size()); i++) {
+                Account account = accountBean.findAccountWithCustomer(accountIds.get(i));
+                if (account.getCustomer() != null) {
+                    customerIds.add(account.getCustomer().getCustomerId());
+                }
+            }
+            if (accountIds.isEmpty() || customerIds.isEmpty()) {
+                logger.info("Warm-up skipped: no accounts or customers to read.");
+                return;
+            }
+            List<String> customers = new ArrayList<>(customerIds);
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (done < calls && !stopped && System.currentTimeMillis() < deadline) {
+                int accountId = accountIds.get(random.nextInt(accountIds.size()));
+                String customerId = customers.get(random.nextInt(customers.size()));
+                try {
+                    call(mix[random.nextInt(mix.length)], accountId, customerId);
+                } catch (Exception e) {
+                    // Data may change under the warm-up; a failed call still exercised its path
+                    failures++;
+                }
+                done++;
+            }
+        } catch (Exception e) {
+            logger.warn("Warm-up aborted.", e);
+        } finally {
+            long millis = System.currentTimeMillis() - start;
+            StartupPhases.INSTANCE.record(GATE, millis);
+            Readiness.INSTANCE.gateFinished(GATE, "replayed " + done + " calls, " + failures + " failed");
+            logger.info("Warm-up replayed {} calls ({} failed) in {} ms.", done, failures, millis);
+        }
+    }
+
+    // Runs one call and renders its result.
+    private void call(Call call, int accountId, String customerId) throws Exception {
+        switch (call) {
+            case ACCOUNT:
+                accountBean.findAccount(accountId).toString();
+                break;
+            case ACCOUNT_VIEW:
+                objectMapper.writeValueAsString(accountBean.findAccountView(accountId));
+                break;
+            case BALANCE:
+                accountBean.getAccountBalance(accountId).toString();
+                break;
+            case CUSTOMER:
+                customerBean.findCustomer(customerId).toString();
+                break;
+            case CUSTOMER_VIEW:
+                objectMapper.writeValueAsString(customerBean.findCustomerView(customerId));
+                break;
+            case SEARCH:
+                objectMapper.writeValueAsString(accountBean.searchAccounts(new AccountSearch(), null, 20).getAccounts());
+                break;
+        }
+    }
+
+    // Expands "name=weight,..." into an array holding each call weight times.
+    private static Call[] parseMix(String mix) {
+        List<Call> expanded = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid warm-up mix entry: " + entry);
+            }
+            Call call = Call.of(parts[0].trim());
+            int weight = Integer.parseInt(parts[1].trim());
+            for (int i = 0; i < weight; i++) {
+                expanded.add(call);
+            }
+        }
+        if (expanded.isEmpty()) {
+            throw new IllegalArgumentException("Warm-up mix has no positive weight: " + mix);
+        }
+        return expanded.toArray(new Call[0]);
+    }
+}
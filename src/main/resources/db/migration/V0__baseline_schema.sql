@@ -0,0 +1,86 @@
+-- Creates the schema as the entities map it, for databases that are managed by the migrations
+-- instead of hibernate.hbm2ddl.auto=update (the fast-boot build). The later scripts only convert
+-- columns of databases created by older versions and leave these tables unchanged.
+-- Databases created by hbm2ddl already have these tables; record them as migrated with
+--   java -Dproject2.migrate.baseline=3 ... Migrate src/main/resources/db/migration
+-- after applying V1 to V3 by hand where they were still missing.
+
+CREATE TABLE IF NOT EXISTS customer (
+    customerId       BIGINT       NOT NULL,
+    customerName     VARCHAR(255),
+    customerFamily   VARCHAR(255),
+    customerAddress  VARCHAR(255),
+    customerPhone    VARCHAR(255),
+    customerPhoneKey VARCHAR(16),
+    customerBirthday DATE,
+    version          BIGINT       NOT NULL,
+    PRIMARY KEY (customerId),
+    INDEX idx_customer_phone_key (customerPhoneKey)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS account (
+    accountId      INT     NOT NULL,
+    accountNumber  INT     NOT NULL,
+    accountBalance BIGINT,
+    accountType    TINYINT,
+    customerId     BIGINT,
+    version        BIGINT  NOT NULL,
+    balanceSlots   INT     NOT NULL,
+    PRIMARY KEY (accountId),
+    UNIQUE KEY uk_account_number (accountNumber),
+    INDEX idx_account_customer_number (customerId, accountNumber),
+    INDEX idx_account_type_number (accountType, accountNumber),
+    CONSTRAINT fk_account_customer FOREIGN KEY (customerId) REFERENCES customer (customerId)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS account_balance_slot (
+    accountId INT    NOT NULL,
+    slot      INT    NOT NULL,
+    balance   BIGINT NOT NULL,
+    PRIMARY KEY (accountId, slot)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS account_journal (
+    id             BIGINT      NOT NULL,
+    accountId      INT         NOT NULL,
+    amount         BIGINT      NOT NULL,
+    entryType      VARCHAR(16) NOT NULL,
+    counterpartyId INT,
+    occurredAt     DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_journal_account_time (accountId, occurredAt)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS account_balance_snapshot (
+    id        BIGINT      NOT NULL,
+    accountId INT         NOT NULL,
+    takenAt   DATETIME(6) NOT NULL,
+    balance   BIGINT      NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_snapshot_account_time (accountId, takenAt)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS balance_history_block (
+    accountId   INT         NOT NULL,
+    bucketStart BIGINT      NOT NULL,
+    part        INT         NOT NULL,
+    pointCount  INT         NOT NULL,
+    lastTime    BIGINT      NOT NULL,
+    lastValue   BIGINT      NOT NULL,
+    lastEntryAt DATETIME(6) NOT NULL,
+    data        MEDIUMBLOB  NOT NULL,
+    PRIMARY KEY (accountId, bucketStart, part)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS id_block (
+    name      VARCHAR(32) NOT NULL,
+    nextValue BIGINT      NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+-- Table generator of the journal and snapshot IDs
+CREATE TABLE IF NOT EXISTS id_generator (
+    name      VARCHAR(255) NOT NULL,
+    nextValue BIGINT,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
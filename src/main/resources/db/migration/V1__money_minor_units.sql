@@ -0,0 +1,13 @@
+-- Converts the account balance from DOUBLE major units to BIGINT minor units (cents).
+-- hibernate.hbm2ddl.auto=update does not change the type of existing columns, so this script has
+-- to be run once on databases created before money was stored as Entity.MoneyConverter expects.
+-- Run it BEFORE deploying the version that reads minor units, while the application is stopped:
+-- the old version would write major units into the converted column, and the new one would read
+-- the unconverted major units as cents.
+-- Only account.accountBalance predates the conversion; the slot, journal and snapshot tables ship
+-- in the same release, are created with minor units and must not be scaled again. The update only runs while the column
+-- is still DOUBLE, so databases created by V0 are left unchanged.
+-- Each value is rounded to the nearest cent before the column type changes.
+
+UPDATE account SET accountBalance = ROUND(accountBalance * 100) WHERE (SELECT DATA_TYPE FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'account' AND COLUMN_NAME = 'accountBalance') = 'double';
+ALTER TABLE account MODIFY accountBalance BIGINT;
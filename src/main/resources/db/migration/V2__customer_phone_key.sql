@@ -0,0 +1,9 @@
+-- Fills the normalized phone column used by idx_customer_phone_key for customers created before it
+-- existed; new and updated customers get it from Customer.updatePhoneKey. Mirrors
+-- Model.CustomerValidation.normalizePhone: keep the digits, then map +98/0098 and a missing leading
+-- zero to the national form.
+
+UPDATE customer SET customerPhoneKey = NULLIF(REGEXP_REPLACE(customerPhone, '[^0-9]', ''), '');
+UPDATE customer SET customerPhoneKey = CONCAT('0', SUBSTRING(customerPhoneKey, 5)) WHERE customerPhoneKey LIKE '0098%';
+UPDATE customer SET customerPhoneKey = CONCAT('0', SUBSTRING(customerPhoneKey, 3)) WHERE customerPhoneKey LIKE '98%' AND CHAR_LENGTH(customerPhoneKey) = 12;
+UPDATE customer SET customerPhoneKey = CONCAT('0', customerPhoneKey) WHERE customerPhoneKey LIKE '9%' AND CHAR_LENGTH(customerPhoneKey) = 10;
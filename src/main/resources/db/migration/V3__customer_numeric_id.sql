@@ -0,0 +1,13 @@
+-- Stores customer IDs as fixed-width BIGINT instead of 10-character strings, in the customer
+-- primary key and in the account foreign key. The 10-digit form with leading zeros is rebuilt by
+-- Entity.Customer.getCustomerId, so "0440888451" becomes 440888451 here and reads back unchanged.
+-- Run after checking that every existing ID is made of digits only:
+--   SELECT customerId FROM customer WHERE customerId NOT REGEXP '^[0-9]{1,10}$';
+
+SET FOREIGN_KEY_CHECKS = 0;
+ALTER TABLE account MODIFY customerId BIGINT NULL;
+ALTER TABLE customer MODIFY customerId BIGINT NOT NULL;
+SET FOREIGN_KEY_CHECKS = 1;
+
+-- Rebuild the tables so the primary key and the secondary indexes are written with the new key size
+OPTIMIZE TABLE customer, account;
@@ -0,0 +1,11 @@
+-- Lock rows that serialize the creates rejecting a duplicate phone number, see
+-- Entity.CustomerPhoneLock. The phone index is not unique, because createCustomer may still accept
+-- a number another customer has, so the check cannot rely on it. Rows for the numbers already in
+-- use are added here; rows for new numbers are added by the first create that locks them.
+CREATE TABLE IF NOT EXISTS customer_phone_lock (
+    phoneKey VARCHAR(16) NOT NULL,
+    PRIMARY KEY (phoneKey)
+) ENGINE = InnoDB;
+
+INSERT IGNORE INTO customer_phone_lock (phoneKey)
+SELECT DISTINCT customerPhoneKey FROM customer WHERE customerPhoneKey IS NOT NULL;
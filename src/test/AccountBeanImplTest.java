@@ -1,15 +1,36 @@
 import Business.AccountBeanImpl;
+import Business.IIdBlockBean;
 import Entity.Account;
+import Entity.AccountBalanceSlot;
+import Entity.AccountJournalEntry;
+import Entity.IdBlock;
 import Exception.AccountNotFoundException;
+import Exception.InsufficientFundsException;
+import Model.AccountPage;
+import Model.AccountSearch;
+import Model.AccountType;
+import Model.AccountView;
+import Model.IdSequence;
+import Model.Money;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +45,14 @@ public class AccountBeanImplTest {
     @Mock
     private EntityManager entityManager;
 
+    // Mocked reservation of id blocks for server-allocated ids
+    @Mock
+    private IIdBlockBean idBlockBean;
+
+    // Mocked transaction registry; reports no transaction unless a test stubs one
+    @Mock
+    private TransactionSynchronizationRegistry transactionRegistry;
+
     // The class under test, which will have its methods tested
     @InjectMocks
     private AccountBeanImpl accountBeanImpl;
@@ -44,22 +73,68 @@ public class AccountBeanImplTest {
         account = new Account();
         account.setAccountId(1);
         account.setAccountNumber(12345);
+
+        // No account is in hot mode, so there are no balance slots to credit, fold or sum
+        Query noSlotsQuery = mock(Query.class);
+        when(noSlotsQuery.setParameter(anyString(), any())).thenReturn(noSlotsQuery);
+        when(noSlotsQuery.setLockMode(any(LockModeType.class))).thenReturn(noSlotsQuery);
+        when(noSlotsQuery.getResultList()).thenReturn(Collections.emptyList());
+        when(noSlotsQuery.getSingleResult()).thenReturn(null);
+        when(entityManager.createNamedQuery("selectHotAccountsQuery")).thenReturn(noSlotsQuery);
+        when(entityManager.createNamedQuery("selectAccountSlotsQuery")).thenReturn(noSlotsQuery);
+        when(entityManager.createNamedQuery("sumAccountSlotsQuery")).thenReturn(noSlotsQuery);
+
+        // Account numbers below 9000000 have been reserved, so an account may be given any of them
+        when(entityManager.find(IdBlock.class, IdSequence.ACCOUNT_NUMBER.name()))
+                .thenReturn(new IdBlock(IdSequence.ACCOUNT_NUMBER.name(), 9_000_000));
     }
 
     /**
-     * Tests the creation of a new account.
-     * Mocks the behavior of the EntityManager and verifies that the account is persisted.
+     * Tests the creation of a new account whose id and number were set by the caller.
+     * Mocks the behavior of the EntityManager and verifies that the account is persisted with
+     * values allocated by the server instead.
      */
     @Test
     public void testCreateAccount() {
-        // Given: Mocking the persist method of the EntityManager
+        // Given: Mocking the persist method of the EntityManager, and id blocks starting at 5000 and 700000
         doNothing().when(entityManager).persist(account);
+        when(idBlockBean.reserveBlock(eq(IdSequence.ACCOUNT_ID), anyInt())).thenReturn(5000L);
+        when(idBlockBean.reserveBlock(eq(IdSequence.ACCOUNT_NUMBER), anyInt())).thenReturn(700_000L);
 
         // When: Calling the createAccount method
         accountBeanImpl.createAccount(account);
 
-        // Then: Verify that the persist method is called once
+        // Then: Verify that the persist method is called once, with the ids of the caller replaced
         verify(entityManager, times(1)).persist(account);
+        assertNotEquals(1, account.getAccountId());
+        assertNotEquals(12345, account.getAccountNumber());
+    }
+
+    /**
+     * Tests the creation of an account without id and account number.
+     * Both are taken from blocks reserved through the id block bean.
+     *
+     * @throws Exception if the account type is invalid (not expected in this test).
+     */
+    @Test
+    public void testCreateAccount_AllocatesIds() throws Exception {
+        // Given: Id blocks starting at 5000 and account number blocks starting at 700000
+        when(idBlockBean.reserveBlock(eq(IdSequence.ACCOUNT_ID), anyInt())).thenReturn(5000L);
+        when(idBlockBean.reserveBlock(eq(IdSequence.ACCOUNT_NUMBER), anyInt())).thenReturn(700_000L);
+        Account first = new Account(Money.ofMajor(10), AccountType.SAVING);
+        Account second = new Account(Money.ofMajor(20), AccountType.SAVING);
+
+        // When: Creating both accounts
+        accountBeanImpl.createAccount(first);
+        accountBeanImpl.createAccount(second);
+
+        // Then: They get distinct values from the reserved blocks, with at most one reservation per sequence
+        assertTrue(first.getAccountId() >= 5000 && first.getAccountId() < 5100);
+        assertEquals(first.getAccountId() + 1, second.getAccountId());
+        assertTrue(first.getAccountNumber() >= 700_000 && first.getAccountNumber() < 700_100);
+        assertEquals(first.getAccountNumber() + 1, second.getAccountNumber());
+        verify(idBlockBean, atMost(1)).reserveBlock(eq(IdSequence.ACCOUNT_ID), anyInt());
+        verify(idBlockBean, atMost(1)).reserveBlock(eq(IdSequence.ACCOUNT_NUMBER), anyInt());
     }
 
     /**
@@ -87,6 +162,28 @@ public class AccountBeanImplTest {
         verify(mockQuery, times(1)).getSingleResult();  // Verify that getSingleResult is called once
     }
 
+    /**
+     * Tests that findAccount runs its query in read-only mode.
+     * The entity is loaded read-only and the persistence context is not flushed before the query.
+     *
+     * @throws AccountNotFoundException if the account is not found (not expected in this test).
+     */
+    @Test
+    public void testFindAccount_ReadOnly() throws AccountNotFoundException {
+        // Given: The account query returns the test account
+        Query mockQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectAccountQuery")).thenReturn(mockQuery);
+        when(mockQuery.setParameter("id", 1)).thenReturn(mockQuery);
+        when(mockQuery.getSingleResult()).thenReturn(account);
+
+        // When: Calling the findAccount method
+        accountBeanImpl.findAccount(1);
+
+        // Then: The read-only hint and the commit flush mode are set
+        verify(mockQuery).setHint("org.hibernate.readOnly", true);
+        verify(mockQuery).setFlushMode(FlushModeType.COMMIT);
+    }
+
     /**
      * Tests the scenario where an account is not found in the database.
      * Mocks the behavior of the EntityManager to simulate a NoResultException being thrown.
@@ -95,11 +192,177 @@ public class AccountBeanImplTest {
     public void testFindAccount_ThrowsException() {
         // Given: Simulating the case where the account is not found
         when(entityManager.createNamedQuery("selectAccountQuery")).thenReturn(mock(Query.class));
-        when(entityManager.createNamedQuery("selectAccountQuery").setParameter("id", 1)).thenReturn(mock(Query.class));
-        when(entityManager.createNamedQuery("selectAccountQuery").setParameter("id", 1).getSingleResult()).thenThrow(new NoResultException());
+        when(entityManager.createNamedQuery("selectAccountQuery").setParameter("id", 404)).thenReturn(mock(Query.class));
+        when(entityManager.createNamedQuery("selectAccountQuery").setParameter("id", 404).getSingleResult()).thenThrow(new NoResultException());
 
         // When & Then: Verifying that an AccountNotFoundException is thrown when the account is not found
-        assertThrows(AccountNotFoundException.class, () -> accountBeanImpl.findAccount(1));
+        assertThrows(AccountNotFoundException.class, () -> accountBeanImpl.findAccount(404));
+    }
+
+    /**
+     * Tests a filtered account search that continues from a cursor.
+     * The filters and the cursor become predicates of one query, and a full page yields the next cursor.
+     */
+    @Test
+    public void testSearchAccounts_SeeksAfterCursor() {
+        // Given: Three matching accounts after the cursor, for a page size of two
+        Query searchQuery = mock(Query.class);
+        when(entityManager.createQuery(anyString())).thenReturn(searchQuery);
+        when(searchQuery.setParameter(anyString(), any())).thenReturn(searchQuery);
+        when(searchQuery.setMaxResults(3)).thenReturn(searchQuery);
+        AccountView first = new AccountView(1, 1234, Money.ofMajor(1000), AccountType.SAVING);
+        AccountView second = new AccountView(2, 1250, Money.ofMajor(1000), AccountType.SAVING);
+        AccountView third = new AccountView(3, 1299, Money.ofMajor(1000), AccountType.SAVING);
+        when(searchQuery.getResultList()).thenReturn(Arrays.asList(first, second, third));
+        AccountSearch search = new AccountSearch();
+        search.setAccountType(AccountType.SAVING);
+        search.setNumberPrefix("12");
+
+        // When: Fetching the page after account number 1200
+        AccountPage page = accountBeanImpl.searchAccounts(search, AccountPage.encodeCursor(1200), 2);
+
+        // Then: The query filters on type, prefix ranges and cursor, in account number order
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpql.capture());
+        assertTrue(jpql.getValue().contains("a.accountType = :accountType"));
+        assertTrue(jpql.getValue().contains("a.accountNumber >= :prefixLow2 AND a.accountNumber < :prefixHigh2"));
+        assertTrue(jpql.getValue().contains("a.accountNumber > :after"));
+        assertTrue(jpql.getValue().endsWith("ORDER BY a.accountNumber"));
+        verify(searchQuery).setParameter("after", 1200);
+        verify(searchQuery).setParameter("prefixLow2", 1200);
+        verify(searchQuery).setParameter("prefixHigh2", 1300);
+        // And: The page holds two accounts and the cursor points after the second one
+        assertEquals(2, page.getAccounts().size());
+        assertEquals(1250, AccountPage.decodeCursor(page.getNextCursor()));
+    }
+
+    /**
+     * Tests repeated lookups of an account by account number.
+     * Only the first lookup queries by number; the next one reads the cached account id by primary key.
+     *
+     * @throws AccountNotFoundException if the account is not found (not expected in this test).
+     */
+    @Test
+    public void testFindAccountByNumber_CachesAccountId() throws AccountNotFoundException {
+        // Given: An account with a number no other test uses
+        account.setAccountNumber(5550001);
+        Query byNumberQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectAccountByNumberQuery")).thenReturn(byNumberQuery);
+        when(byNumberQuery.setParameter("accountNumber", 5550001)).thenReturn(byNumberQuery);
+        when(byNumberQuery.getSingleResult()).thenReturn(account);
+        when(entityManager.find(eq(Account.class), eq(1), anyMap())).thenReturn(account);
+
+        // When: Looking the account up twice
+        Account first = accountBeanImpl.findAccountByNumber(5550001);
+        Account second = accountBeanImpl.findAccountByNumber(5550001);
+
+        // Then: The number is queried once and the second lookup is a primary key read
+        assertSame(account, first);
+        assertSame(account, second);
+        verify(byNumberQuery, times(1)).getSingleResult();
+        verify(entityManager, times(1)).find(eq(Account.class), eq(1), anyMap());
+    }
+
+    /**
+     * Tests that reading a view by number queries the number once, then reads the cached account
+     * id by primary key, and that updating the account evicts the id of its old number.
+     *
+     * @throws AccountNotFoundException if the account is not found (not expected in this test).
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindAccountViewByNumber_CachesAccountId() throws AccountNotFoundException {
+        // Given: The projection queries return a view for a number no other test uses
+        AccountView view = new AccountView(1, 5550004, Money.ofMajor(1000), AccountType.SAVING);
+        TypedQuery<AccountView> byNumberQuery = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery("selectAccountViewByNumberQuery", AccountView.class)).thenReturn(byNumberQuery);
+        when(byNumberQuery.setParameter("accountNumber", 5550004)).thenReturn(byNumberQuery);
+        when(byNumberQuery.getSingleResult()).thenReturn(view);
+        TypedQuery<AccountView> byIdQuery = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery("selectAccountViewQuery", AccountView.class)).thenReturn(byIdQuery);
+        when(byIdQuery.setParameter("id", 1)).thenReturn(byIdQuery);
+        when(byIdQuery.getSingleResult()).thenReturn(view);
+
+        // When: Reading the view twice
+        assertSame(view, accountBeanImpl.findAccountViewByNumber(5550004));
+        assertSame(view, accountBeanImpl.findAccountViewByNumber(5550004));
+
+        // Then: The number is queried once and the second read is by primary key
+        verify(byNumberQuery, times(1)).getSingleResult();
+        verify(byIdQuery, times(1)).getSingleResult();
+
+        // When: The account gets another number, then the old number is read again
+        account.setAccountNumber(5550004);
+        Query accountQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectAccountQuery")).thenReturn(accountQuery);
+        when(accountQuery.setParameter("id", 1)).thenReturn(accountQuery);
+        when(accountQuery.getSingleResult()).thenReturn(account);
+        accountBeanImpl.updateAccount(1, 5550005);
+        accountBeanImpl.findAccountViewByNumber(5550004);
+
+        // Then: The old number is queried again
+        verify(byNumberQuery, times(2)).getSingleResult();
+    }
+
+    /**
+     * Tests the lookup of an account number that no account has.
+     */
+    @Test
+    public void testFindAccountByNumber_NotFound() {
+        // Given: No account with the number
+        Query byNumberQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectAccountByNumberQuery")).thenReturn(byNumberQuery);
+        when(byNumberQuery.setParameter("accountNumber", 5550002)).thenReturn(byNumberQuery);
+        when(byNumberQuery.getSingleResult()).thenThrow(new NoResultException());
+
+        // When & Then: The lookup fails with AccountNotFoundException
+        assertThrows(AccountNotFoundException.class, () -> accountBeanImpl.findAccountByNumber(5550002));
+    }
+
+    /**
+     * Tests reading an account as a view.
+     * The projection query is used and no entity is loaded.
+     *
+     * @throws AccountNotFoundException if the account is not found (not expected in this test).
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindAccountView() throws AccountNotFoundException {
+        // Given: The projection query returns a view of the account
+        TypedQuery<AccountView> viewQuery = mock(TypedQuery.class);
+        AccountView view = new AccountView(1, 12345, Money.ofMajor(1000), AccountType.SAVING);
+        when(entityManager.createNamedQuery("selectAccountViewQuery", AccountView.class)).thenReturn(viewQuery);
+        when(viewQuery.setParameter("id", 1)).thenReturn(viewQuery);
+        when(viewQuery.getSingleResult()).thenReturn(view);
+
+        // When & Then: The view is returned and renders like the entity
+        assertSame(view, accountBeanImpl.findAccountView(1));
+        assertEquals("Account{accountId=1, number=12345, accountBalance=1000.00, accountType='SAVING'}", view.toString());
+        verify(entityManager, never()).find(eq(Account.class), any());
+    }
+
+    /**
+     * Tests that prefetched accounts have their numbers cached, so a later lookup by number
+     * reads by primary key without querying the number.
+     */
+    @Test
+    public void testPrefetchAccounts_CachesAccountNumbers() throws AccountNotFoundException {
+        // Given: The batch query returns an account with a number no other test uses
+        account.setAccountNumber(5550003);
+        TypedQuery<Account> batchQuery = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery("selectAccountsByIdsQuery", Account.class)).thenReturn(batchQuery);
+        when(batchQuery.setParameter("ids", Arrays.asList(1, 2))).thenReturn(batchQuery);
+        when(batchQuery.getResultList()).thenReturn(Collections.singletonList(account));
+        when(entityManager.find(eq(Account.class), eq(1), anyMap())).thenReturn(account);
+
+        // When: Prefetching two ids, one of which no longer exists, then looking the number up
+        int loaded = accountBeanImpl.prefetchAccounts(Arrays.asList(1, 2));
+        Account found = accountBeanImpl.findAccountByNumber(5550003);
+
+        // Then: The existing account is loaded and the lookup needs no number query
+        assertEquals(1, loaded);
+        assertSame(account, found);
+        verify(entityManager, never()).createNamedQuery("selectAccountByNumberQuery");
     }
 
     /**
@@ -123,4 +386,196 @@ public class AccountBeanImplTest {
         assertEquals(54321, account.getAccountNumber());
         verify(entityManager, times(1)).merge(account);  // Verify that merge is called once to update the account
     }
+
+    /**
+     * Tests updating an account to a number not reserved yet, which a new account could be given later.
+     */
+    @Test
+    public void testUpdateAccount_RejectsUnreservedNumber() {
+        // When & Then: The first number not reserved yet is rejected before the account is loaded
+        assertThrows(IllegalArgumentException.class, () -> accountBeanImpl.updateAccount(1, 9_000_000));
+        assertEquals(12345, account.getAccountNumber());
+        verify(entityManager, never()).createNamedQuery("selectAccountQuery");
+        verify(entityManager, never()).merge(any());
+    }
+
+    /**
+     * Tests a transfer between two accounts.
+     * Verifies that the source is debited with a conditional update and the target is credited.
+     *
+     * @throws Exception if the transfer fails (not expected in this test).
+     */
+    @Test
+    public void testTransfer() throws Exception {
+        // Given: Both conditional updates match one row
+        Query debitQuery = mock(Query.class);
+        Query creditQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("debitAccountQuery")).thenReturn(debitQuery);
+        when(entityManager.createNamedQuery("creditAccountQuery")).thenReturn(creditQuery);
+        when(debitQuery.setParameter(anyString(), any())).thenReturn(debitQuery);
+        when(creditQuery.setParameter(anyString(), any())).thenReturn(creditQuery);
+        when(debitQuery.executeUpdate()).thenReturn(1);
+        when(creditQuery.executeUpdate()).thenReturn(1);
+
+        // When: Moving 250 from account 1 to account 2
+        accountBeanImpl.transfer(1, 2, Money.ofMajor(250));
+
+        // Then: Account 1 is debited and account 2 is credited with the amount
+        verify(debitQuery).setParameter("id", 1);
+        verify(debitQuery).setParameter("amount", Money.ofMajor(250));
+        verify(creditQuery).setParameter("id", 2);
+        verify(creditQuery).setParameter("amount", Money.ofMajor(250));
+        verify(debitQuery, times(1)).executeUpdate();
+        verify(creditQuery, times(1)).executeUpdate();
+        // And: Both sides of the transfer are journaled
+        verify(entityManager, times(2)).persist(any(AccountJournalEntry.class));
+    }
+
+    /**
+     * Tests that a transfer in a transaction keeps its lock stripes until the transaction completes.
+     * Unlocking a stripe that is not held fails, so the completion callback only succeeds if the
+     * stripes were still locked after the transfer returned.
+     *
+     * @throws Exception if the transfer fails (not expected in this test).
+     */
+    @Test
+    public void testTransfer_ReleasesLocksAfterCompletion() throws Exception {
+        // Given: A running transaction, and both conditional updates match one row
+        when(transactionRegistry.getTransactionKey()).thenReturn("tx");
+        Query updateQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("debitAccountQuery")).thenReturn(updateQuery);
+        when(entityManager.createNamedQuery("creditAccountQuery")).thenReturn(updateQuery);
+        when(updateQuery.setParameter(anyString(), any())).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(1);
+
+        // When: Moving 250 from account 1 to account 2
+        accountBeanImpl.transfer(1, 2, Money.ofMajor(250));
+
+        // Then: The stripes are released by the completion callback of the transaction
+        ArgumentCaptor<Synchronization> completion = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transactionRegistry).registerInterposedSynchronization(completion.capture());
+        assertDoesNotThrow(() -> completion.getValue().afterCompletion(Status.STATUS_COMMITTED));
+    }
+
+    /**
+     * Tests a transfer from an account that does not cover the amount.
+     * The conditional debit matches no row, so an InsufficientFundsException is expected.
+     */
+    @Test
+    public void testTransfer_InsufficientFunds() {
+        // Given: The debit matches no row although the account exists
+        Query debitQuery = mock(Query.class);
+        Query countQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("debitAccountQuery")).thenReturn(debitQuery);
+        when(entityManager.createNamedQuery("countAccountQuery")).thenReturn(countQuery);
+        when(debitQuery.setParameter(anyString(), any())).thenReturn(debitQuery);
+        when(countQuery.setParameter(anyString(), any())).thenReturn(countQuery);
+        when(debitQuery.executeUpdate()).thenReturn(0);
+        when(countQuery.getSingleResult()).thenReturn(1L);
+
+        // When & Then: The transfer is rejected and the target is never credited
+        assertThrows(InsufficientFundsException.class, () -> accountBeanImpl.transfer(1, 2, Money.ofMajor(250)));
+        verify(entityManager, never()).createNamedQuery("creditAccountQuery");
+    }
+
+    /**
+     * Tests a withdrawal that the balance covers.
+     * A single conditional UPDATE is issued and the balance of the locked row is returned.
+     */
+    @Test
+    public void testWithdraw() throws Exception {
+        // Given: The conditional debit matches one row and leaves 750 behind
+        Query debitQuery = mock(Query.class);
+        Query balanceQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("debitAccountQuery")).thenReturn(debitQuery);
+        when(entityManager.createNamedQuery("selectAccountBalanceQuery")).thenReturn(balanceQuery);
+        when(debitQuery.setParameter(anyString(), any())).thenReturn(debitQuery);
+        when(balanceQuery.setParameter(anyString(), any())).thenReturn(balanceQuery);
+        when(debitQuery.executeUpdate()).thenReturn(1);
+        when(balanceQuery.getSingleResult()).thenReturn(Money.ofMajor(750));
+
+        // When: Withdrawing 250 from account 1
+        Money balance = accountBeanImpl.withdraw(1, Money.ofMajor(250));
+
+        // Then: The account is debited without being loaded and the new balance is returned
+        assertEquals(Money.ofMajor(750), balance);
+        verify(debitQuery).setParameter("amount", Money.ofMajor(250));
+        verify(entityManager, never()).find(eq(Account.class), any());
+        verify(entityManager, never()).merge(any());
+    }
+
+    /**
+     * Tests a withdrawal that would overdraw the account.
+     * The conditional debit matches no row, so an InsufficientFundsException is expected.
+     */
+    @Test
+    public void testWithdraw_InsufficientFunds() {
+        // Given: The debit matches no row although the account exists
+        Query debitQuery = mock(Query.class);
+        Query countQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("debitAccountQuery")).thenReturn(debitQuery);
+        when(entityManager.createNamedQuery("countAccountQuery")).thenReturn(countQuery);
+        when(debitQuery.setParameter(anyString(), any())).thenReturn(debitQuery);
+        when(countQuery.setParameter(anyString(), any())).thenReturn(countQuery);
+        when(debitQuery.executeUpdate()).thenReturn(0);
+        when(countQuery.getSingleResult()).thenReturn(1L);
+
+        // When & Then: The withdrawal is rejected and no balance is read back
+        assertThrows(InsufficientFundsException.class, () -> accountBeanImpl.withdraw(1, Money.ofMajor(250)));
+        verify(entityManager, never()).createNamedQuery("selectAccountBalanceQuery");
+    }
+
+    /**
+     * Tests a deposit into an account that does not exist.
+     * The credit matches no row, so an AccountNotFoundException is expected.
+     */
+    @Test
+    public void testDeposit_AccountNotFound() {
+        // Given: The credit matches no row
+        Query creditQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("creditAccountQuery")).thenReturn(creditQuery);
+        when(creditQuery.setParameter(anyString(), any())).thenReturn(creditQuery);
+        when(creditQuery.executeUpdate()).thenReturn(0);
+
+        // When & Then: The deposit fails with AccountNotFoundException
+        assertThrows(AccountNotFoundException.class, () -> accountBeanImpl.deposit(1, Money.ofMajor(250)));
+    }
+
+    /**
+     * Tests a withdrawal from a hot account whose account row alone does not cover the amount.
+     * The balance slots are folded into the account row and the debit is retried.
+     */
+    @Test
+    public void testWithdraw_FoldsBalanceSlots() throws Exception {
+        // Given: The first debit fails, and one slot holds 400
+        Query debitQuery = mock(Query.class);
+        Query creditQuery = mock(Query.class);
+        Query slotsQuery = mock(Query.class);
+        Query balanceQuery = mock(Query.class);
+        AccountBalanceSlot slot = new AccountBalanceSlot(1, 0);
+        slot.setBalance(Money.ofMajor(400));
+        when(entityManager.createNamedQuery("debitAccountQuery")).thenReturn(debitQuery);
+        when(entityManager.createNamedQuery("creditAccountQuery")).thenReturn(creditQuery);
+        when(entityManager.createNamedQuery("selectAccountSlotsQuery")).thenReturn(slotsQuery);
+        when(entityManager.createNamedQuery("selectAccountBalanceQuery")).thenReturn(balanceQuery);
+        when(debitQuery.setParameter(anyString(), any())).thenReturn(debitQuery);
+        when(creditQuery.setParameter(anyString(), any())).thenReturn(creditQuery);
+        when(slotsQuery.setParameter(anyString(), any())).thenReturn(slotsQuery);
+        when(slotsQuery.setLockMode(any(LockModeType.class))).thenReturn(slotsQuery);
+        when(balanceQuery.setParameter(anyString(), any())).thenReturn(balanceQuery);
+        when(slotsQuery.getResultList()).thenReturn(Collections.singletonList(slot));
+        when(debitQuery.executeUpdate()).thenReturn(0, 1);
+        when(creditQuery.executeUpdate()).thenReturn(1);
+        when(balanceQuery.getSingleResult()).thenReturn(Money.ofMajor(150));
+
+        // When: Withdrawing 250 from account 1
+        Money balance = accountBeanImpl.withdraw(1, Money.ofMajor(250));
+
+        // Then: The slot is emptied into the account row before the debit is retried
+        assertEquals(Money.ofMajor(150), balance);
+        assertEquals(Money.ZERO, slot.getBalance());
+        verify(slotsQuery).setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        verify(creditQuery).setParameter("amount", Money.ofMajor(400));
+        verify(debitQuery, times(2)).executeUpdate();
+    }
 }
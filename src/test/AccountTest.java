@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import Exception.AccountTypeException;
 import Model.AccountType;
+import Model.Money;
 /**
  * Test class for {@link Account}.
  * This class contains unit tests for the constructor and methods of the Account class.
@@ -21,7 +22,7 @@ class AccountTest {
     @BeforeEach
     void setUp() throws AccountTypeException {
         // Initialize the account with a valid account type (SAVING)
-        account = new Account(1, 123456, 500.0, AccountType.SAVING);
+        account = new Account(1, 123456, Money.parse("500.00"), AccountType.SAVING);
     }
     /**
      * Test case to verify that the constructor initializes the account correctly with valid data.
@@ -35,7 +36,7 @@ class AccountTest {
         assertNotNull(account);
         assertEquals(1, account.getAccountId());
         assertEquals(123456, account.getAccountNumber());
-        assertEquals(500.0, account.getAccountBalance());
+        assertEquals(Money.parse("500.00"), account.getAccountBalance());
         assertEquals(AccountType.SAVING, account.getAccountType());
     }
     /**
@@ -47,7 +48,7 @@ class AccountTest {
     void testConstructorInvalidAccountType() {
         // Verify that an AccountTypeException is thrown when an invalid account type is provided
         assertThrows(AccountTypeException.class, () -> {
-            new Account(1, 123456, 500.0, AccountType.fromString("INVALID"));
+            new Account(1, 123456, Money.parse("500.00"), AccountType.fromString("INVALID"));
         });
     }
     /**
@@ -74,4 +75,14 @@ class AccountTest {
             account.setAccountType(AccountType.fromString("INVALID"));
         });
     }
+    /**
+     * Test case to verify that the balance reported by a hot account read by the finders includes
+     * its balance slots.
+     */
+    @Test
+    void testIncludeSlotBalance() {
+        // Include 120.50 held in balance slots and verify the reported balance
+        account.includeSlotBalance(Money.parse("120.50"));
+        assertEquals(Money.parse("620.50"), account.getAccountBalance());
+    }
 }
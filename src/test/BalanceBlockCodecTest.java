@@ -0,0 +1,100 @@
+import Business.History.BalanceBlockCodec;
+import Business.History.StepSampler;
+import Model.BalancePoint;
+import Model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link BalanceBlockCodec} and {@link StepSampler} classes.
+ * It checks that encoded history blocks decode to the same points and that decoded points are
+ * resampled as a step function.
+ */
+public class BalanceBlockCodecTest {
+
+    // Start of the time bucket used by the tests
+    private static final long BUCKET = 1_700_000_000L;
+
+    /**
+     * Tests that points with rising, falling and unchanged balances survive a round trip.
+     */
+    @Test
+    public void testRoundTrip() {
+        // Given: Points with positive, negative, zero and large deltas
+        long[] times = {BUCKET, BUCKET + 1, BUCKET + 1, BUCKET + 3_600, BUCKET + 86_400};
+        long[] values = {100_000, 99_950, 99_950, -5, Long.MAX_VALUE / 4};
+        BalanceBlockCodec.Encoder encoder = new BalanceBlockCodec.Encoder(BUCKET);
+        for (int i = 0; i < times.length; i++) {
+            encoder.add(times[i], values[i]);
+        }
+
+        // When: Decoding the block
+        List<long[]> decoded = new ArrayList<>();
+        int count = BalanceBlockCodec.decode(encoder.toByteArray(), BUCKET, (time, value) -> decoded.add(new long[]{time, value}));
+
+        // Then: Every point comes back in order
+        assertEquals(times.length, count);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], decoded.get(i)[0]);
+            assertEquals(values[i], decoded.get(i)[1]);
+        }
+    }
+
+    /**
+     * Tests that a block continued by a second encoder decodes as one block, and that small deltas take two bytes.
+     */
+    @Test
+    public void testAppendToExistingBlock() {
+        // Given: A block with one point, continued with a small change
+        BalanceBlockCodec.Encoder first = new BalanceBlockCodec.Encoder(BUCKET);
+        first.add(BUCKET + 10, 5_000);
+        int sizeAfterFirst = first.size();
+        BalanceBlockCodec.Encoder second = new BalanceBlockCodec.Encoder(first.toByteArray(), first.count(), first.lastTime(), first.lastValue());
+        second.add(BUCKET + 20, 4_990);
+
+        // When: Decoding the continued block
+        List<Long> values = new ArrayList<>();
+        BalanceBlockCodec.decode(second.toByteArray(), BUCKET, (time, value) -> values.add(value));
+
+        // Then: Both points are present and the second one only took one byte per delta
+        assertEquals(List.of(5_000L, 4_990L), values);
+        assertEquals(2, second.count());
+        assertEquals(sizeAfterFirst + 2, second.size());
+    }
+
+    /**
+     * Tests that points must be added in time order.
+     */
+    @Test
+    public void testRejectsOutOfOrderPoints() {
+        BalanceBlockCodec.Encoder encoder = new BalanceBlockCodec.Encoder(BUCKET);
+        encoder.add(BUCKET + 10, 1);
+        assertThrows(IllegalArgumentException.class, () -> encoder.add(BUCKET + 5, 2));
+    }
+
+    /**
+     * Tests that the sampler emits the latest balance at or before each grid time.
+     */
+    @Test
+    public void testStepSampler() {
+        // Given: A sampler every 10 seconds starting with a balance of 1.00
+        StepSampler sampler = new StepSampler(BUCKET, BUCKET + 30, 10, 100);
+
+        // When: Points arrive at +5 (2.00) and +20 (3.00)
+        sampler.accept(BUCKET + 5, 200);
+        sampler.accept(BUCKET + 20, 300);
+        List<BalancePoint> samples = sampler.finish();
+
+        // Then: The grid sees the step function 1.00, 2.00, 3.00, 3.00
+        assertEquals(4, samples.size());
+        assertEquals(Money.parse("1.00"), samples.get(0).getBalance());
+        assertEquals(Money.parse("2.00"), samples.get(1).getBalance());
+        assertEquals(Money.parse("3.00"), samples.get(2).getBalance());
+        assertEquals(Money.parse("3.00"), samples.get(3).getBalance());
+        assertEquals(BUCKET + 30, samples.get(3).getEpochSecond());
+    }
+}
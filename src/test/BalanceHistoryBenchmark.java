@@ -0,0 +1,103 @@
+import Business.BalanceHistoryBeanImpl;
+import Business.History.BalanceBlockCodec;
+import Business.History.StepSampler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark for the compressed balance history.
+ * <p>
+ * It generates a year of irregular balance changes for a number of accounts, encodes them into
+ * bucketed blocks the way {@link BalanceHistoryBeanImpl} stores them, and reports the bytes per point
+ * against a raw 16 bytes per point (8 byte time, 8 byte balance). It then runs random range queries
+ * at an hourly resolution, decoding only the blocks that overlap each range, and reports query
+ * throughput and decoded points per second. Everything runs in memory, so the figures isolate the
+ * codec from the database.
+ * </p>
+ * Run with {@code -Dbench.accounts=... -Dbench.pointsPerDay=... -Dbench.queries=...}.
+ */
+public class BalanceHistoryBenchmark {
+
+    private static final long YEAR_START = 1_704_067_200L;
+    private static final int DAYS = 365;
+
+    public static void main(String[] args) {
+        int accounts = Integer.getInteger("bench.accounts", 200);
+        int pointsPerDay = Integer.getInteger("bench.pointsPerDay", 50);
+        int queries = Integer.getInteger("bench.queries", 20_000);
+        Random random = new Random(42);
+
+        // Encode: blocks[account] holds the blocks of one account in bucket order
+        List<List<long[]>> bucketsByAccount = new ArrayList<>();
+        List<List<byte[]>> blocksByAccount = new ArrayList<>();
+        long points = 0;
+        long bytes = 0;
+        long encodeStart = System.nanoTime();
+        for (int a = 0; a < accounts; a++) {
+            List<long[]> buckets = new ArrayList<>();
+            List<byte[]> blocks = new ArrayList<>();
+            long time = YEAR_START;
+            long balance = 100_000 + random.nextInt(10_000_000);
+            long end = YEAR_START + DAYS * 86_400L;
+            BalanceBlockCodec.Encoder encoder = null;
+            long bucket = -1;
+            while (true) {
+                // Exponential gaps between changes, amounts mostly small
+                time += 1 + (long) (-Math.log(1 - random.nextDouble()) * 86_400 / pointsPerDay);
+                if (time >= end) {
+                    break;
+                }
+                balance += (long) (random.nextGaussian() * 5_000);
+                long pointBucket = Math.floorDiv(time, BalanceHistoryBeanImpl.BUCKET_SECONDS) * BalanceHistoryBeanImpl.BUCKET_SECONDS;
+                if (pointBucket != bucket) {
+                    if (encoder != null) {
+                        blocks.add(encoder.toByteArray());
+                        bytes += encoder.size();
+                    }
+                    bucket = pointBucket;
+                    buckets.add(new long[]{bucket});
+                    encoder = new BalanceBlockCodec.Encoder(bucket);
+                }
+                encoder.add(time, balance);
+                points++;
+            }
+            if (encoder != null) {
+                blocks.add(encoder.toByteArray());
+                bytes += encoder.size();
+            }
+            bucketsByAccount.add(buckets);
+            blocksByAccount.add(blocks);
+        }
+        long encodeNanos = System.nanoTime() - encodeStart;
+        System.out.printf("points=%d bytes=%d bytesPerPoint=%.2f (raw 16.00, %.1fx smaller) rowPerDayRows=%d encode=%s%n",
+                points, bytes, (double) bytes / points, 16.0 * points / bytes, (long) accounts * DAYS,
+                BenchmarkSupport.opsPerSecond(points, encodeNanos));
+
+        // Query: random 30 day windows at hourly resolution
+        long decoded = 0;
+        long samples = 0;
+        long queryStart = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            int account = random.nextInt(accounts);
+            long from = YEAR_START + (long) random.nextInt(DAYS - 30) * 86_400;
+            long to = from + 30 * 86_400L;
+            long fromBucket = Math.floorDiv(from, BalanceHistoryBeanImpl.BUCKET_SECONDS) * BalanceHistoryBeanImpl.BUCKET_SECONDS;
+            StepSampler sampler = new StepSampler(from, to, 3_600, 0);
+            List<long[]> buckets = bucketsByAccount.get(account);
+            List<byte[]> blocks = blocksByAccount.get(account);
+            for (int b = 0; b < buckets.size(); b++) {
+                long bucket = buckets.get(b)[0];
+                if (bucket >= fromBucket && bucket <= to) {
+                    decoded += BalanceBlockCodec.decode(blocks.get(b), bucket, sampler);
+                }
+            }
+            samples += sampler.finish().size();
+        }
+        long queryNanos = System.nanoTime() - queryStart;
+        System.out.printf("queries=%d samples=%d decodedPoints=%d queryThroughput=%s decodeThroughput=%s%n",
+                queries, samples, decoded, BenchmarkSupport.opsPerSecond(queries, queryNanos),
+                BenchmarkSupport.opsPerSecond(decoded, queryNanos));
+    }
+}
@@ -0,0 +1,57 @@
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helper shared by the benchmark programs.
+ * It bootstraps the "PersistenceUnit" outside the application server by replacing the JTA data source
+ * with a resource-local JDBC connection. The connection is configured with the system properties
+ * {@code bench.jdbc.url}, {@code bench.jdbc.user} and {@code bench.jdbc.password}.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Creates an EntityManagerFactory for the benchmarks.
+     *
+     * @return a resource-local EntityManagerFactory for the "PersistenceUnit"
+     */
+    static EntityManagerFactory createEntityManagerFactory() {
+        return createEntityManagerFactory(new HashMap<>());
+    }
+
+    /**
+     * Creates an EntityManagerFactory for the benchmarks with additional properties.
+     *
+     * @param overrides extra persistence properties that take precedence over persistence.xml
+     * @return a resource-local EntityManagerFactory for the "PersistenceUnit"
+     */
+    static EntityManagerFactory createEntityManagerFactory(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.transactionType", "RESOURCE_LOCAL");
+        properties.put("jakarta.persistence.jtaDataSource", "");
+        properties.put("jakarta.persistence.jdbc.driver", "com.mysql.cj.jdbc.Driver");
+        properties.put("jakarta.persistence.jdbc.url", System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/project2"));
+        properties.put("jakarta.persistence.jdbc.user", System.getProperty("bench.jdbc.user", "root"));
+        properties.put("jakarta.persistence.jdbc.password", System.getProperty("bench.jdbc.password", ""));
+        // Keep benchmark output readable
+        properties.put("hibernate.show_sql", "false");
+        properties.putAll(overrides);
+        return Persistence.createEntityManagerFactory("PersistenceUnit", properties);
+    }
+
+    /**
+     * Formats a throughput figure.
+     *
+     * @param operations the number of completed operations
+     * @param nanos      the elapsed time in nanoseconds
+     * @return the throughput in operations per second
+     */
+    static String opsPerSecond(long operations, long nanos) {
+        return String.format("%.1f ops/s", operations * 1_000_000_000.0 / nanos);
+    }
+}
@@ -1,15 +1,32 @@
 import Business.CustomerBeanImpl;
+import Business.IAccountBean;
+import Entity.Account;
 import Entity.Customer;
+import Entity.CustomerPhoneLock;
 import Exception.*;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import Model.AccountType;
+import Model.CustomerBalance;
+import Model.CustomerView;
+import Model.Money;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -24,6 +41,10 @@ public class CustomerBeanImplTest {
     @Mock
     private EntityManager entityManager;
 
+    // Mocked account bean creating the accounts given with a customer
+    @Mock
+    private IAccountBean accountBean;
+
     // The class under test, which will have its methods tested
     @InjectMocks
     private CustomerBeanImpl customerBeanImpl;
@@ -41,7 +62,7 @@ public class CustomerBeanImplTest {
     public void setUp() throws BirthdateException {
         MockitoAnnotations.openMocks(this); // Initialize mock annotations
         customer = new Customer();
-        customer.setCustomerId("123");
+        customer.setCustomerId("0000000123");
         customer.setCustomerAddress("Test Address");
         customer.setCustomerPhone("123456789");
     }
@@ -57,7 +78,7 @@ public class CustomerBeanImplTest {
         // Mocking Query behavior for findCustomer
         Query mockQuery = mock(Query.class);
         when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(mockQuery);
-        when(mockQuery.setParameter("id", customer.getCustomerId())).thenReturn(mockQuery);
+        when(mockQuery.setParameter("id", 123L)).thenReturn(mockQuery);
         when(mockQuery.getSingleResult()).thenThrow(new NoResultException()); // Simulate customer not found
 
         // Act: Calling the createCustomer method
@@ -67,6 +88,31 @@ public class CustomerBeanImplTest {
         verify(entityManager, times(1)).persist(customer);
     }
 
+    /**
+     * Tests that the accounts given with a new customer are created through the account bean, which
+     * allocates their ids, before the customer is persisted.
+     *
+     * @throws Exception if the account type is invalid (not expected in this test).
+     */
+    @Test
+    public void testCreateCustomer_CreatesAccounts() throws Exception {
+        // Given: A new customer with one account
+        Account account = new Account(Money.ofMajor(10), AccountType.SAVING);
+        customer.addAccount(account);
+        Query mockQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(mockQuery);
+        when(mockQuery.setParameter("id", 123L)).thenReturn(mockQuery);
+        when(mockQuery.getSingleResult()).thenThrow(new NoResultException());
+
+        // When: Creating the customer
+        customerBeanImpl.createCustomer(customer);
+
+        // Then: The account is created by the account bean, then the customer is persisted
+        InOrder order = inOrder(accountBean, entityManager);
+        order.verify(accountBean).createAccount(account);
+        order.verify(entityManager).persist(customer);
+    }
+
     /**
      * Tests the scenario where an attempt to create a customer is made, but the customer already exists.
      * Mocks the behavior of the EntityManager and verifies that the customer is not persisted.
@@ -76,9 +122,9 @@ public class CustomerBeanImplTest {
         // Given: A customer already exists
         when(entityManager.createNamedQuery("selectCustomerQuery"))
                 .thenReturn(mock(Query.class));
-        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", "123"))
+        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", 123L))
                 .thenReturn(mock(Query.class));
-        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", "123").getSingleResult())
+        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", 123L).getSingleResult())
                 .thenReturn(customer);  // Simulate customer already exists
 
         // When: Trying to create a new customer
@@ -99,15 +145,15 @@ public class CustomerBeanImplTest {
         // Given: Mocking the retrieval of a customer from the database
         Query mockQuery = mock(Query.class); // Mock Query
         when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(mockQuery);
-        when(mockQuery.setParameter("id", "123")).thenReturn(mockQuery); // Mock setParameter
+        when(mockQuery.setParameter("id", 123L)).thenReturn(mockQuery); // Mock setParameter
         when(mockQuery.getSingleResult()).thenReturn(customer); // Mock getSingleResult
 
         // When: Calling the findCustomer method
-        Customer foundCustomer = customerBeanImpl.findCustomer("123");
+        Customer foundCustomer = customerBeanImpl.findCustomer("0000000123");
 
         // Then: Verify the customer is found
         assertNotNull(foundCustomer);
-        assertEquals("123", foundCustomer.getCustomerId());
+        assertEquals("0000000123", foundCustomer.getCustomerId());
         verify(entityManager, times(1)).createNamedQuery("selectCustomerQuery");
     }
 
@@ -120,11 +166,41 @@ public class CustomerBeanImplTest {
         // Given: Mocking the case where customer is not found
         Query mockQuery = mock(Query.class); // Mock Query
         when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(mockQuery);
-        when(mockQuery.setParameter("id", "123")).thenReturn(mockQuery); // Mock setParameter
+        when(mockQuery.setParameter("id", 404L)).thenReturn(mockQuery); // Mock setParameter
         when(mockQuery.getSingleResult()).thenThrow(new NoResultException()); // Simulate NoResultException
 
         // When & Then: Verify that CustomerNotFoundExceptin is thrown
-        assertThrows(CustomerNotFoundExceptin.class, () -> customerBeanImpl.findCustomer("123"));
+        assertThrows(CustomerNotFoundExceptin.class, () -> customerBeanImpl.findCustomer("0000000404"));
+    }
+
+    /**
+     * Tests that a customer found missing is answered without a query while the miss is cached,
+     * and looked up again once a customer with that ID has been created.
+     */
+    @Test
+    public void testFindCustomer_CachesMiss() {
+        // Given: The customer does not exist, and a first lookup has found it missing
+        Query mockQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(mockQuery);
+        when(mockQuery.setParameter("id", 405L)).thenReturn(mockQuery);
+        when(mockQuery.getSingleResult()).thenThrow(new NoResultException());
+        assertThrows(CustomerNotFoundExceptin.class, () -> customerBeanImpl.findCustomer("0000000405"));
+
+        // When: Looking it up again
+        assertThrows(CustomerNotFoundExceptin.class, () -> customerBeanImpl.findCustomer("0000000405"));
+
+        // Then: Only the first lookup queried the database
+        verify(mockQuery, times(1)).getSingleResult();
+
+        // When: The customer is created, which probes without a query, and looked up again
+        Customer created = new Customer();
+        created.setCustomerId("0000000405");
+        customerBeanImpl.createCustomer(created);
+        assertThrows(CustomerNotFoundExceptin.class, () -> customerBeanImpl.findCustomer("0000000405"));
+
+        // Then: The creation dropped the cached miss, so the lookup reached the database
+        verify(entityManager).persist(created);
+        verify(mockQuery, times(2)).getSingleResult();
     }
 
     /**
@@ -138,15 +214,167 @@ public class CustomerBeanImplTest {
     public void testUpdateCustomer() throws CustomerNotFoundExceptin {
         // Given: Mocking the retrieval of the customer for update
         when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(mock(Query.class));
-        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", "123")).thenReturn(mock(Query.class));
-        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", "123").getSingleResult()).thenReturn(customer);
+        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", 123L)).thenReturn(mock(Query.class));
+        when(entityManager.createNamedQuery("selectCustomerQuery").setParameter("id", 123L).getSingleResult()).thenReturn(customer);
 
         // When: Updating the customer's address and phone number
-        customerBeanImpl.updateCustomer("123", "New Address", "987654321");
+        customerBeanImpl.updateCustomer("0000000123", "New Address", "987654321");
 
         // Then: Verify that the customer's data has been updated
         assertEquals("New Address", customer.getCustomerAddress());
         assertEquals("987654321", customer.getCustomerPhone());
         verify(entityManager, times(1)).merge(customer);
     }
+
+    /**
+     * Tests looking a customer up by phone number in another notation.
+     * The number is normalized before it is queried.
+     *
+     * @throws CustomerNotFoundExceptin if the customer is not found (not expected in this test).
+     */
+    @Test
+    public void testFindCustomerByPhone() throws CustomerNotFoundExceptin {
+        // Given: A customer stored with phone 09121234567
+        Query phoneQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectCustomerByPhoneQuery")).thenReturn(phoneQuery);
+        when(phoneQuery.setParameter("phoneKey", "09121234567")).thenReturn(phoneQuery);
+        when(phoneQuery.setMaxResults(1)).thenReturn(phoneQuery);
+        when(phoneQuery.getResultList()).thenReturn(Collections.singletonList(customer));
+
+        // When & Then: The international notation finds the customer
+        assertSame(customer, customerBeanImpl.findCustomerByPhone("+98 912 123 4567"));
+    }
+
+    /**
+     * Tests finding a customer together with its accounts.
+     * The accounts fetch graph is applied to the customer query, so they load with the customer.
+     *
+     * @throws CustomerNotFoundExceptin if the customer is not found (not expected in this test).
+     */
+    @Test
+    public void testFindCustomerWithAccounts() throws CustomerNotFoundExceptin {
+        // Given: The customer query returns the test customer
+        Query customerQuery = mock(Query.class);
+        EntityGraph<?> graph = mock(EntityGraph.class);
+        when(entityManager.createNamedQuery("selectCustomerQuery")).thenReturn(customerQuery);
+        doReturn(graph).when(entityManager).getEntityGraph(Customer.WITH_ACCOUNTS);
+        when(customerQuery.setParameter("id", 123L)).thenReturn(customerQuery);
+        when(customerQuery.getSingleResult()).thenReturn(customer);
+
+        // When: The customer is found with its accounts
+        Customer found = customerBeanImpl.findCustomerWithAccounts("0000000123");
+
+        // Then: The fetch graph was passed as a hint
+        assertSame(customer, found);
+        verify(customerQuery).setHint("jakarta.persistence.fetchgraph", graph);
+    }
+
+    /**
+     * Tests reading a customer as a view.
+     * The stored key is formatted back to the 10-digit customer ID.
+     *
+     * @throws CustomerNotFoundExceptin if the customer is not found (not expected in this test).
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFindCustomerView() throws CustomerNotFoundExceptin {
+        // Given: The projection query builds a view from the selected columns
+        TypedQuery<CustomerView> viewQuery = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery("selectCustomerViewQuery", CustomerView.class)).thenReturn(viewQuery);
+        when(viewQuery.setParameter("id", 123L)).thenReturn(viewQuery);
+        when(viewQuery.getSingleResult()).thenReturn(new CustomerView(123L, "Sara", "Ahmadi"));
+
+        // When: The customer is read
+        CustomerView view = customerBeanImpl.findCustomerView("0000000123");
+
+        // Then: The view carries the formatted ID
+        assertEquals("0000000123", view.getCustomerId());
+        assertEquals("Customer{customerId=0000000123, customerName='Sara', customerFamily='Ahmadi'}", view.toString());
+    }
+
+    /**
+     * Tests that prefetching customers caches their views, so a later read of one of them does not
+     * query the database.
+     *
+     * @throws CustomerNotFoundExceptin if the customer is not found (not expected in this test).
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrefetchCustomers_CachesViews() throws CustomerNotFoundExceptin {
+        // Given: The batch query returns one of the two customers asked for
+        Customer prefetched = new Customer();
+        prefetched.setCustomerId("0000000456");
+        prefetched.setCustomerName("Reza");
+        prefetched.setCustomerFamily("Karimi");
+        TypedQuery<Customer> batchQuery = mock(TypedQuery.class);
+        when(entityManager.createNamedQuery("selectCustomersByIdsQuery", Customer.class)).thenReturn(batchQuery);
+        when(batchQuery.setHint(anyString(), any())).thenReturn(batchQuery);
+        when(batchQuery.setParameter(eq("ids"), any())).thenReturn(batchQuery);
+        when(batchQuery.getResultList()).thenReturn(Collections.singletonList(prefetched));
+
+        // When: The customers are prefetched, then the found one is read
+        int found = customerBeanImpl.prefetchCustomers(List.of("0000000456", "0000000457"));
+        CustomerView view = customerBeanImpl.findCustomerView("0000000456");
+
+        // Then: The view comes from the cache
+        assertEquals(1, found);
+        assertEquals("0000000456", view.getCustomerId());
+        assertEquals("Reza", view.getCustomerName());
+        verify(entityManager, never()).createNamedQuery("selectCustomerViewQuery", CustomerView.class);
+    }
+
+    /**
+     * Tests creating a customer whose phone number belongs to another customer, with duplicate rejection.
+     * The lock row of the number is taken before the check, and the customer must not be persisted.
+     */
+    @Test
+    public void testCreateCustomer_DuplicatePhoneRejected() {
+        // Given: Another customer owns the phone number, whose lock row exists
+        customer.setCustomerPhone("09121234567");
+        when(entityManager.find(CustomerPhoneLock.class, "09121234567", LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(new CustomerPhoneLock("09121234567"));
+        Query phoneQuery = mock(Query.class);
+        when(entityManager.createNamedQuery("selectCustomerByPhoneQuery")).thenReturn(phoneQuery);
+        when(phoneQuery.setParameter(anyString(), any())).thenReturn(phoneQuery);
+        when(phoneQuery.setMaxResults(1)).thenReturn(phoneQuery);
+        when(phoneQuery.getResultList()).thenReturn(Collections.singletonList(new Customer()));
+
+        // When & Then: The creation is rejected after locking the number, and nothing is persisted
+        assertThrows(DuplicatePhoneException.class, () -> customerBeanImpl.createCustomer(customer, true));
+        verify(entityManager).find(CustomerPhoneLock.class, "09121234567", LockModeType.PESSIMISTIC_WRITE);
+        verify(entityManager, never()).persist(any());
+    }
+
+    /**
+     * Tests streaming the customers with high balances.
+     * Each grouped row reaches the consumer as one customer, read through a forward-only cursor.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testStreamCustomersWithBalance() {
+        // Given: One customer with two qualifying accounts
+        Query balanceQuery = mock(Query.class);
+        org.hibernate.query.Query<Object> hibernateQuery = mock(org.hibernate.query.Query.class);
+        ScrollableResults<Object> rows = mock(ScrollableResults.class);
+        when(entityManager.createNamedQuery("selectCustomerBalancesQuery")).thenReturn(balanceQuery);
+        when(balanceQuery.setParameter(eq("balance"), any())).thenReturn(balanceQuery);
+        when(balanceQuery.unwrap(org.hibernate.query.Query.class)).thenReturn(hibernateQuery);
+        when(hibernateQuery.setReadOnly(true)).thenReturn(hibernateQuery);
+        when(hibernateQuery.setFetchSize(anyInt())).thenReturn(hibernateQuery);
+        when(hibernateQuery.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(rows);
+        when(rows.next()).thenReturn(true, false);
+        when(rows.get()).thenReturn(new Object[]{123L, "Sara", "Ahmadi", 2L, 3_500_000L, Money.ofMajor(20000)});
+
+        // When: The customers are streamed
+        List<CustomerBalance> streamed = new ArrayList<>();
+        long count = customerBeanImpl.streamCustomersWithBalance(Money.ofMajor(10000), streamed::add);
+
+        // Then: The customer arrives once with its aggregated balances and the cursor is closed
+        assertEquals(1, count);
+        assertEquals("0000000123", streamed.get(0).getCustomerId());
+        assertEquals(2, streamed.get(0).getAccounts());
+        assertEquals(Money.ofMajor(35000), streamed.get(0).getTotalBalance());
+        assertEquals(Money.ofMajor(20000), streamed.get(0).getMaxBalance());
+        verify(rows).close();
+    }
 }
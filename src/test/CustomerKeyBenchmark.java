@@ -0,0 +1,145 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Size and join benchmark for the customer primary key stored as a 10-character string versus a BIGINT.
+ * <p>
+ * For each key type it builds a customer table and an account table referencing it, with the same
+ * generated rows (two accounts per customer), and reports the data and index sizes of both tables
+ * and the latency of customer-to-account joins: point joins by customer ID and range joins over
+ * consecutive IDs. The tables are separate from the application schema and dropped afterwards.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.customers=... -Dbench.queries=...}; the connection
+ * properties are the same as for {@link BenchmarkSupport}.
+ */
+public class CustomerKeyBenchmark {
+
+    // Rows inserted per JDBC batch.
+    private static final int BATCH = 5_000;
+    // Number of customers covered by a range join.
+    private static final int RANGE = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int customers = Integer.getInteger("bench.customers", 2_000_000);
+        int queries = Integer.getInteger("bench.queries", 20_000);
+        // Batched inserts are rewritten into multi-row statements by the MySQL driver
+        String url = System.getProperty("bench.jdbc.url", "jdbc:mysql://localhost:3306/project2") + "?rewriteBatchedStatements=true";
+        try (Connection connection = DriverManager.getConnection(url,
+                System.getProperty("bench.jdbc.user", "root"), System.getProperty("bench.jdbc.password", ""))) {
+            run(connection, "varchar", "VARCHAR(10)", customers, queries);
+            run(connection, "bigint", "BIGINT", customers, queries);
+        }
+    }
+
+    // Builds the tables for one key type, measures them and drops them again.
+    private static void run(Connection connection, String name, String keyType, int customers, int queries) throws SQLException {
+        String customerTable = "bench_customer_" + name;
+        String accountTable = "bench_account_" + name;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + accountTable + ", " + customerTable);
+            statement.execute("CREATE TABLE " + customerTable + " (customerId " + keyType + " NOT NULL PRIMARY KEY, "
+                    + "customerName VARCHAR(50) NOT NULL) ENGINE=InnoDB");
+            statement.execute("CREATE TABLE " + accountTable + " (accountId INT NOT NULL PRIMARY KEY, "
+                    + "customerId " + keyType + " NOT NULL, accountBalance BIGINT NOT NULL, "
+                    + "INDEX idx_account_customer (customerId), "
+                    + "FOREIGN KEY (customerId) REFERENCES " + customerTable + " (customerId)) ENGINE=InnoDB");
+        }
+        boolean numeric = keyType.equals("BIGINT");
+        long start = System.nanoTime();
+        load(connection, customerTable, accountTable, customers, numeric);
+        System.out.printf("key=%-7s customers=%d load=%.1f s%n", name, customers, (System.nanoTime() - start) / 1e9);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + customerTable + ", " + accountTable);
+        }
+        printSize(connection, customerTable);
+        printSize(connection, accountTable);
+
+        String pointJoin = "SELECT COUNT(*), SUM(a.accountBalance) FROM " + customerTable + " c JOIN " + accountTable
+                + " a ON a.customerId = c.customerId WHERE c.customerId = ?";
+        String rangeJoin = "SELECT COUNT(*), SUM(a.accountBalance) FROM " + customerTable + " c JOIN " + accountTable
+                + " a ON a.customerId = c.customerId WHERE c.customerId BETWEEN ? AND ?";
+        time(connection, name, "point", pointJoin, customers, queries, numeric, false);
+        time(connection, name, "range(" + RANGE + ")", rangeJoin, customers, Math.max(1, queries / 100), numeric, true);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + accountTable + ", " + customerTable);
+        }
+    }
+
+    // Inserts the customers and two accounts per customer.
+    private static void load(Connection connection, String customerTable, String accountTable, int customers, boolean numeric)
+            throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insertCustomer = connection.prepareStatement("INSERT INTO " + customerTable + " VALUES (?, ?)");
+             PreparedStatement insertAccount = connection.prepareStatement("INSERT INTO " + accountTable + " VALUES (?, ?, ?)")) {
+            for (int i = 1; i <= customers; i++) {
+                setKey(insertCustomer, 1, i, numeric);
+                insertCustomer.setString(2, "Customer " + i);
+                insertCustomer.addBatch();
+                for (int k = 0; k < 2; k++) {
+                    insertAccount.setInt(1, 2 * i + k);
+                    setKey(insertAccount, 2, i, numeric);
+                    insertAccount.setLong(3, ThreadLocalRandom.current().nextLong(1_000_000));
+                    insertAccount.addBatch();
+                }
+                if (i % BATCH == 0 || i == customers) {
+                    insertCustomer.executeBatch();
+                    insertAccount.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Runs random joins and prints the mean latency.
+    private static void time(Connection connection, String name, String kind, String sql, int customers, int queries,
+                             boolean numeric, boolean range) throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            long start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                int from = 1 + ThreadLocalRandom.current().nextInt(Math.max(1, customers - RANGE));
+                setKey(query, 1, from, numeric);
+                if (range) {
+                    setKey(query, 2, from + RANGE - 1, numeric);
+                }
+                try (ResultSet result = query.executeQuery()) {
+                    result.next();
+                    checksum += result.getLong(1);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("key=%-7s join=%-11s queries=%6d meanLatency=%.3f ms rows=%d%n",
+                    name, kind, queries, elapsed / 1_000_000.0 / queries, checksum);
+        }
+    }
+
+    // Prints the data and index size of a table as reported by InnoDB.
+    private static void printSize(Connection connection, String table) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT DATA_LENGTH, INDEX_LENGTH FROM information_schema.TABLES "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+            query.setString(1, table);
+            try (ResultSet result = query.executeQuery()) {
+                result.next();
+                System.out.printf("  table=%-22s data=%6.1f MB indexes=%6.1f MB%n",
+                        table, result.getLong(1) / 1048576.0, result.getLong(2) / 1048576.0);
+            }
+        }
+    }
+
+    // Binds a customer ID in the representation of the key type: a number, or its 10-digit string.
+    private static void setKey(PreparedStatement statement, int index, long id, boolean numeric) throws SQLException {
+        if (numeric) {
+            statement.setLong(index, id);
+        } else {
+            statement.setString(index, String.format("%010d", id));
+        }
+    }
+}
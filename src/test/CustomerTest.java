@@ -3,6 +3,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import Entity.Account;
 import Entity.Customer;
 import Model.AccountType;
+import Model.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
@@ -81,7 +82,7 @@ class CustomerTest {
     @Test
     void testAddAccount() throws BirthdateException, AccountTypeException {
         // Create a new account and add it to the customer
-        Account account = new Account(1, 123456, 1000.0, AccountType.SAVING);
+        Account account = new Account(1, 123456, Money.parse("1000.00"), AccountType.SAVING);
         customer.addAccount(account);
 
         assertNotNull(customer.getAccount());
@@ -110,5 +111,42 @@ class CustomerTest {
         assertEquals("0987654321", customer.getCustomerId());
     }
 
+    /**
+     * Tests that every notation of a phone number yields the same normalized phone key.
+     */
+    @Test
+    void testCustomerPhoneKeyNormalized() {
+        customer.setCustomerPhone("+98 (912) 123-4567");
+        assertEquals("09121234567", customer.getCustomerPhoneKey());
+        customer.setCustomerPhone("0098 912 123 4567");
+        assertEquals("09121234567", customer.getCustomerPhoneKey());
+        customer.setCustomerPhone("9121234567");
+        assertEquals("09121234567", customer.getCustomerPhoneKey());
+        customer.setCustomerPhone("-");
+        assertNull(customer.getCustomerPhoneKey());
+    }
 
+    /**
+     * Tests that the numeric customer ID is exchanged as a 10-digit string with leading zeros.
+     */
+    @Test
+    void testCustomerIdFormatting() {
+        customer.setCustomerId("0040000001");
+        assertEquals("0040000001", customer.getCustomerId());
+        assertEquals(40000001L, Customer.parseCustomerId("0040000001"));
+        assertEquals("0000000042", Customer.formatCustomerId(42));
+    }
+
+    /**
+     * Tests that only IDs of exactly 10 digits are parsed, and that setting a malformed ID keeps it
+     * for validation instead of failing.
+     */
+    @Test
+    void testMalformedCustomerId() {
+        assertThrows(IllegalArgumentException.class, () -> Customer.parseCustomerId("123"));
+        assertThrows(IllegalArgumentException.class, () -> Customer.parseCustomerId("12345678901"));
+        assertThrows(IllegalArgumentException.class, () -> Customer.parseCustomerId("C123456789"));
+        customer.setCustomerId("123");
+        assertEquals("123", customer.getCustomerId());
+    }
 }
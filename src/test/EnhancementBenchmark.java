@@ -0,0 +1,115 @@
+import Entity.Account;
+import Model.AccountType;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.ManagedEntity;
+
+import java.util.List;
+
+/**
+ * Flush and memory benchmark for large persistence contexts, to compare enhanced and plain entities.
+ * <p>
+ * It loads a large number of accounts into one persistence context and reports the heap retained
+ * per managed account. It then measures flushes: with no changes, which only pays for dirty
+ * checking, and after changing one percent of the accounts. Nothing is committed. Run it once on
+ * the default build, whose entity classes are enhanced, and once built with
+ * {@code -P plain-entities}; the first line tells which kind of classes were loaded.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.accounts=... -Dbench.flushes=...}; see {@link BenchmarkSupport}.
+ */
+public class EnhancementBenchmark {
+
+    // First id of the benchmark accounts, far away from real data.
+    private static final int FIRST_ACCOUNT_ID = 900_300_001;
+    // Accounts persisted per transaction while setting up.
+    private static final int BATCH = 1_000;
+
+    public static void main(String[] args) throws Exception {
+        int accounts = Integer.getInteger("bench.accounts", 100_000);
+        int flushes = Integer.getInteger("bench.flushes", 20);
+        System.out.println("enhanced=" + ManagedEntity.class.isAssignableFrom(Account.class));
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory();
+        try {
+            createAccounts(emf, accounts);
+            // The first round warms up
+            run(emf, accounts, flushes, false);
+            run(emf, accounts, flushes, true);
+            deleteAccounts(emf, accounts);
+        } finally {
+            emf.close();
+        }
+    }
+
+    // Loads all benchmark accounts into one persistence context and times its flushes.
+    private static void run(EntityManagerFactory emf, int accounts, int flushes, boolean print) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            long heapBefore = usedHeap();
+            List<Account> loaded = em.createQuery("SELECT a FROM Account a WHERE a.accountId BETWEEN :from AND :to", Account.class)
+                    .setParameter("from", FIRST_ACCOUNT_ID).setParameter("to", FIRST_ACCOUNT_ID + accounts - 1)
+                    .getResultList();
+            long heapPerEntity = (usedHeap() - heapBefore) / Math.max(1, loaded.size());
+
+            long cleanNanos = 0;
+            long dirtyNanos = 0;
+            for (int f = 0; f < flushes; f++) {
+                long start = System.nanoTime();
+                em.flush();
+                cleanNanos += System.nanoTime() - start;
+                // Change one percent of the accounts, a different slice every round
+                for (int i = f % 100; i < loaded.size(); i += 100) {
+                    Account account = loaded.get(i);
+                    account.setAccountBalance(account.getAccountBalance().plus(Money.ofMinor(1)));
+                }
+                start = System.nanoTime();
+                em.flush();
+                dirtyNanos += System.nanoTime() - start;
+            }
+            if (print) {
+                System.out.printf("entities=%7d heap=%5d B/entity cleanFlush=%.2f ms dirtyFlush(1%%)=%.2f ms%n",
+                        loaded.size(), heapPerEntity, cleanNanos / 1_000_000.0 / flushes, dirtyNanos / 1_000_000.0 / flushes);
+            }
+            em.getTransaction().rollback();
+        } finally {
+            em.close();
+        }
+    }
+
+    // Heap in use after a full collection.
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void createAccounts(EntityManagerFactory emf, int accounts) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (int i = 0; i < accounts; i += BATCH) {
+                em.getTransaction().begin();
+                for (int k = i; k < Math.min(accounts, i + BATCH); k++) {
+                    if (em.find(Account.class, FIRST_ACCOUNT_ID + k) == null) {
+                        em.persist(new Account(FIRST_ACCOUNT_ID + k, 998_000_001 + k, Money.ofMajor(1000), AccountType.SAVING));
+                    }
+                }
+                em.getTransaction().commit();
+                em.clear();
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void deleteAccounts(EntityManagerFactory emf, int accounts) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM Account a WHERE a.accountId BETWEEN :from AND :to")
+                .setParameter("from", FIRST_ACCOUNT_ID).setParameter("to", FIRST_ACCOUNT_ID + accounts - 1).executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+}
@@ -0,0 +1,134 @@
+import Business.Concurrent.BloomFilter;
+import Business.ExistenceFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link ExistenceFilter} and its {@link BloomFilter}.
+ * It checks that existing ids are never reported missing, that ids above the watermark always
+ * reach the database, and that the first rebuild answers once its reservation point has settled.
+ */
+public class ExistenceFilterTest {
+
+    /**
+     * Tests that added ids are always found and that few absent ids are.
+     */
+    @Test
+    public void testBloomFilter() {
+        // Given: A filter holding the even ids below 10,000
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long id = 0; id < 10_000; id += 2) {
+            filter.add(id);
+        }
+
+        // When / Then: Every added id is found, and most of the odd ids are not
+        int falsePositives = 0;
+        for (long id = 0; id < 10_000; id++) {
+            if (id % 2 == 0) {
+                assertTrue(filter.mightContain(id));
+            } else if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 5_000 * 0.05, "false positives: " + falsePositives);
+    }
+
+    /**
+     * Tests that lookups are answered once the filter is built, and that a confirmed miss is cached,
+     * even before the first rebuild, until the id is created.
+     *
+     * @throws InterruptedException if the rebuild is interrupted (not expected in this test).
+     */
+    @Test
+    public void testKnownMissing() throws InterruptedException {
+        // Given: A filter that has not been built yet, with ids reserved up to 200
+        ExistenceFilter filter = new ExistenceFilter(1_000, 0.01, 0, 60_000, 100);
+        filter.missing(4);
+        assertTrue(filter.isKnownMissing(4));
+        assertFalse(filter.isKnownMissing(6));
+
+        // When: Building it from the odd ids 1 to 99
+        filter.rebuild(201, ids -> {
+            for (long id = 1; id < 100; id += 2) {
+                ids.accept(id);
+            }
+        });
+
+        // Then: Existing ids are never missing, and a confirmed miss is cached until the id is created
+        for (long id = 1; id < 100; id += 2) {
+            assertFalse(filter.isKnownMissing(id));
+        }
+        filter.missing(150);
+        assertTrue(filter.isKnownMissing(150));
+        filter.added(150);
+        assertFalse(filter.isKnownMissing(150));
+    }
+
+    /**
+     * Tests that the filter only answers for ids up to the highest id it has seen and below the
+     * reservation point of the sequence.
+     *
+     * @throws InterruptedException if the rebuild is interrupted (not expected in this test).
+     */
+    @Test
+    public void testWatermark() throws InterruptedException {
+        // Given: The even ids 2 to 20 exist
+        ExistenceFilter filter = new ExistenceFilter(1_000, 0.01, 0, 60_000, 100);
+        Consumer<LongConsumer> evenIds = ids -> {
+            for (long id = 2; id <= 20; id += 2) {
+                ids.accept(id);
+            }
+        };
+
+        // When: Building the filter with ids reserved up to 50
+        filter.rebuild(51, evenIds);
+
+        // Then: Odd ids below the highest one seen are missing, ids above it are left to the database
+        assertEquals(20, filter.getWatermark());
+        assertTrue(filter.isKnownMissing(7));
+        assertFalse(filter.isKnownMissing(21));
+
+        // When: Building it again while ids from 10 on may still be handed out
+        filter.rebuild(10, evenIds);
+
+        // Then: Only ids below the reservation point are answered
+        assertEquals(9, filter.getWatermark());
+        assertTrue(filter.isKnownMissing(7));
+        assertFalse(filter.isKnownMissing(11));
+    }
+
+    /**
+     * Tests that the first rebuild waits for its reservation point to settle before it scans, so the
+     * filter answers as soon as it is built, and that a later rebuild uses the settled point at once.
+     *
+     * @throws InterruptedException if the rebuild is interrupted (not expected in this test).
+     */
+    @Test
+    public void testFirstRebuildWaitsForSettling() throws InterruptedException {
+        // Given: A filter whose reservation points take 200 ms to settle
+        ExistenceFilter filter = new ExistenceFilter(1_000, 0.01, 200, 60_000, 100);
+        long start = System.currentTimeMillis();
+
+        // When: Building it from id 7 only, with ids reserved up to 7
+        filter.rebuild(8, ids -> ids.accept(7));
+
+        // Then: The rebuild waited for the point to settle, and the filter answers below it
+        assertTrue(System.currentTimeMillis() - start >= 200);
+        assertEquals(7, filter.getWatermark());
+        assertTrue(filter.isKnownMissing(3));
+
+        // When: Rebuilding while ids up to 20 may still be handed out
+        filter.rebuild(21, ids -> {
+            ids.accept(7);
+            ids.accept(15);
+        });
+
+        // Then: Only ids below the settled point are answered
+        assertEquals(7, filter.getWatermark());
+        assertFalse(filter.isKnownMissing(11));
+    }
+}
@@ -0,0 +1,86 @@
+import Business.Concurrent.HeavyHitters;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link HeavyHitters} tracker.
+ * It checks that skewed traffic surfaces its hot ids in the top-K summary, that the sketch never
+ * undercounts, and that decay halves the counts and publishes the hot ids.
+ */
+public class HeavyHittersTest {
+
+    /**
+     * Tests that the hottest ids of a skewed stream are reported first, with bounded counts.
+     */
+    @Test
+    public void testTopFindsHotIds() {
+        // Given: A small tracker and a stream where ids 7 and 8 dominate thousands of cold ids
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 10, 8);
+        for (int i = 0; i < 10_000; i++) {
+            hitters.record(7);
+            if (i % 2 == 0) {
+                hitters.record(8);
+            }
+            hitters.record(1_000 + i);
+        }
+
+        // When: Reading the top ids
+        List<HeavyHitters.HotKey> top = hitters.top(2);
+
+        // Then: The hot ids come first, and their true counts lie within the reported bounds
+        assertEquals(2, top.size());
+        assertEquals(7, top.get(0).getId());
+        assertEquals(8, top.get(1).getId());
+        assertTrue(top.get(0).getCount() - top.get(0).getError() <= 10_000);
+        assertTrue(top.get(0).getCount() >= 10_000 - 8);
+        assertTrue(hitters.estimate(7) >= 10_000 - 8);
+    }
+
+    /**
+     * Tests that decay publishes the hot ids and halves the counts.
+     */
+    @Test
+    public void testDecay() {
+        // Given: One id recorded a multiple of the buffer size, so nothing stays buffered
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 10, 8);
+        for (int i = 0; i < 64; i++) {
+            hitters.record(42);
+        }
+        assertFalse(hitters.isHot(42));
+
+        // When: Decaying
+        hitters.decay();
+
+        // Then: The id is published as hot and its counts are halved
+        assertTrue(hitters.isHot(42));
+        assertEquals(32, hitters.top(1).get(0).getCount());
+        assertEquals(32, hitters.estimate(42));
+    }
+
+    /**
+     * Tests that accesses made inside an untracked task are not counted.
+     */
+    @Test
+    public void testUntracked() {
+        // Given: A tracker flushing every 8 ids
+        HeavyHitters hitters = new HeavyHitters(4, 1024, 10, 8);
+
+        // When: Recording one id inside an untracked task and another one outside it
+        HeavyHitters.untracked(() -> {
+            for (int i = 0; i < 16; i++) {
+                hitters.record(7);
+            }
+        });
+        for (int i = 0; i < 16; i++) {
+            hitters.record(42);
+        }
+
+        // Then: Only the id recorded outside the task is counted
+        assertEquals(0, hitters.estimate(7));
+        assertEquals(16, hitters.estimate(42));
+        assertEquals(1, hitters.top(10).size());
+    }
+}
@@ -0,0 +1,130 @@
+import Business.AccountBeanImpl;
+import Business.Concurrent.HotAccountRegistry;
+import Entity.Account;
+import Entity.AccountBalanceSlot;
+import Model.AccountType;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for credits to a single busy account, with and without hot mode.
+ * <p>
+ * Every thread repeatedly credits the same account, each credit in its own transaction. In normal
+ * mode all credits update the account row; in hot mode each thread credits its own balance slot,
+ * exactly as {@link AccountBeanImpl} does. For each thread count it reports committed credits per
+ * second and checks that the final balance matches the credited total.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.credits=... -Dbench.slots=...}; see {@link BenchmarkSupport}.
+ */
+public class HotAccountBenchmark {
+
+    // Id of the busy account used by the benchmark, far away from real data.
+    private static final int HOT_ACCOUNT_ID = 900_000_002;
+
+    public static void main(String[] args) throws Exception {
+        int creditsPerThread = Integer.getInteger("bench.credits", 500);
+        int slots = Integer.getInteger("bench.slots", 16);
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory();
+        try {
+            for (int threads : new int[]{1, 2, 4, 8, 16, 32}) {
+                createAccount(emf, 0);
+                run(emf, "normal", threads, creditsPerThread, 0);
+                deleteAccount(emf);
+                createAccount(emf, slots);
+                run(emf, "hot(" + slots + ")", threads, creditsPerThread, slots);
+                deleteAccount(emf);
+            }
+        } finally {
+            emf.close();
+        }
+    }
+
+    // Runs one round with the given number of threads and prints its throughput.
+    private static void run(EntityManagerFactory emf, String mode, int threads, int creditsPerThread, int slots)
+            throws InterruptedException {
+        AtomicLong committed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < creditsPerThread; i++) {
+                    credit(emf, slots);
+                    committed.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+        Money balance = readBalance(emf);
+        System.out.printf("mode=%-8s threads=%2d committed=%7d throughput=%s balanceMatches=%b%n",
+                mode, threads, committed.get(), BenchmarkSupport.opsPerSecond(committed.get(), elapsed),
+                balance.equals(Money.ofMajor(committed.get())));
+    }
+
+    // Credits 1 to the account row, or to the slot of the current thread when the account is hot.
+    private static void credit(EntityManagerFactory emf, int slots) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            if (slots == 0) {
+                em.createNamedQuery("creditAccountQuery")
+                        .setParameter("id", HOT_ACCOUNT_ID).setParameter("amount", Money.ofMajor(1)).executeUpdate();
+            } else {
+                em.createNamedQuery("creditAccountSlotQuery").setParameter("id", HOT_ACCOUNT_ID)
+                        .setParameter("slot", HotAccountRegistry.slotForCurrentWriter(slots))
+                        .setParameter("amount", Money.ofMajor(1)).executeUpdate();
+            }
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    private static Money readBalance(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Money balance = (Money) em.createNamedQuery("selectAccountBalanceQuery")
+                    .setParameter("id", HOT_ACCOUNT_ID).getSingleResult();
+            Object slots = em.createNamedQuery("sumAccountSlotsQuery")
+                    .setParameter("id", HOT_ACCOUNT_ID).getSingleResult();
+            return balance.plus(Money.fromAggregate(slots));
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void createAccount(EntityManagerFactory emf, int slots) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.persist(new Account(HOT_ACCOUNT_ID, 999_000_002, Money.ZERO, AccountType.BUSINESS));
+        em.flush();
+        if (slots > 0) {
+            em.createNamedQuery("promoteAccountQuery")
+                    .setParameter("id", HOT_ACCOUNT_ID).setParameter("slots", slots).executeUpdate();
+            for (int slot = 0; slot < slots; slot++) {
+                em.persist(new AccountBalanceSlot(HOT_ACCOUNT_ID, slot));
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private static void deleteAccount(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.createNamedQuery("deleteAccountSlotsQuery").setParameter("id", HOT_ACCOUNT_ID).executeUpdate();
+        em.createNamedQuery("deleteAccountQuery").setParameter("id", HOT_ACCOUNT_ID).executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+}
@@ -0,0 +1,181 @@
+import Business.JournalBeanImpl;
+import Entity.Account;
+import Entity.AccountBalanceSlot;
+import Entity.AccountBalanceSnapshot;
+import Entity.AccountJournalEntry;
+import Exception.AccountTypeException;
+import Model.AccountType;
+import Model.JournalEntryType;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for the {@link JournalBeanImpl} class.
+ * It provides unit tests for the historical balance and the snapshot maintenance.
+ * The tests use Mockito to mock interactions with the database via the EntityManager.
+ */
+public class JournalBeanImplTest {
+
+    // Mocked EntityManager for simulating database interactions
+    @Mock
+    private EntityManager entityManager;
+
+    // The class under test
+    @InjectMocks
+    private JournalBeanImpl journalBeanImpl;
+
+    // Mocked queries returned by the EntityManager
+    private Query snapshotQuery;
+    private Query sumQuery;
+
+    /**
+     * Initializes the mocks before each test method is executed.
+     */
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        snapshotQuery = mockQuery("selectLatestSnapshotQuery");
+        sumQuery = mockQuery("sumJournalQuery");
+    }
+
+    /**
+     * Tests the historical balance of an account with a snapshot.
+     * Only the journal tail after the snapshot is summed on top of it.
+     */
+    @Test
+    public void testGetBalanceAsOf_FromSnapshot() {
+        // Given: A snapshot of 1000 and a tail of 250
+        Instant takenAt = Instant.parse("2024-01-01T00:00:00Z");
+        Instant asOf = Instant.parse("2024-01-02T00:00:00Z");
+        when(snapshotQuery.getResultList()).thenReturn(Collections.singletonList(new AccountBalanceSnapshot(1, takenAt, Money.ofMajor(1000))));
+        when(sumQuery.getSingleResult()).thenReturn(Money.ofMajor(250));
+
+        // When: Reading the balance as of the next day
+        Money balance = journalBeanImpl.getBalanceAsOf(1, asOf);
+
+        // Then: The tail starts right after the snapshot
+        assertEquals(Money.ofMajor(1250), balance);
+        verify(sumQuery).setParameter("from", takenAt);
+        verify(sumQuery).setParameter("to", asOf);
+    }
+
+    /**
+     * Tests the historical balance of an account without any snapshot.
+     * The whole journal up to the given time is summed.
+     */
+    @Test
+    public void testGetBalanceAsOf_WithoutSnapshot() {
+        // Given: No snapshot and journal entries summing to 75
+        when(snapshotQuery.getResultList()).thenReturn(Collections.emptyList());
+        when(sumQuery.getSingleResult()).thenReturn(Money.ofMajor(75));
+
+        // When & Then: The balance is the sum of the journal
+        assertEquals(Money.ofMajor(75), journalBeanImpl.getBalanceAsOf(1, Instant.now()));
+        verify(sumQuery).setParameter("from", Instant.EPOCH);
+    }
+
+    /**
+     * Tests the snapshot maintenance for an account with enough settled entries.
+     * A snapshot is written every SNAPSHOT_EVERY entries with the running balance.
+     */
+    @Test
+    public void testTakeSnapshots() {
+        // Given: One due account with two and a half snapshot intervals of entries of 1 each
+        int every = JournalBeanImpl.SNAPSHOT_EVERY;
+        List<AccountJournalEntry> entries = new ArrayList<>();
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < every * 5 / 2; i++) {
+            entries.add(new AccountJournalEntry(1, Money.ofMajor(1), JournalEntryType.DEPOSIT, null, start.plusSeconds(i)));
+        }
+        when(mockQuery("selectAccountsDueForSnapshotQuery").getResultList()).thenReturn(Collections.singletonList(1));
+        when(snapshotQuery.getResultList()).thenReturn(Collections.emptyList());
+        when(mockQuery("selectJournalQuery").getResultList()).thenReturn(new ArrayList<>(entries));
+
+        // When: Taking the snapshots
+        int taken = journalBeanImpl.takeSnapshots();
+
+        // Then: Two snapshots are written, at the end of each full interval
+        assertEquals(2, taken);
+        ArgumentCaptor<AccountBalanceSnapshot> captor = ArgumentCaptor.forClass(AccountBalanceSnapshot.class);
+        verify(entityManager, times(2)).persist(captor.capture());
+        assertEquals(Money.ofMajor(every), captor.getAllValues().get(0).getBalance());
+        assertEquals(entries.get(every - 1).getOccurredAt(), captor.getAllValues().get(0).getTakenAt());
+        assertEquals(Money.ofMajor(2L * every), captor.getAllValues().get(1).getBalance());
+    }
+
+    /**
+     * Tests the opening entry of an account created before the journal.
+     * It makes the journal add up to the current balance, including the balance slots.
+     */
+    @Test
+    public void testRecordBaseline() throws AccountTypeException {
+        // Given: An account holding 100 in its row and 20 in a slot, with 30 journaled since its first movement
+        Instant firstMovement = Instant.parse("2024-01-01T00:00:00Z");
+        when(entityManager.find(Account.class, 1, LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(new Account(1, 100001, Money.ofMajor(100), AccountType.SAVING));
+        AccountBalanceSlot slot = new AccountBalanceSlot(1, 0);
+        slot.setBalance(Money.ofMajor(20));
+        Query slotQuery = mockQuery("selectAccountSlotsQuery");
+        when(slotQuery.setLockMode(any())).thenReturn(slotQuery);
+        when(slotQuery.getResultList()).thenReturn(Collections.singletonList(slot));
+        when(mockQuery("countOpeningEntriesQuery").getSingleResult()).thenReturn(0L);
+        when(mockQuery("summarizeJournalQuery").getSingleResult()).thenReturn(new Object[]{Money.ofMajor(30), firstMovement});
+        Query deleteQuery = mockQuery("deleteAccountSnapshotsQuery");
+
+        // When: Recording its baseline
+        boolean recorded = journalBeanImpl.recordBaseline(1);
+
+        // Then: The opening entry holds the balance not covered by the journal, dated at the first
+        // movement, and the snapshots lacking it are dropped
+        assertTrue(recorded);
+        ArgumentCaptor<AccountJournalEntry> captor = ArgumentCaptor.forClass(AccountJournalEntry.class);
+        verify(entityManager).persist(captor.capture());
+        assertEquals(Money.ofMajor(90), captor.getValue().getAmount());
+        assertEquals(JournalEntryType.OPENING, captor.getValue().getEntryType());
+        assertEquals(firstMovement, captor.getValue().getOccurredAt());
+        verify(deleteQuery).executeUpdate();
+    }
+
+    /**
+     * Tests that no second opening entry is written for an account that already has one.
+     */
+    @Test
+    public void testRecordBaseline_AlreadyRecorded() throws AccountTypeException {
+        // Given: An account with an opening entry
+        when(entityManager.find(Account.class, 1, LockModeType.PESSIMISTIC_WRITE))
+                .thenReturn(new Account(1, 100001, Money.ofMajor(100), AccountType.SAVING));
+        Query slotQuery = mockQuery("selectAccountSlotsQuery");
+        when(slotQuery.setLockMode(any())).thenReturn(slotQuery);
+        when(slotQuery.getResultList()).thenReturn(Collections.emptyList());
+        when(mockQuery("countOpeningEntriesQuery").getSingleResult()).thenReturn(1L);
+
+        // When & Then: Nothing is written
+        assertFalse(journalBeanImpl.recordBaseline(1));
+        verify(entityManager, never()).persist(any());
+    }
+
+    // Returns a mocked query for the given name that accepts any parameter.
+    private Query mockQuery(String name) {
+        Query query = mock(Query.class);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.setMaxResults(anyInt())).thenReturn(query);
+        when(entityManager.createNamedQuery(name)).thenReturn(query);
+        return query;
+    }
+}
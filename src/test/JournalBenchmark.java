@@ -0,0 +1,114 @@
+import Business.JournalBeanImpl;
+import Entity.AccountJournalEntry;
+import Model.JournalEntryType;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark for the account journal.
+ * <p>
+ * The first part measures the journal append rate for several JDBC batch sizes, writing a fixed
+ * number of entries per transaction as a transfer batch would. The second part measures the latency
+ * of "balance as of" queries on a long journal, first by replaying the journal and then with the
+ * periodic snapshots written by {@link JournalBeanImpl}.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.entries=... -Dbench.queries=...}; see {@link BenchmarkSupport}.
+ */
+public class JournalBenchmark {
+
+    // Id of the account used by the benchmark, far away from real data.
+    private static final int ACCOUNT_ID = 900_000_003;
+    // Number of entries written per transaction.
+    private static final int ENTRIES_PER_TRANSACTION = 100;
+
+    public static void main(String[] args) {
+        // Let snapshots cover entries as soon as they are written
+        System.setProperty("project2.journal.settleMillis", "0");
+        int entries = Integer.getInteger("bench.entries", 100_000);
+        int queries = Integer.getInteger("bench.queries", 1_000);
+        for (int batchSize : new int[]{1, 10, 50, 100}) {
+            EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory(
+                    Collections.singletonMap("hibernate.jdbc.batch_size", String.valueOf(batchSize)));
+            try {
+                append(emf, batchSize, 10_000);
+            } finally {
+                emf.close();
+            }
+        }
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory();
+        try {
+            deleteJournal(emf);
+            Instant start = Instant.now();
+            append(emf, 50, entries);
+            Instant end = Instant.now();
+            queryAsOf(emf, "replay", start, end, queries);
+            int snapshots = takeSnapshots(emf);
+            queryAsOf(emf, "snapshots(" + snapshots + ")", start, end, queries);
+            deleteJournal(emf);
+        } finally {
+            emf.close();
+        }
+    }
+
+    // Appends the given number of entries and prints the append rate.
+    private static void append(EntityManagerFactory emf, int batchSize, int entries) {
+        Instant time = Instant.now();
+        long start = System.nanoTime();
+        for (int written = 0; written < entries; written += ENTRIES_PER_TRANSACTION) {
+            EntityManager em = emf.createEntityManager();
+            em.getTransaction().begin();
+            for (int i = 0; i < ENTRIES_PER_TRANSACTION; i++) {
+                // Distinct, increasing times keep the snapshot intervals exact
+                time = time.plusNanos(1000);
+                em.persist(new AccountJournalEntry(ACCOUNT_ID, Money.ofMajor(1), JournalEntryType.DEPOSIT, null, time));
+            }
+            em.getTransaction().commit();
+            em.close();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("append batchSize=%3d entries=%7d rate=%s%n",
+                batchSize, entries, BenchmarkSupport.opsPerSecond(entries, elapsed));
+    }
+
+    // Runs "as of" queries at random times between start and end and prints the mean latency.
+    private static void queryAsOf(EntityManagerFactory emf, String mode, Instant start, Instant end, int queries) {
+        JournalBeanImpl journal = new JournalBeanImpl();
+        journal.entityManager = emf.createEntityManager();
+        long span = end.toEpochMilli() - start.toEpochMilli();
+        long checksum = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            Instant asOf = start.plusMillis(ThreadLocalRandom.current().nextLong(span + 1));
+            checksum += journal.getBalanceAsOf(ACCOUNT_ID, asOf).getMinorUnits();
+        }
+        long elapsed = System.nanoTime() - begin;
+        journal.entityManager.close();
+        System.out.printf("asOf mode=%-16s queries=%5d meanLatency=%.3f ms (checksum %d)%n",
+                mode, queries, elapsed / 1_000_000.0 / queries, checksum);
+    }
+
+    // Removes the benchmark entries; the application itself never deletes journal entries.
+    private static void deleteJournal(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.createQuery("DELETE FROM AccountBalanceSnapshot s WHERE s.accountId = :id").setParameter("id", ACCOUNT_ID).executeUpdate();
+        em.createQuery("DELETE FROM AccountJournalEntry e WHERE e.accountId = :id").setParameter("id", ACCOUNT_ID).executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private static int takeSnapshots(EntityManagerFactory emf) {
+        JournalBeanImpl journal = new JournalBeanImpl();
+        journal.entityManager = emf.createEntityManager();
+        journal.entityManager.getTransaction().begin();
+        int taken = journal.takeSnapshots();
+        journal.entityManager.getTransaction().commit();
+        journal.entityManager.close();
+        return taken;
+    }
+}
@@ -0,0 +1,88 @@
+import Model.Money;
+import Model.NonNegativeMoney;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link Money}.
+ * It checks exact parsing, formatting, arithmetic and the JSON representation of amounts.
+ */
+public class MoneyTest {
+
+    /**
+     * Tests that decimal text is parsed exactly into minor units.
+     */
+    @Test
+    public void testParse() {
+        assertEquals(125_050, Money.parse("1250.5").getMinorUnits());
+        assertEquals(-1, Money.parse("-0.01").getMinorUnits());
+        assertEquals(100_000, Money.parse("1000").getMinorUnits());
+        assertEquals(10, Money.parse(".10").getMinorUnits());
+        // Trailing zeros beyond the cent are harmless
+        assertEquals(150, Money.parse("1.5000").getMinorUnits());
+    }
+
+    /**
+     * Tests that text that is not an exact amount of cents is rejected.
+     */
+    @Test
+    public void testParse_Invalid() {
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("abc"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("-"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(null));
+    }
+
+    /**
+     * Tests that sums that drift with doubles stay exact.
+     */
+    @Test
+    public void testArithmeticIsExact() {
+        Money sum = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            sum = sum.plus(Money.parse("0.10"));
+        }
+        assertEquals(Money.ofMajor(1), sum);
+        assertEquals(Money.parse("-0.30"), Money.parse("0.10").minus(Money.parse("0.40")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    /**
+     * Tests the decimal representation used by the services and the report.
+     */
+    @Test
+    public void testToString() {
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("12.05", Money.ofMinor(1205).toString());
+        assertEquals("-0.50", Money.ofMinor(-50).toString());
+    }
+
+    /**
+     * Tests that amounts are written to JSON as plain numbers and read back exactly.
+     *
+     * @throws Exception if the JSON cannot be processed (not expected in this test)
+     */
+    @Test
+    public void testJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals("1250.50", mapper.writeValueAsString(Money.parse("1250.5")));
+        assertEquals(Money.parse("1250.5"), mapper.readValue("1250.50", Money.class));
+        assertEquals(Money.parse("0.07"), mapper.readValue("\"0.07\"", Money.class));
+    }
+
+    /**
+     * Tests the constraint on account balances: zero, which a debit of the whole balance leaves, is
+     * valid, a negative amount is not, and null is left to {@code @NotNull}.
+     */
+    @Test
+    public void testNonNegativeMoney() {
+        NonNegativeMoney.Validator validator = new NonNegativeMoney.Validator();
+        assertTrue(validator.isValid(Money.ZERO, null));
+        assertTrue(validator.isValid(Money.parse("0.01"), null));
+        assertFalse(validator.isValid(Money.parse("-0.01"), null));
+        assertTrue(validator.isValid(null, null));
+    }
+}
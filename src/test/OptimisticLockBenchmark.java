@@ -0,0 +1,120 @@
+import Business.Interceptor.OptimisticRetryInterceptor;
+import Entity.Account;
+import Model.AccountType;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark for optimistic locking on a single hot account.
+ * <p>
+ * Every thread repeatedly updates the account number of the same account, each update in its own
+ * transaction, retrying version conflicts with the same jittered backoff used by
+ * {@link OptimisticRetryInterceptor}. For each thread count it reports committed updates per second
+ * and the number of conflicts that had to be retried.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.updates=...}; see {@link BenchmarkSupport}.
+ */
+public class OptimisticLockBenchmark {
+
+    // Id of the hot account used by the benchmark, far away from real data.
+    private static final int HOT_ACCOUNT_ID = 900_000_001;
+
+    public static void main(String[] args) throws Exception {
+        int updatesPerThread = Integer.getInteger("bench.updates", 200);
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory();
+        try {
+            createHotAccount(emf);
+            for (int threads : new int[]{1, 2, 4, 8, 16}) {
+                run(emf, threads, updatesPerThread);
+            }
+            deleteHotAccount(emf);
+        } finally {
+            emf.close();
+        }
+    }
+
+    // Runs one round with the given number of threads and prints its throughput.
+    private static void run(EntityManagerFactory emf, int threads, int updatesPerThread) throws InterruptedException {
+        AtomicLong committed = new AtomicLong();
+        AtomicLong conflicts = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < updatesPerThread; i++) {
+                    if (updateWithRetry(emf, conflicts)) {
+                        committed.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("threads=%2d committed=%6d conflicts=%6d gaveUp=%4d throughput=%s%n",
+                threads, committed.get(), conflicts.get(), failed.get(),
+                BenchmarkSupport.opsPerSecond(committed.get(), elapsed));
+    }
+
+    // Performs one version-checked update, retrying conflicts like the interceptor does.
+    private static boolean updateWithRetry(EntityManagerFactory emf, AtomicLong conflicts) {
+        for (int attempt = 1; attempt <= OptimisticRetryInterceptor.MAX_ATTEMPTS; attempt++) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.getTransaction().begin();
+                Account account = em.find(Account.class, HOT_ACCOUNT_ID);
+                account.setAccountNumber(1000 + ThreadLocalRandom.current().nextInt(1_000_000));
+                em.getTransaction().commit();
+                return true;
+            } catch (RuntimeException e) {
+                if (em.getTransaction().isActive()) {
+                    em.getTransaction().rollback();
+                }
+                if (!OptimisticRetryInterceptor.isConflict(e)) {
+                    throw e;
+                }
+                conflicts.incrementAndGet();
+                sleep(OptimisticRetryInterceptor.backoffMillis(attempt));
+            } finally {
+                em.close();
+            }
+        }
+        return false;
+    }
+
+    private static void createHotAccount(EntityManagerFactory emf) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        if (em.find(Account.class, HOT_ACCOUNT_ID) == null) {
+            em.persist(new Account(HOT_ACCOUNT_ID, 999_000_001, Money.ofMajor(1000), AccountType.BUSINESS));
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private static void deleteHotAccount(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.createNamedQuery("deleteAccountQuery").setParameter("id", HOT_ACCOUNT_ID).executeUpdate();
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
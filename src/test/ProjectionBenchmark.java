@@ -0,0 +1,98 @@
+import Entity.Account;
+import Model.AccountType;
+import Model.AccountView;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Read path benchmark comparing managed entities with projection views.
+ * <p>
+ * Each read runs the way a find endpoint does: a fresh persistence context and transaction, one
+ * account looked up by ID and rendered with {@code toString()}. The entity variant uses
+ * {@code selectAccountQuery}, the view variant {@code selectAccountViewQuery}. For both it reports
+ * the mean latency and the bytes allocated per read by the benchmark thread, after a warm-up round.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.accounts=... -Dbench.reads=...}; see {@link BenchmarkSupport}.
+ */
+public class ProjectionBenchmark {
+
+    // First id of the benchmark accounts, far away from real data.
+    private static final int FIRST_ACCOUNT_ID = 900_100_001;
+
+    public static void main(String[] args) throws Exception {
+        int accounts = Integer.getInteger("bench.accounts", 1_000);
+        int reads = Integer.getInteger("bench.reads", 20_000);
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory();
+        try {
+            createAccounts(emf, accounts);
+            // Warm up both paths before measuring
+            run(emf, "selectAccountQuery", accounts, reads, false);
+            run(emf, "selectAccountViewQuery", accounts, reads, false);
+            run(emf, "selectAccountQuery", accounts, reads, true);
+            run(emf, "selectAccountViewQuery", accounts, reads, true);
+            deleteAccounts(emf, accounts);
+        } finally {
+            emf.close();
+        }
+    }
+
+    // Reads random accounts through one query and prints latency and allocation per read.
+    private static void run(EntityManagerFactory emf, String queryName, int accounts, int reads, boolean print) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long checksum = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            int id = FIRST_ACCOUNT_ID + ThreadLocalRandom.current().nextInt(accounts);
+            EntityManager em = emf.createEntityManager();
+            try {
+                em.getTransaction().begin();
+                Object account = em.createNamedQuery(queryName).setParameter("id", id).getSingleResult();
+                checksum += account.toString().length();
+                em.getTransaction().commit();
+            } finally {
+                em.close();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (print) {
+            System.out.printf("query=%-22s reads=%6d meanLatency=%.3f ms allocated=%6d B/read throughput=%s chars=%d%n",
+                    queryName, reads, elapsed / 1_000_000.0 / reads, allocated / reads,
+                    BenchmarkSupport.opsPerSecond(reads, elapsed), checksum);
+        }
+    }
+
+    private static void createAccounts(EntityManagerFactory emf, int accounts) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < accounts; i++) {
+            if (em.find(Account.class, FIRST_ACCOUNT_ID + i) == null) {
+                em.persist(new Account(FIRST_ACCOUNT_ID + i, 999_100_001 + i, Money.ofMajor(1000), AccountType.SAVING));
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+        // Make sure the projection sees the same rows as the entity query
+        EntityManager check = emf.createEntityManager();
+        AccountView view = check.createNamedQuery("selectAccountViewQuery", AccountView.class)
+                .setParameter("id", FIRST_ACCOUNT_ID).getSingleResult();
+        System.out.println("sample: " + view);
+        check.close();
+    }
+
+    private static void deleteAccounts(EntityManagerFactory emf, int accounts) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < accounts; i++) {
+            em.createNamedQuery("deleteAccountQuery").setParameter("id", FIRST_ACCOUNT_ID + i).executeUpdate();
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+}
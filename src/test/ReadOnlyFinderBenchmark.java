@@ -0,0 +1,110 @@
+import Entity.Account;
+import Model.AccountType;
+import Model.Money;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FlushModeType;
+import jakarta.persistence.Query;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrency benchmark for the read-only execution mode of the finders.
+ * <p>
+ * Both variants look up random accounts with {@code selectAccountQuery}, each call in a fresh
+ * persistence context like a container call. The transactional variant wraps the query in a
+ * transaction with the default AUTO flush mode, as the finders did under REQUIRED. The read-only
+ * variant runs without a transaction, with the read-only hint and COMMIT flush mode. For each
+ * thread count it reports the throughput and the mean time per call.
+ * </p>
+ * Run with {@code -Dbench.jdbc.url=... -Dbench.accounts=... -Dbench.reads=...}; see {@link BenchmarkSupport}.
+ */
+public class ReadOnlyFinderBenchmark {
+
+    // First id of the benchmark accounts, far away from real data.
+    private static final int FIRST_ACCOUNT_ID = 900_200_001;
+
+    public static void main(String[] args) throws Exception {
+        int accounts = Integer.getInteger("bench.accounts", 1_000);
+        int readsPerThread = Integer.getInteger("bench.reads", 5_000);
+        EntityManagerFactory emf = BenchmarkSupport.createEntityManagerFactory();
+        try {
+            createAccounts(emf, accounts);
+            // Warm up both variants before measuring
+            run(emf, false, 4, accounts, readsPerThread, false);
+            run(emf, true, 4, accounts, readsPerThread, false);
+            for (int threads : new int[]{1, 4, 16, 64}) {
+                run(emf, false, threads, accounts, readsPerThread, true);
+                run(emf, true, threads, accounts, readsPerThread, true);
+            }
+            deleteAccounts(emf, accounts);
+        } finally {
+            emf.close();
+        }
+    }
+
+    // Runs one round with the given number of threads and prints its throughput.
+    private static void run(EntityManagerFactory emf, boolean readOnly, int threads, int accounts, int readsPerThread,
+                            boolean print) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < readsPerThread; i++) {
+                    read(emf, FIRST_ACCOUNT_ID + ThreadLocalRandom.current().nextInt(accounts), readOnly);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.HOURS);
+        long elapsed = System.nanoTime() - start;
+        long reads = (long) threads * readsPerThread;
+        if (print) {
+            System.out.printf("mode=%-13s threads=%2d reads=%7d meanCall=%.3f ms throughput=%s%n",
+                    readOnly ? "readOnly" : "transactional", threads, reads,
+                    elapsed * threads / 1_000_000.0 / reads, BenchmarkSupport.opsPerSecond(reads, elapsed));
+        }
+    }
+
+    // Looks one account up the way the finder does in the given mode.
+    private static void read(EntityManagerFactory emf, int id, boolean readOnly) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Query query = em.createNamedQuery("selectAccountQuery").setParameter("id", id);
+            if (readOnly) {
+                query.setHint("org.hibernate.readOnly", true).setFlushMode(FlushModeType.COMMIT).getSingleResult();
+            } else {
+                em.getTransaction().begin();
+                query.getSingleResult();
+                em.getTransaction().commit();
+            }
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void createAccounts(EntityManagerFactory emf, int accounts) throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < accounts; i++) {
+            if (em.find(Account.class, FIRST_ACCOUNT_ID + i) == null) {
+                em.persist(new Account(FIRST_ACCOUNT_ID + i, 999_200_001 + i, Money.ofMajor(1000), AccountType.CHECKING));
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private static void deleteAccounts(EntityManagerFactory emf, int accounts) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < accounts; i++) {
+            em.createNamedQuery("deleteAccountQuery").setParameter("id", FIRST_ACCOUNT_ID + i).executeUpdate();
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+}
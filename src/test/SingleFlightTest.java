@@ -0,0 +1,103 @@
+import Business.Concurrent.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the {@link SingleFlight} coalescer.
+ * It checks that concurrent callers of one key share a single load, its result and its failure,
+ * and that callers beyond the in-flight limit load on their own.
+ */
+public class SingleFlightTest {
+
+    /**
+     * Tests that callers arriving while a load runs get its result without loading again.
+     */
+    @Test
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        // Given: A load of key 1 that blocks until released
+        SingleFlight<Integer, String> loads = new SingleFlight<>("test", 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        SingleFlight.Loader<String, RuntimeException> loader = () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "account 1";
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> loads.load(1, loader)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When: Seven more callers ask for key 1 while the load runs
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> loads.load(1, loader)));
+            }
+            while (loads.getCoalesced() < 7) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then: All of them get the result of the single load
+            for (Future<String> result : results) {
+                assertEquals("account 1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, runs.get());
+            assertEquals(1, loads.getLoads());
+            assertEquals(7.0 / 8, loads.getCoalescingRatio(), 1e-9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the exception of a load reaches its caller with its checked type, and that the
+     * next call loads again.
+     */
+    @Test
+    public void testFailureIsRethrown() {
+        // Given: A load that fails
+        SingleFlight<Integer, String> loads = new SingleFlight<>("test", 10);
+
+        // When / Then: The checked exception reaches the caller, and the key can be loaded again
+        assertThrows(IOException.class, () -> loads.load(1, () -> {
+            throw new IOException("not found");
+        }));
+        assertEquals("found", loads.load(1, () -> "found"));
+        assertEquals(2, loads.getLoads());
+    }
+
+    /**
+     * Tests that a caller loads on its own once the in-flight limit is reached.
+     */
+    @Test
+    public void testBypassWhenFull() {
+        // Given: A coalescer allowing no flight at all
+        SingleFlight<Integer, String> loads = new SingleFlight<>("test", 0);
+
+        // When: Loading a key
+        String value = loads.load(1, () -> "direct");
+
+        // Then: The caller loaded it without coalescing
+        assertEquals("direct", value);
+        assertEquals(1, loads.getBypassed());
+        assertEquals(0, loads.getLoads());
+    }
+}
@@ -0,0 +1,84 @@
+import Business.Concurrent.StripedLocks;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput benchmark for the striped locking used by the transfer engine.
+ * <p>
+ * Many threads move money between random pairs drawn from a small set of accounts, so pairs overlap
+ * heavily and cross transfers (A to B while B to A) are frequent. Each transfer locks both stripes with
+ * {@link StripedLocks#lockAll(int[], long, TimeUnit)} and applies a conditional debit and a credit on an
+ * in-memory balance table. The benchmark reports transfers per second, and it checks that no money was
+ * created or lost. It can only finish if the locking is deadlock-free.
+ * </p>
+ * Run with {@code -Dbench.accounts=... -Dbench.stripes=... -Dbench.seconds=...}.
+ */
+public class TransferBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int accounts = Integer.getInteger("bench.accounts", 64);
+        int stripes = Integer.getInteger("bench.stripes", 256);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            run(threads, accounts, stripes, seconds);
+        }
+    }
+
+    // Runs the workload with the given number of threads for a fixed duration.
+    private static void run(int threads, int accounts, int stripeCount, int seconds) throws InterruptedException {
+        StripedLocks locks = new StripedLocks(stripeCount);
+        long[] balances = new long[accounts];
+        java.util.Arrays.fill(balances, 1_000_000);
+        long expectedTotal = 1_000_000L * accounts;
+        AtomicLong completed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int from = random.nextInt(accounts);
+                    int to = random.nextInt(accounts - 1);
+                    to = to >= from ? to + 1 : to;
+                    long amount = 1 + random.nextInt(1000);
+                    int[] locked;
+                    try {
+                        locked = locks.lockAll(new int[]{from, to}, 5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Lock acquisition failed", e);
+                    }
+                    try {
+                        // Conditional debit, as done by debitAccountQuery
+                        if (balances[from] >= amount) {
+                            balances[from] -= amount;
+                            balances[to] += amount;
+                            completed.incrementAndGet();
+                        } else {
+                            rejected.incrementAndGet();
+                        }
+                    } finally {
+                        locks.unlockAll(locked);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(seconds + 30L, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Benchmark did not finish: possible deadlock");
+        }
+        long elapsed = System.nanoTime() - start;
+        long total = 0;
+        for (long balance : balances) {
+            total += balance;
+        }
+        System.out.printf("threads=%2d transfers=%9d rejected=%7d throughput=%s conserved=%b%n",
+                threads, completed.get(), rejected.get(),
+                BenchmarkSupport.opsPerSecond(completed.get(), elapsed), total == expectedTotal);
+    }
+}